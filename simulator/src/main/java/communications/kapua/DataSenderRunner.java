@@ -15,17 +15,13 @@
 package communications.kapua;
 
 import company.company.Company;
-import company.delivery.Delivery;
+import company.company.CompanySnapshot;
+import company.delivery.DeliverySnapshot;
 import company.delivery.DeliveryStatus;
-import company.transportation.Transportation;
 import org.eclipse.kapua.gateway.client.Application;
 import org.eclipse.kapua.gateway.client.Payload;
 import org.eclipse.kapua.gateway.client.Topic;
 import org.slf4j.LoggerFactory;
-import storage.ItemStore;
-
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Sends telemetry data to Kapua.
@@ -44,23 +40,22 @@ public class DataSenderRunner implements Runnable {
     }
 
     /**
-     * Sends all telemetry data to Kapua
+     * Sends all telemetry data to Kapua, from the latest snapshot of the company.
      */
     @Override
     public void run() {
-        Delivery[] deliveries = company.getDeliveries()
-                .toArray(new Delivery[company.getDeliveries().size()]);
-        for (final Delivery delivery : deliveries) {
+        final CompanySnapshot snapshot = company.getSnapshot();
+        for (final DeliverySnapshot delivery : snapshot.getDeliveries()) {
             updateDeliveryStatus(delivery);
 
             if (delivery.getDeliveryState().equals(DeliveryStatus.TRANSIT)) {
                 updateDeliveryAssignedTransportation(delivery);
                 updateDeliveryLocation(delivery);
-                updateTransportationHealthState(delivery.getTransporter());
+                updateTransportationHealthState(delivery);
             }
         }
 
-        updateStoresSizes();
+        updateStoresSizes(snapshot);
     }
 
     /**
@@ -68,9 +63,9 @@ public class DataSenderRunner implements Runnable {
      * @param delivery
      * A delivery that is has an assigned transportation (that is in transit)
      */
-    private void updateDeliveryAssignedTransportation(Delivery delivery) {
+    private void updateDeliveryAssignedTransportation(DeliverySnapshot delivery) {
         payload = new Payload.Builder();
-        payload.put("transportation-id",delivery.getTransporter().getId());
+        payload.put("transportation-id",delivery.getTransporterId());
         send(payload, "deliveries","assigned-transportation",delivery.getId());
     }
 
@@ -79,7 +74,7 @@ public class DataSenderRunner implements Runnable {
      * @param delivery
      * A delivery that is in transit
      */
-    private void updateDeliveryLocation(final Delivery delivery) {
+    private void updateDeliveryLocation(final DeliverySnapshot delivery) {
         payload = new Payload.Builder();
         payload.put("coordinates",delivery.getCurrentLocation().toString());
         send(payload,"deliveries","locations","coordinates",delivery.getId());
@@ -87,13 +82,13 @@ public class DataSenderRunner implements Runnable {
 
     /**
      * Sends transportation health state
-     * @param transportation
-     * A transportation that is attached to a delivery in transit
+     * @param delivery
+     * A delivery in transit, whose transportation health state is sent
      */
-    private void updateTransportationHealthState(final Transportation transportation) {
+    private void updateTransportationHealthState(final DeliverySnapshot delivery) {
         payload = new Payload.Builder();
-        payload.put("health",transportation.getHealthState().name());
-        send(payload, "transports","health-state", transportation.getId());
+        payload.put("health",delivery.getTransporterHealthState().name());
+        send(payload, "transports","health-state", delivery.getTransporterId());
     }
 
     /**
@@ -101,7 +96,7 @@ public class DataSenderRunner implements Runnable {
      * @param delivery
      * Any delivery.
      */
-    private void updateDeliveryStatus(final Delivery delivery) {
+    private void updateDeliveryStatus(final DeliverySnapshot delivery) {
         payload = new Payload.Builder();
         payload.put("status",delivery.getDeliveryState().name());
         send(payload,"deliveries","status",delivery.getId());
@@ -109,17 +104,11 @@ public class DataSenderRunner implements Runnable {
 
     /**
      * Sends the size of each company store.
+     * @param snapshot
+     * Snapshot of the company.
      */
-    private void updateStoresSizes() {
-        Map<String, Integer> stores = new HashMap<>();
-        stores.put("customers", company.getCustomers().size());
-        stores.put("orders", company.getOrders().size());
-        stores.put("deliveries", company.getDeliveries().size());
-        stores.put("products", company.getProducts().size());
-        stores.put("productTypes", company.getProductTypes().size());
-        stores.put("transportation", company.getAllTransportation().size());
-
-        stores.forEach((name, quantity) -> {
+    private void updateStoresSizes(final CompanySnapshot snapshot) {
+        snapshot.getStoresSizes().forEach((name, quantity) -> {
             payload = new Payload.Builder();
             payload.put("number", quantity);
             send(payload, "company", name, "number");
@@ -18,16 +18,16 @@ package communications.ui;
 import com.google.gson.Gson;
 import communications.ui.utils.CustomersClusterFinder;
 import company.company.Company;
+import company.company.CompanySnapshot;
 import company.company.CompanyType;
 import company.customer.Customer;
-import company.transportation.Transportation;
-import company.transportation.TransportationMode;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import simulation.main.Parametrizer;
 import simulation.main.VirtualTime;
+import storage.ItemExporter;
 import websocket.server.Response;
 
 import java.net.InetSocketAddress;
@@ -48,6 +48,8 @@ public class AppDataServer extends org.java_websocket.server.WebSocketServer {
     private final Gson gson = new Gson();
 
     private final static Logger logger = LoggerFactory.getLogger(AppDataServer.class);
+    /** Bounds the size of a websocket frame answering a paginated request. **/
+    private final static int MAX_PAGE_SIZE = 1000;
 
     public AppDataServer(Parametrizer parametrizer, VirtualTime virtualTime, int port) {
         super(new InetSocketAddress("localhost",port));
@@ -55,7 +57,8 @@ public class AppDataServer extends org.java_websocket.server.WebSocketServer {
         this.virtualTime = virtualTime;
         this.parametrizer = parametrizer;
         this.customersClusterFinder = new CustomersClusterFinder(parametrizer);
-        customersClusterFinder.build();
+        // Starts following the customers, so that the clusters are ready when asked
+        customersClusterFinder.getClusters();
     }
 
     /**
@@ -67,6 +70,8 @@ public class AppDataServer extends org.java_websocket.server.WebSocketServer {
      */
     private Response resolve(String request) {
         String[] segments = request.split("/");
+        // Every "get" of the request is answered from the same snapshot
+        final CompanySnapshot snapshot = company.getSnapshot();
         Response result = new Response();
         Map<String, Object> data = new HashMap<>();
 
@@ -76,20 +81,32 @@ public class AppDataServer extends org.java_websocket.server.WebSocketServer {
         // Now we actually parse the request be checking every acceptable case of request.
         // If the request is not one of the possible cases, then a null data will be responded to the client.
         if (segments.length == 3 && segments[0].equals("transportation") && segments[1].equals("type"))
-            data.put("transportation-type", getTransportationMode(segments[2]));
+            data.put("transportation-type", snapshot.getTransportationMode(segments[2]).orElse(null));
 
         if (segments.length >= 2) {
             if (segments[0].equals("time") && segments[1].equals("now"))
                 data.put("time", virtualTime.getCurrentDateTime());
 
             if (segments[0].equals("company")) {
-                if (segments[1].equals("name")) data.put("name", company.getName());
-                if (segments[1].equals("type")) data.put("company-type", company.getType().name());
-                if (segments[1].equals("headquarters")) data.put("address", company.getHeadquarters());
+                if (segments[1].equals("name")) data.put("name", snapshot.getName());
+                if (segments[1].equals("type")) data.put("company-type", snapshot.getType().name());
+                if (segments[1].equals("headquarters")) data.put("address", snapshot.getHeadquarters());
+
+                // company/customers/page/<page size>[/<continuation token>]
+                if (segments.length >= 4 && segments[1].equals("customers") && segments[2].equals("page")) {
+                    try {
+                        final ItemExporter.Page<Customer> page = ItemExporter.pageSorted(snapshot.getCustomers(),
+                                Math.min(Integer.valueOf(segments[3]), MAX_PAGE_SIZE), segments.length > 4 ? segments[4] : null);
+                        data.put("customers", page.getItems());
+                        data.put("next", page.getNext());
+                    } catch (IllegalArgumentException e) {
+                        logger.warn("Invalid customers page request " + request, e);
+                    }
+                }
 
                 if (segments.length == 3 && segments[1].equals("customers")) {
                     if (segments[2].equals("all"))
-                        data.put("customers", company.getCustomers().toArray());
+                        data.put("customers", snapshot.getCustomers());
                     if (segments[2].equals("clusters")) {
                         ExecutorService executorService = Executors.newSingleThreadExecutor();
                         Future<List<List<Customer>>> listFuture = executorService.submit(() -> customersClusterFinder.getClusters());
@@ -156,17 +173,6 @@ public class AppDataServer extends org.java_websocket.server.WebSocketServer {
         return result;
     }
 
-    private TransportationMode getTransportationMode(String transportationId) {
-        Optional<Transportation> transportationOptional = company.getAllTransportation()
-                .stream()
-                .filter(transportation -> transportation.getId().equals(transportationId))
-                .findFirst();
-
-        // Required to have a copy of the enum to avoid concurrent access exception of gson conversion
-        return transportationOptional.map(transportation ->
-                TransportationMode.valueOf(transportation.getTransportationMode().name())).orElse(null);
-    }
-
     private String toGson(Object obj) { return gson.toJson(obj); }
 
     @Override
@@ -14,21 +14,36 @@
 
 package communications.ui.utils;
 
-import company.address.Coordinates;
+import company.address.CoordinatesIndex;
+import company.company.Company;
+import company.company.CompanyType;
 import company.customer.Customer;
 import simulation.main.Parametrizer;
+import storage.ItemStore;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Finds clusters of customers using DBSCAN algorithm.
+ *
+ * The clusters returned by getClusters are kept up to date as customers are added and deleted, see
+ * IncrementalCustomersClusters. build runs the whole algorithm on the latest snapshot of the company.
  * @author Arthur Deschamps
  */
 public class CustomersClusterFinder {
 
+    /** Below this number of customers, finding the neighbours on several threads is not worth it. **/
+    private static final int PARALLEL_THRESHOLD = 2048;
+
     private Parametrizer parametrizer;
     private List<List<Customer>> clusters;
     private List<Customer> nodes;
+    /** Spatial index of the nodes, by node index. **/
+    private CoordinatesIndex index;
+    /** Neighbours of every node when they are found up front, null otherwise. **/
+    private int[][] neighbours;
+    private boolean parallel = true;
     private List<Integer> visited;
     private List<Integer> assigned;
     /**
@@ -41,43 +56,104 @@ public class CustomersClusterFinder {
      */
     private double eps;
 
+    /** Clustering kept up to date with the customers of the tracked company. **/
+    private IncrementalCustomersClusters incrementalClusters;
+    private Company trackedCompany;
+    private CompanyType trackedType;
+
     public CustomersClusterFinder(Parametrizer parametrizer) {
         this.parametrizer = parametrizer;
-        this.nodes = new ArrayList<>();
+        this.nodes = Collections.emptyList();
     }
 
     /**
-     * Copies all customers in order to work in a concurrent environment.
-     *
-     * Doesn't copy customers that have already been copied.
+     * Takes the customers from the latest snapshot of the company, which is immutable and thus safe to work on while
+     * the simulation runs.
      */
     private void copyCustomers() {
-        Set<Customer> allCustomers = new HashSet<>(this.parametrizer.getCompany().getCustomers());
-        nodes.retainAll(allCustomers);
-        Iterator<Customer> newCustomers = allCustomers.stream().filter((customer -> !nodes.contains(customer))).iterator();
-        while (newCustomers.hasNext())
-            nodes.add(new Customer(newCustomers.next()));
+        nodes = this.parametrizer.getCompany().getSnapshot().getCustomers();
     }
 
-    public List<List<Customer>> getClusters() {
-        build();
-        return clusters;
+    /**
+     * @return
+     * The current clusters of customers. Starts following the customers of the company on the first call, or when the
+     * company or its type changed. Otherwise it only reads the clustering maintained as customers come and go.
+     */
+    public synchronized List<List<Customer>> getClusters() {
+        final Company company = parametrizer.getCompany();
+        if (company != trackedCompany || company.getType() != trackedType)
+            track(company);
+        return incrementalClusters.getClusters();
     }
 
+    /**
+     * Starts following the customers of a company.
+     */
+    private void track(Company company) {
+        if (trackedCompany != null)
+            trackedCompany.getCustomerStore().removeListener(incrementalClusters);
+        configure(company.getType());
+        incrementalClusters = new IncrementalCustomersClusters(eps, minNodes);
+        final ItemStore<Customer> customerStore = company.getCustomerStore();
+        // Changes to the customer store hold its lock: none can happen between the registration and the first load
+        synchronized (customerStore) {
+            customerStore.addListener(incrementalClusters);
+            customerStore.getStorage().forEach(incrementalClusters::onAdd);
+        }
+        trackedCompany = company;
+        trackedType = company.getType();
+    }
 
     /**
      * Prepares everything for dbscan (parameters, customers in a non-concurrent list, etc) and start dbscan.
+     * @return
+     * The clusters found in the latest snapshot of the company.
      */
-    public void build() {
+    public synchronized List<List<Customer>> build() {
         copyCustomers();
-        this.minNodes = 0;
-        this.eps = 0;
+        configure(parametrizer.getCompany().getType());
         final int nodesSize = nodes.size();
         this.visited = new ArrayList<>(Collections.nCopies(nodesSize, 0));
         this.assigned = new ArrayList<>(Collections.nCopies(nodesSize, 0));
         this.clusters = new ArrayList<>();
+        this.index = new CoordinatesIndex(eps);
+        for (int i = 0; i < nodesSize; i++)
+            index.add(i, nodes.get(i).getAddress().getCoordinates());
+        this.neighbours = parallel && nodesSize >= PARALLEL_THRESHOLD ? findAllNeighbours() : null;
+        dbscan();
+        this.neighbours = null;
+        return clusters;
+    }
 
-        switch (parametrizer.getCompany().getType()) {
+    /**
+     * Sets whether build finds the neighbours of the customers on several threads. The clusters found are the same
+     * either way.
+     * @param parallel
+     * True to use the common fork-join pool, which is the default.
+     */
+    public synchronized void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Finds the neighbours of every node on the common fork-join pool. DBSCAN visits every node once, so it would ask
+     * for all of them anyway, and these queries only read the index. The expansion of the clusters then runs as
+     * usual, which keeps the clusters and their order the same as with a single thread.
+     */
+    private int[][] findAllNeighbours() {
+        return IntStream.range(0, nodes.size()).parallel()
+                .mapToObj(i -> index.query(nodes.get(i).getAddress().getCoordinates()).stream()
+                        .mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+    }
+
+    /**
+     * Sets the DBSCAN parameters matching the type of company.
+     */
+    private void configure(CompanyType companyType) {
+        this.minNodes = 0;
+        this.eps = 0;
+        switch (companyType) {
             case LOCAL:
                 minNodes = 2;
                 eps = 500;
@@ -90,8 +166,16 @@ public class CustomersClusterFinder {
                 minNodes = 15;
                 eps = 100;
                 break;
+            // Customers are denser, clusters are looked for at a finer scale
+            case GLOBAL_1M:
+                minNodes = 50;
+                eps = 50;
+                break;
+            case GLOBAL_10M:
+                minNodes = 100;
+                eps = 20;
+                break;
         }
-        dbscan();
     }
 
     /**
@@ -143,10 +227,14 @@ public class CustomersClusterFinder {
      * A list containing the indexes of any node closer than epsilon in terms of distance in km.
      */
     private List<Integer> getNeighbours(final int ofIndex) {
-        List<Integer> neighboursIndexes = new ArrayList<>();
-        for (int i = 0; i < nodes.size(); i++)
-            if (Coordinates.calculateDistance(nodes.get(ofIndex).getAddress().getCoordinates(), nodes.get(i).getAddress().getCoordinates()) <= eps)
-                neighboursIndexes.add(i);
+        if (neighbours == null)
+            return index.query(nodes.get(ofIndex).getAddress().getCoordinates());
+        final int[] found = neighbours[ofIndex];
+        // Every node is visited once: its neighbours are not needed anymore
+        neighbours[ofIndex] = null;
+        final List<Integer> neighboursIndexes = new ArrayList<>(found.length);
+        for (int neighbour : found)
+            neighboursIndexes.add(neighbour);
         return neighboursIndexes;
     }
 
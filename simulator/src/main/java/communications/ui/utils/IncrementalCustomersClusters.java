@@ -0,0 +1,269 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package communications.ui.utils;
+
+import company.address.Coordinates;
+import company.address.CoordinatesIndex;
+import company.customer.Customer;
+import storage.ItemStoreListener;
+
+import java.util.*;
+
+/**
+ * DBSCAN clustering of customers kept up to date as customers are added and deleted, instead of being computed again
+ * from scratch.
+ *
+ * Each customer knows how many customers are within eps of it. Core customers (at least minNodes neighbours, itself
+ * included) are labelled with their cluster. Adding a customer only looks at its neighbourhood: new core customers
+ * join or merge the clusters of their core neighbours. Deleting a customer may split a cluster, so the clusters that
+ * lost a core customer are walked again, and only them. A border customer belongs to the cluster of one of its core
+ * neighbours, which it keeps as an anchor.
+ *
+ * The clustering is rebuilt as a list only when asked and if it changed since the last time.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see CustomersClusterFinder
+ */
+public class IncrementalCustomersClusters implements ItemStoreListener<Customer> {
+
+    private static final int NONE = -1;
+
+    private final int minNodes;
+    private final CoordinatesIndex index;
+    /** Slot of each customer, by customer id. Slots of deleted customers are reused. **/
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotsCount;
+    private Customer[] customers = new Customer[16];
+    /** Number of customers within eps, the customer itself included. **/
+    private int[] neighbours = new int[16];
+    /** Cluster of core customers. **/
+    private int[] labels = new int[16];
+    /** Core neighbour of border customers. **/
+    private int[] anchors = new int[16];
+    /** Core customers of each cluster. **/
+    private final Map<Integer, Set<Integer>> clusters = new HashMap<>();
+    private int nextLabel;
+
+    private long version;
+    private long publishedVersion = -1;
+    private List<List<Customer>> published;
+
+    /**
+     * @param eps
+     * Maximum distance in km between two neighbours.
+     * @param minNodes
+     * Minimum number of neighbours, the customer itself included, of a core customer.
+     */
+    public IncrementalCustomersClusters(double eps, int minNodes) {
+        this.minNodes = minNodes;
+        this.index = new CoordinatesIndex(eps);
+    }
+
+    @Override
+    public synchronized void onAdd(Customer customer) {
+        if (customer == null || slots.containsKey(customer.getNumericId()))
+            return;
+        final int slot = freeSlots.isEmpty() ? newSlot() : freeSlots.pop();
+        final Coordinates coordinates = customer.getAddress().getCoordinates();
+        slots.put(customer.getNumericId(), slot);
+        customers[slot] = customer;
+        labels[slot] = NONE;
+        anchors[slot] = NONE;
+        index.add(slot, coordinates);
+
+        final List<Integer> around = index.query(coordinates);
+        neighbours[slot] = around.size();
+        final List<Integer> newCores = new ArrayList<>();
+        for (int neighbour : around)
+            if (neighbour != slot && ++neighbours[neighbour] == minNodes)
+                newCores.add(neighbour);
+        if (isCore(slot))
+            becomeCore(slot, around);
+        for (int core : newCores)
+            becomeCore(core, index.query(customers[core].getAddress().getCoordinates()));
+        if (!isCore(slot))
+            anchors[slot] = findCore(around);
+        version++;
+    }
+
+    @Override
+    public synchronized void onDelete(Customer customer) {
+        final Integer slot = customer == null ? null : slots.remove(customer.getNumericId());
+        if (slot == null)
+            return;
+        final List<Integer> around = index.query(customers[slot].getAddress().getCoordinates());
+        index.remove(slot);
+
+        // Core customers that are not core anymore, with their neighbourhood
+        final Map<Integer, List<Integer>> lostCores = new LinkedHashMap<>();
+        if (isCore(slot))
+            lostCores.put(slot, around);
+        for (int neighbour : around)
+            if (neighbour != slot && neighbours[neighbour]-- == minNodes)
+                lostCores.put(neighbour, null);
+        for (Map.Entry<Integer, List<Integer>> entry : lostCores.entrySet())
+            if (entry.getValue() == null)
+                entry.setValue(index.query(customers[entry.getKey()].getAddress().getCoordinates()));
+
+        final Set<Integer> affectedClusters = new TreeSet<>();
+        for (int core : lostCores.keySet()) {
+            affectedClusters.add(labels[core]);
+            clusters.get(labels[core]).remove(core);
+            labels[core] = NONE;
+        }
+        customers[slot] = null;
+        neighbours[slot] = 0;
+        anchors[slot] = NONE;
+        freeSlots.push(slot);
+
+        // Border customers anchored to a lost core, and lost cores that are still there, need a new anchor
+        for (Map.Entry<Integer, List<Integer>> entry : lostCores.entrySet()) {
+            final int core = entry.getKey();
+            if (core != slot)
+                anchors[core] = findCore(entry.getValue());
+            for (int neighbour : entry.getValue())
+                if (neighbour != slot && anchors[neighbour] == core)
+                    anchors[neighbour] = findCore(index.query(customers[neighbour].getAddress().getCoordinates()));
+        }
+        for (int label : affectedClusters)
+            split(label);
+        version++;
+    }
+
+    /**
+     * @return
+     * The current clusters. The list is immutable and not modified afterwards.
+     */
+    public synchronized List<List<Customer>> getClusters() {
+        if (publishedVersion != version) {
+            final Map<Integer, List<Customer>> byLabel = new TreeMap<>();
+            for (int slot = 0; slot < slotsCount; slot++) {
+                if (customers[slot] == null)
+                    continue;
+                final int label = isCore(slot) ? labels[slot] : anchors[slot] == NONE ? NONE : labels[anchors[slot]];
+                if (label != NONE)
+                    byLabel.computeIfAbsent(label, l -> new ArrayList<>()).add(customers[slot]);
+            }
+            final List<List<Customer>> clusters = new ArrayList<>(byLabel.size());
+            byLabel.values().forEach(cluster -> clusters.add(Collections.unmodifiableList(cluster)));
+            published = Collections.unmodifiableList(clusters);
+            publishedVersion = version;
+        }
+        return published;
+    }
+
+    /**
+     * @return
+     * Number of customers clustered (noise included).
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private boolean isCore(int slot) {
+        return customers[slot] != null && neighbours[slot] >= minNodes;
+    }
+
+    /**
+     * Labels a new core customer, merging the clusters of its core neighbours.
+     */
+    private void becomeCore(int core, List<Integer> around) {
+        int label = NONE;
+        for (int neighbour : around)
+            if (neighbour != core && labels[neighbour] != NONE)
+                label = merge(label, labels[neighbour]);
+        if (label == NONE) {
+            label = nextLabel++;
+            clusters.put(label, new HashSet<>());
+        }
+        clusters.get(label).add(core);
+        labels[core] = label;
+        anchors[core] = NONE;
+        for (int neighbour : around)
+            if (!isCore(neighbour) && anchors[neighbour] == NONE)
+                anchors[neighbour] = core;
+    }
+
+    /**
+     * Merges two clusters by moving the core customers of the smallest one.
+     * @return
+     * The label of the merged cluster.
+     */
+    private int merge(int label, int otherLabel) {
+        if (label == NONE || label == otherLabel)
+            return otherLabel;
+        Set<Integer> kept = clusters.get(label);
+        Set<Integer> moved = clusters.get(otherLabel);
+        if (kept.size() < moved.size()) {
+            final int swap = label;
+            label = otherLabel;
+            otherLabel = swap;
+            kept = moved;
+            moved = clusters.get(otherLabel);
+        }
+        for (int core : moved)
+            labels[core] = label;
+        kept.addAll(moved);
+        clusters.remove(otherLabel);
+        return label;
+    }
+
+    /**
+     * Walks the core customers of a cluster that lost some, and splits it if they are not connected anymore.
+     */
+    private void split(int label) {
+        final Set<Integer> cores = clusters.remove(label);
+        if (cores == null || cores.isEmpty())
+            return;
+        final TreeSet<Integer> unvisited = new TreeSet<>(cores);
+        boolean first = true;
+        while (!unvisited.isEmpty()) {
+            final int componentLabel = first ? label : nextLabel++;
+            first = false;
+            final Set<Integer> component = new HashSet<>();
+            final Deque<Integer> toVisit = new ArrayDeque<>();
+            toVisit.push(unvisited.pollFirst());
+            while (!toVisit.isEmpty()) {
+                final int core = toVisit.pop();
+                component.add(core);
+                labels[core] = componentLabel;
+                for (int neighbour : index.query(customers[core].getAddress().getCoordinates()))
+                    if (unvisited.remove(neighbour))
+                        toVisit.push(neighbour);
+            }
+            clusters.put(componentLabel, component);
+        }
+    }
+
+    private int findCore(List<Integer> around) {
+        for (int neighbour : around)
+            if (isCore(neighbour))
+                return neighbour;
+        return NONE;
+    }
+
+    private int newSlot() {
+        if (slotsCount == customers.length) {
+            final int capacity = slotsCount * 2;
+            customers = Arrays.copyOf(customers, capacity);
+            neighbours = Arrays.copyOf(neighbours, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+            anchors = Arrays.copyOf(anchors, capacity);
+        }
+        return slotsCount++;
+    }
+}
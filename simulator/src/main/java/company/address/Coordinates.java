@@ -18,13 +18,19 @@ import com.google.gson.Gson;
 
 /**
  * Describes a coordinate. Can be instantiated with integers or string with the appropriate format.
+ *
+ * The radians, cosine and position on the unit sphere of the coordinates are computed once, the first time a
+ * distance is calculated, and kept with the coordinates.
  * @author Arthur Deschamps
  * @since 1.0
  */
 public class Coordinates {
 
+    static final int EARTH_RADIUS_IN_KM = 6371;
+
     private float latitude;
     private float longitude;
+    private transient Trig trig;
 
     public Coordinates(float latitude, float longitude) {
         this.latitude = latitude;
@@ -83,12 +89,103 @@ public class Coordinates {
      * Distance between p1 and p2 in km.
      */
     public static double calculateDistance(Coordinates p1, Coordinates p2) {
-        final int earthRadiusInKm = 6371;
-        final double dLat = Math.toRadians(p2.getLatitude()-p1.getLatitude());
-        final double dLon = Math.toRadians(p2.getLongitude()-p1.getLongitude());
-        final double a = Math.pow(Math.sin(dLat/2),2) + Math.pow(Math.sin(dLon/2),2) *
-                Math.cos(Math.toRadians(p1.getLatitude())) * Math.cos(Math.toRadians(p2.getLatitude()));
-        return earthRadiusInKm * 2 * Math.atan2(Math.sqrt(a),Math.sqrt(1-a));
+        final Trig t1 = p1.trig();
+        final Trig t2 = p2.trig();
+        final double sinHalfDLat = Math.sin((t2.latitude - t1.latitude) / 2);
+        final double sinHalfDLon = Math.sin((t2.longitude - t1.longitude) / 2);
+        final double a = Math.min(1, sinHalfDLat * sinHalfDLat +
+                sinHalfDLon * sinHalfDLon * (t1.cosLatitude * t2.cosLatitude));
+        return EARTH_RADIUS_IN_KM * 2 * Math.atan2(Math.sqrt(a),Math.sqrt(1-a));
+    }
+
+    /**
+     * Approximates the distance between two coordinates by projecting them on a plane (equirectangular
+     * approximation). It needs no trigonometric function and is within a fraction of a percent of calculateDistance
+     * for distances up to a few hundred km away from the poles. It overestimates longer distances.
+     * @param p1
+     * First coordinates.
+     * @param p2
+     * Second coordinates.
+     * @return
+     * Approximate distance between p1 and p2 in km.
+     */
+    public static double calculateApproximateDistance(Coordinates p1, Coordinates p2) {
+        final Trig t1 = p1.trig();
+        final Trig t2 = p2.trig();
+        double dLon = t2.longitude - t1.longitude;
+        if (dLon > Math.PI)
+            dLon -= 2 * Math.PI;
+        else if (dLon < -Math.PI)
+            dLon += 2 * Math.PI;
+        final double x = dLon * (t1.cosLatitude + t2.cosLatitude) / 2;
+        final double y = t2.latitude - t1.latitude;
+        return EARTH_RADIUS_IN_KM * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Calculates the initial bearing of the great circle going from one coordinates to another.
+     * @param from
+     * Starting coordinates.
+     * @param to
+     * Coordinates to go to.
+     * @return
+     * Bearing in radians, clockwise from the north.
+     */
+    public static double calculateBearing(Coordinates from, Coordinates to) {
+        final Trig t1 = from.trig();
+        final Trig t2 = to.trig();
+        final double dLon = t2.longitude - t1.longitude;
+        final double y = Math.sin(dLon) * t2.cosLatitude;
+        final double x = t1.cosLatitude * t2.z - t1.z * t2.cosLatitude * Math.cos(dLon);
+        return Math.atan2(y, x);
+    }
+
+    /**
+     * Calculate new coordinates by moving along a great circle from basePoint.
+     * @param basePoint
+     * The initial coordinate.
+     * @param bearing
+     * Initial bearing in radians, clockwise from the north.
+     * @param distance
+     * Distance to move in kilometers.
+     * @return
+     * The coordinates reached.
+     */
+    public static Coordinates applyBearing(Coordinates basePoint, double bearing, double distance) {
+        final double angularDistance = distance / EARTH_RADIUS_IN_KM;
+        final Trig base = basePoint.trig();
+        final double lon1 = base.longitude;
+        final double sinLat1 = base.z;
+        final double cosLat1 = base.cosLatitude;
+        final double sinDistance = Math.sin(angularDistance);
+        final double cosDistance = Math.cos(angularDistance);
+
+        final double sinLat2 = sinLat1 * cosDistance + cosLat1 * sinDistance * Math.cos(bearing);
+        final double lat2 = Math.asin(Math.max(-1, Math.min(1, sinLat2)));
+        final double lon2 = lon1 + Math.atan2(Math.sin(bearing) * sinDistance * cosLat1, cosDistance - sinLat1 * sinLat2);
+
+        // Brings the longitude back into [-180, 180]
+        final double longitude = (Math.toDegrees(lon2) + 540) % 360 - 180;
+        return new Coordinates((float) Math.toDegrees(lat2), (float) longitude);
+    }
+
+    /**
+     * Moves from one coordinates toward another along the great circle joining them, which is the shortest route.
+     * @param from
+     * Starting coordinates.
+     * @param to
+     * Coordinates to go to.
+     * @param distance
+     * Distance to move in kilometers.
+     * @return
+     * The coordinates reached, or a copy of the destination if it is within the distance.
+     */
+    public static Coordinates moveTowards(Coordinates from, Coordinates to, double distance) {
+        if (distance <= 0)
+            return from;
+        if (calculateDistance(from, to) <= distance)
+            return new Coordinates(to);
+        return applyBearing(from, calculateBearing(from, to), distance);
     }
 
     @Override
@@ -117,6 +214,7 @@ public class Coordinates {
 
     public void setLatitude(int latitude) {
         this.latitude = latitude;
+        this.trig = null;
     }
 
     public float getLongitude() {
@@ -125,5 +223,41 @@ public class Coordinates {
 
     public void setLongitude(int longitude) {
         this.longitude = longitude;
+        this.trig = null;
+    }
+
+    /**
+     * @return
+     * The trigonometry of the coordinates, computed on first use.
+     */
+    Trig trig() {
+        // Racing threads would compute the same values, and the fields of Trig are final: no need to synchronize
+        Trig trig = this.trig;
+        if (trig == null)
+            this.trig = trig = new Trig(latitude, longitude);
+        return trig;
+    }
+
+    /**
+     * Coordinates in radians, cosine of the latitude and position on the unit sphere.
+     */
+    static final class Trig {
+
+        final double latitude;
+        final double longitude;
+        final double cosLatitude;
+        final double x;
+        final double y;
+        /** Also the sine of the latitude. **/
+        final double z;
+
+        Trig(float latitude, float longitude) {
+            this.latitude = Math.toRadians(latitude);
+            this.longitude = Math.toRadians(longitude);
+            this.cosLatitude = Math.cos(this.latitude);
+            this.x = cosLatitude * Math.cos(this.longitude);
+            this.y = cosLatitude * Math.sin(this.longitude);
+            this.z = Math.sin(this.latitude);
+        }
     }
 }
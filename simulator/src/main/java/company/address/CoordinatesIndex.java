@@ -0,0 +1,200 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.address;
+
+import java.util.*;
+
+/**
+ * Index of coordinates answering "which points are within a given distance of this one" without looking at every
+ * point.
+ *
+ * Points are placed on the unit sphere and bucketed in a 3D grid whose cells are as wide as the chord matching the
+ * search distance. Any point within the distance is thus in one of the 27 cells around the query point. Each cell keeps
+ * its points in a CoordinatesTable, so the candidates of a cell are checked at once with CoordinatesTable.distances.
+ * The results are those of a full scan with Coordinates.calculateDistance, up to rounding.
+ *
+ * Points are identified by an int chosen by the caller, typically their index in a list.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Coordinates
+ */
+public class CoordinatesIndex {
+
+    /** Keeps cell coordinates within 21 bits, see cellKey. **/
+    private static final double MIN_CELL_SIZE = 1e-6;
+    private static final int CELL_BITS = 21;
+    private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+
+    private final double distance;
+    private final double cellSize;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private Coordinates[] points = new Coordinates[16];
+    private long[] pointCells = new long[16];
+    private int size;
+
+    /**
+     * @param distance
+     * Search distance in km.
+     */
+    public CoordinatesIndex(double distance) {
+        this.distance = distance;
+        final double angle = Math.min(Math.max(distance, 0) / Coordinates.EARTH_RADIUS_IN_KM, Math.PI);
+        // Widened a little so that rounding never puts a point within the distance two cells away
+        this.cellSize = Math.max(2 * Math.sin(angle / 2) * (1 + 1e-6), MIN_CELL_SIZE);
+    }
+
+    /**
+     * Indexes a list of coordinates, each one identified by its position in the list.
+     * @param coordinates
+     * Coordinates to index.
+     * @param distance
+     * Search distance in km.
+     * @return
+     * The index.
+     */
+    public static CoordinatesIndex of(List<Coordinates> coordinates, double distance) {
+        final CoordinatesIndex index = new CoordinatesIndex(distance);
+        for (int i = 0; i < coordinates.size(); i++)
+            index.add(i, coordinates.get(i));
+        return index;
+    }
+
+    /**
+     * Adds a point. A point already present with the same id is moved.
+     * @param id
+     * Id of the point, not negative.
+     * @param coordinates
+     * Coordinates of the point.
+     */
+    public void add(int id, Coordinates coordinates) {
+        if (id < 0)
+            throw new IllegalArgumentException("Negative id: " + id);
+        remove(id);
+        if (id >= points.length) {
+            final int capacity = Math.max(points.length * 2, id + 1);
+            points = Arrays.copyOf(points, capacity);
+            pointCells = Arrays.copyOf(pointCells, capacity);
+        }
+        final Coordinates.Trig trig = coordinates.trig();
+        final long key = cellKey(cell(trig.x), cell(trig.y), cell(trig.z));
+        cells.computeIfAbsent(key, k -> new Cell()).add(id, coordinates);
+        points[id] = coordinates;
+        pointCells[id] = key;
+        size++;
+    }
+
+    /**
+     * Removes a point.
+     * @param id
+     * Id of the point.
+     * @return
+     * True if the point was in the index.
+     */
+    public boolean remove(int id) {
+        if (id < 0 || id >= points.length || points[id] == null)
+            return false;
+        final Cell cell = cells.get(pointCells[id]);
+        cell.remove(id);
+        if (cell.size == 0)
+            cells.remove(pointCells[id]);
+        points[id] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the points within the search distance of some coordinates.
+     * @param coordinates
+     * Center of the search.
+     * @return
+     * Ids of the points within the search distance (bounds included), in increasing order.
+     */
+    public List<Integer> query(Coordinates coordinates) {
+        final Coordinates.Trig trig = coordinates.trig();
+        final int x = cell(trig.x), y = cell(trig.y), z = cell(trig.z);
+        final List<Integer> found = new ArrayList<>();
+        double[] distances = new double[16];
+        for (int dx = -1; dx <= 1; dx++)
+            for (int dy = -1; dy <= 1; dy++)
+                for (int dz = -1; dz <= 1; dz++) {
+                    final Cell cell = cells.get(cellKey(x + dx, y + dy, z + dz));
+                    if (cell == null)
+                        continue;
+                    if (distances.length < cell.size)
+                        distances = new double[Math.max(cell.size, distances.length * 2)];
+                    cell.table.distances(coordinates, distances);
+                    for (int i = 0; i < cell.size; i++)
+                        if (distances[i] <= distance)
+                            found.add(cell.ids[i]);
+                }
+        Collections.sort(found);
+        return found;
+    }
+
+    /**
+     * @return
+     * Coordinates of the point, or null if there is no such point.
+     */
+    public Coordinates get(int id) {
+        return id >= 0 && id < points.length ? points[id] : null;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return
+     * Number of points in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int cell(double value) {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    private static long cellKey(int x, int y, int z) {
+        return ((x & CELL_MASK) << (2 * CELL_BITS)) | ((y & CELL_MASK) << CELL_BITS) | (z & CELL_MASK);
+    }
+
+    /**
+     * Ids and coordinates of the points of a cell, in the same order.
+     */
+    private static final class Cell {
+
+        private int[] ids = new int[4];
+        private final CoordinatesTable table = new CoordinatesTable(4);
+        private int size;
+
+        void add(int id, Coordinates coordinates) {
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+            table.add(coordinates);
+        }
+
+        void remove(int id) {
+            for (int i = 0; i < size; i++)
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    table.remove(i);
+                    return;
+                }
+        }
+    }
+}
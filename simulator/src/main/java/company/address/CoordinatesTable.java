@@ -0,0 +1,195 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.address;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Many coordinates stored as columns of primitives (position on the unit sphere, radians and cosine of the latitude)
+ * to compute distances from one point to all of them at once. The loops only read arrays and do arithmetic, which the
+ * JIT compiles to tight, unrolled code.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Coordinates
+ */
+public class CoordinatesTable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] cosLatitudes;
+    private int size;
+
+    public CoordinatesTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CoordinatesTable(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.z = new double[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.cosLatitudes = new double[capacity];
+    }
+
+    /**
+     * @param coordinates
+     * Coordinates to put in the table, in order.
+     * @return
+     * A table holding the coordinates.
+     */
+    public static CoordinatesTable of(List<Coordinates> coordinates) {
+        final CoordinatesTable table = new CoordinatesTable(coordinates.size());
+        coordinates.forEach(table::add);
+        return table;
+    }
+
+    /**
+     * Adds coordinates at the end of the table.
+     * @return
+     * The index of the coordinates in the table.
+     */
+    public int add(Coordinates coordinates) {
+        if (size == x.length)
+            grow();
+        write(size, coordinates);
+        return size++;
+    }
+
+    /**
+     * Replaces the coordinates at the given index.
+     */
+    public void set(int index, Coordinates coordinates) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        write(index, coordinates);
+    }
+
+    /**
+     * Removes the coordinates at the given index by moving the last coordinates of the table into it.
+     */
+    public void remove(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        final int last = --size;
+        x[index] = x[last];
+        y[index] = y[last];
+        z[index] = z[last];
+        latitudes[index] = latitudes[last];
+        longitudes[index] = longitudes[last];
+        cosLatitudes[index] = cosLatitudes[last];
+    }
+
+    private void write(int index, Coordinates coordinates) {
+        final Coordinates.Trig trig = coordinates.trig();
+        x[index] = trig.x;
+        y[index] = trig.y;
+        z[index] = trig.z;
+        latitudes[index] = trig.latitude;
+        longitudes[index] = trig.longitude;
+        cosLatitudes[index] = trig.cosLatitude;
+    }
+
+    /**
+     * Calculates the great circle distance from some coordinates to every coordinates of the table.
+     * @param from
+     * Coordinates to measure from.
+     * @param distances
+     * Receives the distances in km, in the order of the table. Must hold at least size() values.
+     */
+    public void distances(Coordinates from, double[] distances) {
+        final Coordinates.Trig trig = from.trig();
+        final double fromX = trig.x, fromY = trig.y, fromZ = trig.z;
+        for (int i = 0; i < size; i++) {
+            final double dx = x[i] - fromX, dy = y[i] - fromY, dz = z[i] - fromZ;
+            final double halfChord = Math.sqrt(dx * dx + dy * dy + dz * dz) / 2;
+            distances[i] = 2 * Coordinates.EARTH_RADIUS_IN_KM * Math.asin(Math.min(1, halfChord));
+        }
+    }
+
+    /**
+     * Approximates the distance from some coordinates to every coordinates of the table, see
+     * Coordinates.calculateApproximateDistance. Only meant for short distances.
+     * @param from
+     * Coordinates to measure from.
+     * @param distances
+     * Receives the distances in km, in the order of the table. Must hold at least size() values.
+     */
+    public void approximateDistances(Coordinates from, double[] distances) {
+        final Coordinates.Trig trig = from.trig();
+        final double fromLatitude = trig.latitude, fromLongitude = trig.longitude, fromCos = trig.cosLatitude;
+        for (int i = 0; i < size; i++) {
+            double dLon = longitudes[i] - fromLongitude;
+            if (dLon > Math.PI)
+                dLon -= 2 * Math.PI;
+            else if (dLon < -Math.PI)
+                dLon += 2 * Math.PI;
+            final double dx = dLon * (cosLatitudes[i] + fromCos) / 2;
+            final double dy = latitudes[i] - fromLatitude;
+            distances[i] = Coordinates.EARTH_RADIUS_IN_KM * Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    /**
+     * Finds the coordinates of the table within a distance of a center. The test is a dot product on the unit sphere,
+     * so points lying on the boundary, within rounding, may be found or not.
+     * @param center
+     * Center of the search.
+     * @param radius
+     * Search distance in km.
+     * @param found
+     * Receives the indexes of the coordinates found, in increasing order. Must hold at least size() values.
+     * @return
+     * Number of coordinates found.
+     */
+    public int within(Coordinates center, double radius, int[] found) {
+        final Coordinates.Trig trig = center.trig();
+        final double centerX = trig.x, centerY = trig.y, centerZ = trig.z;
+        final double minDot = Math.cos(Math.min(radius / Coordinates.EARTH_RADIUS_IN_KM, Math.PI));
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            found[count] = i;
+            // Branch-free: the index is written anyway and only kept if the point is close enough
+            count += x[i] * centerX + y[i] * centerY + z[i] * centerZ >= minDot ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * @return
+     * Number of coordinates in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        final int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        cosLatitudes = Arrays.copyOf(cosLatitudes, capacity);
+    }
+}
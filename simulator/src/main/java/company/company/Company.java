@@ -17,17 +17,32 @@ package company.company;
 import company.address.Address;
 import company.customer.Customer;
 import company.delivery.Delivery;
+import company.delivery.DeliveryArchive;
+import company.delivery.DeliverySnapshot;
 import company.delivery.DeliveryStatus;
 import company.order.Order;
+import company.order.OrderLine;
+import company.product.ColumnarProductStore;
 import company.product.Product;
+import company.product.ProductStoreListener;
 import company.product.ProductType;
+import company.product.QuantityProductStore;
 import company.transportation.Transportation;
+import company.transportation.TransportationHealthState;
+import company.transportation.TransportationMode;
+import company.transportation.TransportationPool;
+import economy.Economy;
 import org.slf4j.LoggerFactory;
+import storage.ConcurrentItemStore;
 import storage.ItemStore;
+import storage.ItemStoreListener;
 
 import java.io.Serializable;
 import java.security.InvalidParameterException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -37,9 +52,13 @@ import java.util.stream.Collectors;
  */
 public class Company implements Serializable {
 
+    /** Default number of ticks during which a delivery that is over stays in the delivery store. **/
+    public static final int DEFAULT_DELIVERY_RETENTION = 24;
+
     private CompanyType type;
     private String name;
     private Address headquarters;
+    private final InventoryMode inventoryMode;
 
     // Object stores
     private ItemStore<Product> productStore;
@@ -49,41 +68,159 @@ public class Company implements Serializable {
     private ItemStore<Customer> customerStore;
     private ItemStore<Order> orderStore;
 
+    // Secondary indexes, kept in sync by listening to the product and order stores. Keyed by numeric id, as the stores
+    // tell items apart by id: equal customers or product types stored separately keep separate entries
+    private final Map<Long, Long> stockByProductType;
+    private final Map<Long, Integer> openOrdersByCustomer;
+    private final Map<Long, ItemStore<Order>> ordersByProductType;
+    private final TransportationPool availableTransportation;
+
+    // Deliveries that are over stay in the delivery store for a number of ticks, then are archived
+    private final DeliveryArchive deliveryArchive;
+    private final Map<Delivery, Long> endedDeliveries;
+    private int deliveryRetention;
+    private long archivingTick;
+
+    private final List<CompanyListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Latest published snapshot and the store versions it was built from
+    private final AtomicReference<CompanySnapshot> snapshot = new AtomicReference<>();
+    private long snapshotCustomersVersion = -1;
+    private long snapshotTransportationVersion = -1;
+
 
     public Company(CompanyType companyType, String name, Address headquarters) {
-        this.productStore = new ItemStore<>();
-        this.productTypeStore = new ItemStore<>();
-        this.deliveryStore = new ItemStore<>();
-        this.transportationStore = new ItemStore<>();
-        this.customerStore = new ItemStore<>();
-        this.orderStore = new ItemStore<>();
+        this(companyType, name, headquarters, InventoryMode.OBJECTS);
+    }
+
+    public Company(CompanyType companyType, String name, Address headquarters, InventoryMode inventoryMode) {
+        // Stores are read by the Kapua and UI threads while the simulation modifies them
+        this.inventoryMode = inventoryMode;
+        switch (inventoryMode) {
+            case COLUMNAR:
+                this.productStore = new ColumnarProductStore();
+                break;
+            case QUANTITY:
+                this.productStore = new QuantityProductStore();
+                break;
+            default:
+                this.productStore = new ConcurrentItemStore<>();
+        }
+        this.productTypeStore = new ConcurrentItemStore<>();
+        this.deliveryStore = new ConcurrentItemStore<>();
+        this.transportationStore = new ConcurrentItemStore<>();
+        this.customerStore = new ConcurrentItemStore<>();
+        this.orderStore = new ConcurrentItemStore<>();
         this.type = companyType;
         this.name = name;
         this.headquarters = headquarters;
+        this.stockByProductType = new ConcurrentHashMap<>();
+        this.openOrdersByCustomer = new ConcurrentHashMap<>();
+        this.ordersByProductType = new ConcurrentHashMap<>();
+        this.availableTransportation = new TransportationPool();
+        this.deliveryArchive = new DeliveryArchive();
+        this.endedDeliveries = new LinkedHashMap<>();
+        this.deliveryRetention = DEFAULT_DELIVERY_RETENTION;
+        indexStores();
+    }
+
+    /**
+     * Registers the listeners maintaining the secondary indexes (stock per product type, open orders per customer,
+     * orders per product type and available transportation). Going through the stores makes sure the indexes stay
+     * valid even if the storage views are modified directly.
+     */
+    private void indexStores() {
+        productStore.addListener(new ProductStoreListener() {
+            @Override
+            public void onAdd(Product product) {
+                onAdd(product.getProductType(), 1);
+            }
+
+            @Override
+            public void onDelete(Product product) {
+                onDelete(product.getProductType(), 1);
+            }
+
+            @Override
+            public void onAdd(ProductType productType, int quantity) {
+                stockByProductType.merge(productType.getNumericId(), (long) quantity, Long::sum);
+            }
+
+            @Override
+            public void onDelete(ProductType productType, int quantity) {
+                stockByProductType.computeIfPresent(productType.getNumericId(),
+                        (id, stock) -> stock > quantity ? stock - quantity : null);
+            }
+        });
+        transportationStore.addListener(new ItemStoreListener<Transportation>() {
+            @Override
+            public void onAdd(Transportation transportation) {
+                availableTransportation.release(transportation);
+            }
+
+            @Override
+            public void onDelete(Transportation transportation) {
+                availableTransportation.remove(transportation);
+            }
+        });
+        orderStore.addListener(new ItemStoreListener<Order>() {
+            @Override
+            public void onAdd(Order order) {
+                if (order.getBuyer() != null)
+                    openOrdersByCustomer.merge(order.getBuyer().getNumericId(), 1, Integer::sum);
+                for (final ProductType productType : order.getProductTypes())
+                    ordersByProductType.computeIfAbsent(productType.getNumericId(), id -> new ItemStore<>()).add(order);
+            }
+
+            @Override
+            public void onDelete(Order order) {
+                if (order.getBuyer() != null)
+                    openOrdersByCustomer.computeIfPresent(order.getBuyer().getNumericId(),
+                            (id, count) -> count > 1 ? count - 1 : null);
+                for (final ProductType productType : order.getProductTypes()) {
+                    final ItemStore<Order> orders = ordersByProductType.get(productType.getNumericId());
+                    if (orders != null) {
+                        orders.delete(order);
+                        if (orders.size() == 0)
+                            ordersByProductType.remove(productType.getNumericId());
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a listener that will be notified of every change made through the methods of the company.
+     * @param listener
+     * The listener to register.
+     */
+    public void addListener(CompanyListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CompanyListener listener) {
+        listeners.remove(listener);
     }
 
     public void newCustomer(Customer customer) {
         customerStore.add(customer);
+        listeners.forEach(listener -> listener.onNewCustomer(customer));
     }
 
     // Return false if customer currently has orders
     public void deleteCustomer(Customer customer) {
-        if (!hasOrders(customer))
+        if (!hasOrders(customer)) {
             customerStore.delete(customer);
+            listeners.forEach(listener -> listener.onCustomerDeleted(customer));
+        }
     }
 
     public void deleteRandomCustomer() {
-        if (customerStore.getRandom().isPresent()) {
-            Customer randomCustomer = customerStore.getRandom().get();
-            if (!hasOrders(randomCustomer)) {
-                customerStore.delete(randomCustomer);
-            }
-        }
+        customerStore.getRandom().ifPresent(this::deleteCustomer);
     }
 
     private boolean hasOrders(Customer customer) {
-        return (customer != null) && (orderStore.getStorage().size() > 0) && orderStore.getStorage().stream().anyMatch(order ->
-                order.getBuyer().equals(customer));
+        return (customer != null) && openOrdersByCustomer.containsKey(customer.getNumericId());
     }
 
     public Set<Customer> getCustomers() {
@@ -91,55 +228,124 @@ public class Company implements Serializable {
     }
 
     public void newProduct(Product product) {
-        if (product != null)
+        if (product != null) {
             productStore.add(product);
+            listeners.forEach(listener -> listener.onNewProduct(product));
+        }
+    }
+
+    /**
+     * Adds several products of the same type at the base price of the type.
+     * @param productType
+     * Type of the products.
+     * @param quantity
+     * Number of products to add.
+     */
+    public void newProducts(ProductType productType, int quantity) {
+        if (productStore instanceof QuantityProductStore) {
+            ((QuantityProductStore) productStore).add(productType, quantity);
+            listeners.forEach(listener -> listener.onNewProducts(productType, quantity));
+        } else if (productStore instanceof ColumnarProductStore) {
+            ((ColumnarProductStore) productStore).add(productType, productType.getBasePrice(), quantity);
+            listeners.forEach(listener -> listener.onNewProducts(productType, quantity));
+        } else {
+            for (int i = 0; i < quantity; i++)
+                newProduct(new Product(productType, headquarters.getCoordinates()));
+        }
     }
 
     public void deleteProduct(Product product) {
         productStore.delete(product);
+        listeners.forEach(listener -> listener.onProductDeleted(product));
     }
 
     public void newProductType(ProductType productType) {
-        if (productType != null)
+        if (productType != null) {
             productTypeStore.add(productType);
+            listeners.forEach(listener -> listener.onNewProductType(productType));
+        }
     }
 
     public void deleteProductType(ProductType productType) {
-        // Delete all products of same type
-        List<Product> products = productStore.getStorage().stream().filter(product -> {
-            if (product.getProductType() == null)
-                LoggerFactory.getLogger(Company.class).info("product type null for product..");
-            return product.getProductType().equals(productType);
-        }).collect(Collectors.toList());
-        for (final Product product: products)
-            this.deleteProduct(product);
+        if (productStore instanceof QuantityProductStore) {
+            ((QuantityProductStore) productStore).deleteAll(productType);
+        } else if (productStore instanceof ColumnarProductStore) {
+            ((ColumnarProductStore) productStore).deleteAll(productType);
+        } else {
+            // Delete all products of same type
+            List<Product> products = productStore.getStorage().stream().filter(product -> {
+                if (product.getProductType() == null)
+                    LoggerFactory.getLogger(Company.class).info("product type null for product..");
+                return product.getProductType().equals(productType);
+            }).collect(Collectors.toList());
+            for (final Product product: products)
+                productStore.delete(product);
+        }
         // If there is no more product with the type we want to delete
-        if (this.getProducts().stream().noneMatch(product -> product.getProductType().equals(productType)))
+        if (getProductQuantity(productType) == 0)
             productTypeStore.delete(productType);
+        listeners.forEach(listener -> listener.onProductTypeDeleted(productType));
     }
 
     public Set<Product> getProducts() {
         return productStore.getStorage();
     }
 
+    /**
+     * Applies a discount on every product, without cutting any price below a given ratio of its base price.
+     * @param ratio
+     * Ratio to apply to the prices (0.9 for a 10 % discount).
+     * @param minimumRatio
+     * Minimum price of a product, as a ratio of the base price of its type.
+     */
+    public void discountProducts(float ratio, float minimumRatio) {
+        if (productStore instanceof QuantityProductStore) {
+            ((QuantityProductStore) productStore).discount(ratio, minimumRatio);
+        } else if (productStore instanceof ColumnarProductStore) {
+            ((ColumnarProductStore) productStore).discount(ratio, minimumRatio);
+        } else {
+            productStore.getStorage().forEach(product -> {
+                final float cutPrice = product.getPrice() * ratio;
+                if (cutPrice >= product.getProductType().getBasePrice() * minimumRatio)
+                    product.setPrice(cutPrice);
+            });
+        }
+        listeners.forEach(listener -> listener.onProductsDiscounted(ratio, minimumRatio));
+    }
+
     public Set<ProductType> getProductTypes() {
         return productTypeStore.getStorage();
     }
 
     public long getProductQuantity(ProductType productType) {
-        return productStore.getStorage().stream().filter(product -> product.getProductType().equals(productType))
-                .collect(Collectors.toList()).size();
+        if (productStore instanceof QuantityProductStore)
+            return ((QuantityProductStore) productStore).count(productType);
+        return productType == null ? 0 : stockByProductType.getOrDefault(productType.getNumericId(), 0L);
     }
 
     /**
      * Creates a new order in the order store and take all the products of the order out of the product store.
+     * When the stock is counted by type, the lines of the order are reserved instead. Lines are reduced to the
+     * quantity actually in stock.
      * @param order
      * Object of type Order.
      */
     public void newOrder(Order order) {
         // Remove from product store all products from order
         order.getOrderedProducts().forEach(product -> productStore.delete(product));
+        if (productStore instanceof QuantityProductStore && !order.getOrderLines().isEmpty()) {
+            final QuantityProductStore quantityStore = (QuantityProductStore) productStore;
+            List<OrderLine> reservedLines = new ArrayList<>(order.getOrderLines().size());
+            for (final OrderLine orderLine : order.getOrderLines()) {
+                final int quantity = quantityStore.reserve(orderLine.getProductType(), orderLine.getQuantity());
+                if (quantity > 0)
+                    reservedLines.add(quantity == orderLine.getQuantity() ? orderLine :
+                            new OrderLine(orderLine.getProductType(), quantity, orderLine.getUnitPrice()));
+            }
+            order.setOrderLines(reservedLines);
+        }
         orderStore.add(order);
+        listeners.forEach(listener -> listener.onNewOrder(order));
     }
 
     /**
@@ -150,13 +356,30 @@ public class Company implements Serializable {
     public void cancelOrder(Order order) {
         // Puts back products in product store
         order.getOrderedProducts().forEach(product -> productStore.add(product));
+        if (productStore instanceof QuantityProductStore)
+            order.getOrderLines().forEach(orderLine -> ((QuantityProductStore) productStore)
+                    .release(orderLine.getProductType(), orderLine.getQuantity()));
         orderStore.delete(order);
+        listeners.forEach(listener -> listener.onOrderCancelled(order));
     }
 
     public List<Order> getOrdersFromProductType(ProductType productType) {
-        return orderStore.getStorage().stream().filter(order ->
-                order.getOrderedProducts().stream().anyMatch(product -> product.getProductType().equals(productType)))
-                .collect(Collectors.toList());
+        final ItemStore<Order> orders =
+                productType == null ? null : ordersByProductType.get(productType.getNumericId());
+        return orders == null ? new ArrayList<>() : new ArrayList<>(orders.getStorage());
+    }
+
+    /**
+     * Counts the open orders containing at least one product of the given type.
+     * @param productType
+     * Type of product.
+     * @return
+     * Number of orders, without copying them.
+     */
+    public int countOrdersFromProductType(ProductType productType) {
+        final ItemStore<Order> orders =
+                productType == null ? null : ordersByProductType.get(productType.getNumericId());
+        return orders == null ? 0 : orders.size();
     }
 
     public Set<Order> getOrders() {
@@ -174,14 +397,48 @@ public class Company implements Serializable {
     /**
      * Tries to find an available transportation (not assigned to a delivery) and returns it.
      * @return
-     * Optional object of type Transportation.
+     * Optional object of type Transportation, the healthiest available.
      */
     public Optional<Transportation> getAvailableTransportation() {
-        return transportationStore.getStorage().stream().filter(Transportation::isAvailable).findFirst();
+        return availableTransportation.find();
+    }
+
+    /**
+     * Tries to find an available transportation of a given mode.
+     * @param transportationMode
+     * Mode of transportation wanted.
+     * @param worstHealthState
+     * Worst health state accepted.
+     * @return
+     * Optional object of type Transportation, the healthiest available.
+     */
+    public Optional<Transportation> getAvailableTransportation(TransportationMode transportationMode,
+                                                               TransportationHealthState worstHealthState) {
+        return availableTransportation.find(transportationMode, worstHealthState);
+    }
+
+    /**
+     * @return
+     * Every transportation not assigned to a delivery, healthiest first.
+     */
+    public List<Transportation> getAllAvailableTransportation() {
+        return availableTransportation.getAll();
+    }
+
+    /**
+     * Degrades the health state of a transportation.
+     * @param transportation
+     * Transportation to degrade.
+     */
+    public void degradeTransportation(Transportation transportation) {
+        transportation.degradeHealthState();
+        availableTransportation.update(transportation);
+        listeners.forEach(listener -> listener.onTransportationDegraded(transportation));
     }
 
     public void newTransportation(Transportation transportation) {
         transportationStore.add(transportation);
+        listeners.forEach(listener -> listener.onNewTransportation(transportation));
     }
 
     /**
@@ -191,31 +448,44 @@ public class Company implements Serializable {
     public boolean deleteTransportation(Transportation transportation) {
         if (transportation.isAvailable()) {
             transportationStore.delete(transportation);
+            listeners.forEach(listener -> listener.onTransportationDeleted(transportation));
             return true;
         }
         return false;
     }
 
     /**
-     * Creates a new delivery and stores it in the delivery store of the company. The order that shall be delivered is
+     * Creates a new delivery and stores it in the delivery store of the company. The orders that shall be delivered are
      * taken off of the order store. The transport assigned to the delivery is marked as not available.
-     * @throws ConcurrentModificationException
-     * The passed delivery should not be tighten up is any way to an Iterator, otherwise it will throw a
-     * ConcurrentModificationException due to the delete
      * @param delivery
      * Object of type Delivery.
      */
     public void newDelivery(Delivery delivery) {
-        try {
-            if (!delivery.getTransporter().isAvailable())
-                throw new InvalidParameterException("Transporter assigned to delivery not available. Can't add delivery.");
-            deliveryStore.add(delivery);
-            delivery.getTransporter().setAvailable(false);
-            orderStore.delete(delivery.getOrder());
-        } catch (ConcurrentModificationException e) {
-            deliveryStore.delete(delivery);
-            e.printStackTrace();
+        if (!delivery.getTransporter().isAvailable())
+            throw new InvalidParameterException("Transporter assigned to delivery not available. Can't add delivery.");
+        deliveryStore.add(delivery);
+        delivery.getTransporter().setAvailable(false);
+        availableTransportation.remove(delivery.getTransporter());
+        // Reserved stock leaves the company with the order
+        for (final Order order : delivery.getOrders()) {
+            if (productStore instanceof QuantityProductStore)
+                order.getOrderLines().forEach(orderLine -> ((QuantityProductStore) productStore)
+                        .commit(orderLine.getProductType(), orderLine.getQuantity()));
+            orderStore.delete(order);
         }
+        listeners.forEach(listener -> listener.onNewDelivery(delivery));
+    }
+
+    /**
+     * Adds a delivery as it is, without assigning its transportation or taking its order out of the order store. Meant
+     * to restore a saved company. A delivery that is over will be archived after the retention.
+     * @param delivery
+     * Delivery to restore.
+     */
+    public void restoreDelivery(Delivery delivery) {
+        deliveryStore.add(delivery);
+        if (delivery.isOver())
+            deliveryEnded(delivery);
     }
 
     /**
@@ -225,7 +495,9 @@ public class Company implements Serializable {
      */
     public void confirmDelivery(Delivery delivery) {
         delivery.setDeliveryState(DeliveryStatus.DELIVERED);
-        delivery.getTransporter().setAvailable(true);
+        releaseTransporter(delivery);
+        deliveryEnded(delivery);
+        listeners.forEach(listener -> listener.onDeliveryStateChanged(delivery));
     }
 
     /**
@@ -235,6 +507,7 @@ public class Company implements Serializable {
      */
     public void  startDeliveryShipping(Delivery delivery) {
        delivery.setDeliveryState(DeliveryStatus.TRANSIT);
+       listeners.forEach(listener -> listener.onDeliveryStateChanged(delivery));
     }
 
     /**
@@ -244,7 +517,142 @@ public class Company implements Serializable {
      */
     public void cancelDelivery(Delivery delivery) {
         delivery.setDeliveryState(DeliveryStatus.CANCELLED);
-        delivery.getTransporter().setAvailable(true);
+        releaseTransporter(delivery);
+        deliveryEnded(delivery);
+        listeners.forEach(listener -> listener.onDeliveryStateChanged(delivery));
+    }
+
+    private void releaseTransporter(Delivery delivery) {
+        final Transportation transporter = delivery.getTransporter();
+        transporter.setAvailable(true);
+        // The transportation may have been deleted from the store directly
+        if (transportationStore.getStorage().contains(transporter))
+            availableTransportation.release(transporter);
+    }
+
+    private void deliveryEnded(Delivery delivery) {
+        synchronized (endedDeliveries) {
+            endedDeliveries.putIfAbsent(delivery, archivingTick);
+        }
+    }
+
+    /**
+     * Moves the deliveries that have been over (delivered or cancelled) for more than the retention out of the
+     * delivery store and into the archive. Meant to be called by the simulation once per tick, the retention being a
+     * number of calls.
+     * @return
+     * Number of archived deliveries.
+     */
+    public int archiveDeliveries() {
+        int archived = 0;
+        synchronized (endedDeliveries) {
+            archivingTick++;
+            // Deliveries are kept in the order they ended, so the oldest come first
+            Iterator<Map.Entry<Delivery, Long>> iterator = endedDeliveries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Delivery, Long> entry = iterator.next();
+                if (archivingTick - entry.getValue() <= deliveryRetention)
+                    break;
+                iterator.remove();
+                final Delivery delivery = entry.getKey();
+                // The delivery may have been put back in progress since
+                if (delivery.isOver() && archiveDelivery(delivery))
+                    archived++;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Moves a delivery out of the delivery store and into the archive.
+     * @param delivery
+     * Delivery to archive.
+     * @return
+     * False if the delivery was not in the delivery store.
+     */
+    public boolean archiveDelivery(Delivery delivery) {
+        if (!deliveryStore.getStorage().remove(delivery))
+            return false;
+        deliveryArchive.archive(delivery);
+        listeners.forEach(listener -> listener.onDeliveryArchived(delivery));
+        return true;
+    }
+
+    public DeliveryArchive getDeliveryArchive() {
+        return deliveryArchive;
+    }
+
+    public int getDeliveryRetention() {
+        return deliveryRetention;
+    }
+
+    /**
+     * @param deliveryRetention
+     * Number of ticks during which a delivery that is over stays in the delivery store before being archived.
+     */
+    public void setDeliveryRetention(int deliveryRetention) {
+        this.deliveryRetention = deliveryRetention;
+    }
+
+    /**
+     * Builds a snapshot of the current state of the company and makes it the one returned by getSnapshot. Meant to be
+     * called by the simulation at the end of each tick.
+     * Customers and transportation are only copied if their store changed since the previous snapshot, otherwise the
+     * previous copies are shared. Customers are sorted by id, so that the UI can page through them cheaply.
+     * @param economy
+     * Economy the company evolves in. Copied into the snapshot. Can be null.
+     * @return
+     * The published snapshot.
+     */
+    public synchronized CompanySnapshot publishSnapshot(Economy economy) {
+        final CompanySnapshot previous = snapshot.get();
+
+        final List<Customer> customers;
+        final long customersVersion = customerStore.getVersion();
+        if (previous != null && customersVersion == snapshotCustomersVersion) {
+            customers = previous.getCustomers();
+        } else {
+            final List<Customer> copy = new ArrayList<>(customerStore.getStorage());
+            copy.sort(Comparator.comparingLong(Customer::getNumericId));
+            customers = Collections.unmodifiableList(copy);
+            snapshotCustomersVersion = customersVersion;
+        }
+
+        final Map<String, TransportationMode> transportationModes;
+        final long transportationVersion = transportationStore.getVersion();
+        if (previous != null && transportationVersion == snapshotTransportationVersion) {
+            transportationModes = previous.getTransportationModes();
+        } else {
+            Map<String, TransportationMode> modes = new HashMap<>();
+            transportationStore.getStorage().forEach(transportation ->
+                    modes.put(transportation.getId(), transportation.getTransportationMode()));
+            transportationModes = Collections.unmodifiableMap(modes);
+            snapshotTransportationVersion = transportationVersion;
+        }
+
+        // Deliveries change in place (status, location, etc) so they are copied at every snapshot
+        List<DeliverySnapshot> deliveries = new ArrayList<>(deliveryStore.size());
+        deliveryStore.getStorage().forEach(delivery -> deliveries.add(new DeliverySnapshot(delivery)));
+
+        final CompanySnapshot published = new CompanySnapshot(previous == null ? 0 : previous.getTick() + 1, this,
+                economy == null ? null : new Economy(economy), customers, transportationModes,
+                Collections.unmodifiableList(deliveries));
+        snapshot.set(published);
+        return published;
+    }
+
+    /**
+     * Returns the latest published snapshot of the company. If none has been published yet, one is published first.
+     * @return
+     * Latest snapshot of the company.
+     */
+    public CompanySnapshot getSnapshot() {
+        final CompanySnapshot current = snapshot.get();
+        return current != null ? current : publishSnapshot(null);
+    }
+
+    public InventoryMode getInventoryMode() {
+        return inventoryMode;
     }
 
     public CompanyType getType() {
@@ -253,6 +661,7 @@ public class Company implements Serializable {
 
     public void setType(CompanyType type) {
         this.type = type;
+        listeners.forEach(listener -> listener.onTypeChanged(type));
     }
 
     public String getName() {
@@ -261,6 +670,7 @@ public class Company implements Serializable {
 
     public void setName(String name) {
         this.name = name;
+        listeners.forEach(listener -> listener.onNameChanged(name));
     }
 
     public Address getHeadquarters() {
@@ -0,0 +1,101 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.company;
+
+import company.customer.Customer;
+import company.delivery.Delivery;
+import company.order.Order;
+import company.product.Product;
+import company.product.ProductType;
+import company.transportation.Transportation;
+
+/**
+ * Listens to the changes made to a company through its methods. Changes made directly on the stores are not reported.
+ * Methods are called after the change has been applied, possibly by several threads at once.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Company
+ */
+public interface CompanyListener {
+
+    default void onNewCustomer(Customer customer) {
+    }
+
+    default void onCustomerDeleted(Customer customer) {
+    }
+
+    default void onNewProductType(ProductType productType) {
+    }
+
+    default void onProductTypeDeleted(ProductType productType) {
+    }
+
+    default void onNewProduct(Product product) {
+    }
+
+    /**
+     * Products created in bulk by a store that does not keep product objects.
+     */
+    default void onNewProducts(ProductType productType, int quantity) {
+    }
+
+    default void onProductDeleted(Product product) {
+    }
+
+    default void onProductsDiscounted(float ratio, float minimumRatio) {
+    }
+
+    default void onNewOrder(Order order) {
+    }
+
+    default void onOrderCancelled(Order order) {
+    }
+
+    default void onNewTransportation(Transportation transportation) {
+    }
+
+    default void onTransportationDeleted(Transportation transportation) {
+    }
+
+    /**
+     * The health state of a transportation got worse, see Company.degradeTransportation.
+     */
+    default void onTransportationDegraded(Transportation transportation) {
+    }
+
+    /**
+     * The type of the company changed, see Company.setType.
+     */
+    default void onTypeChanged(CompanyType type) {
+    }
+
+    /**
+     * The company got renamed, see Company.setName.
+     */
+    default void onNameChanged(String name) {
+    }
+
+    default void onNewDelivery(Delivery delivery) {
+    }
+
+    /**
+     * The status of a delivery changed (shipping, delivered or cancelled).
+     */
+    default void onDeliveryStateChanged(Delivery delivery) {
+    }
+
+    default void onDeliveryArchived(Delivery delivery) {
+    }
+}
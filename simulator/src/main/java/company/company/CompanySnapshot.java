@@ -0,0 +1,135 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.company;
+
+import company.address.Address;
+import company.customer.Customer;
+import company.delivery.DeliverySnapshot;
+import company.transportation.TransportationMode;
+import economy.Economy;
+
+import java.util.*;
+
+/**
+ * Immutable view of a company (and of the economy it evolves in) at the end of a simulated hour.
+ *
+ * Snapshots are published by the simulation once per tick and read by the Kapua and UI threads, so that every reader
+ * sees the same coherent state without copying the company itself. Parts that did not change since the previous
+ * snapshot (customers, transportation) are shared with it.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Company#getSnapshot()
+ */
+public final class CompanySnapshot {
+
+    private final long tick;
+    private final String name;
+    private final CompanyType type;
+    private final Address headquarters;
+    private final Economy economy;
+    private final List<Customer> customers;
+    private final Map<String, TransportationMode> transportationModes;
+    private final List<DeliverySnapshot> deliveries;
+    private final Map<String, Integer> storesSizes;
+
+    CompanySnapshot(long tick, Company company, Economy economy, List<Customer> customers,
+                    Map<String, TransportationMode> transportationModes, List<DeliverySnapshot> deliveries) {
+        this.tick = tick;
+        this.name = company.getName();
+        this.type = company.getType();
+        this.headquarters = company.getHeadquarters();
+        this.economy = economy;
+        this.customers = customers;
+        this.transportationModes = transportationModes;
+        this.deliveries = deliveries;
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("customers", customers.size());
+        sizes.put("orders", company.getOrderStore().size());
+        sizes.put("deliveries", deliveries.size());
+        sizes.put("archivedDeliveries", company.getDeliveryArchive().size());
+        sizes.put("products", company.getProductStore().size());
+        sizes.put("productTypes", company.getProductTypeStore().size());
+        sizes.put("transportation", transportationModes.size());
+        this.storesSizes = Collections.unmodifiableMap(sizes);
+    }
+
+    /**
+     * @return
+     * Number of snapshots published before this one.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CompanyType getType() {
+        return type;
+    }
+
+    public Address getHeadquarters() {
+        return headquarters;
+    }
+
+    /**
+     * @return
+     * A copy of the economy at the time of the snapshot, or null if the snapshot was taken outside of the simulation.
+     */
+    public Economy getEconomy() {
+        return economy == null ? null : new Economy(economy);
+    }
+
+    /**
+     * @return
+     * Unmodifiable list of the customers, ordered by id. See ItemExporter.pageSorted.
+     */
+    public List<Customer> getCustomers() {
+        return customers;
+    }
+
+    /**
+     * @param transportationId
+     * Id of a transportation.
+     * @return
+     * The mode of the given transportation, if it exists.
+     */
+    public Optional<TransportationMode> getTransportationMode(String transportationId) {
+        return Optional.ofNullable(transportationModes.get(transportationId));
+    }
+
+    Map<String, TransportationMode> getTransportationModes() {
+        return transportationModes;
+    }
+
+    /**
+     * @return
+     * Unmodifiable list of the deliveries states.
+     */
+    public List<DeliverySnapshot> getDeliveries() {
+        return deliveries;
+    }
+
+    /**
+     * @return
+     * Size of each store of the company, by store name (customers, orders, deliveries, etc).
+     */
+    public Map<String, Integer> getStoresSizes() {
+        return storesSizes;
+    }
+}
@@ -15,10 +15,11 @@
 package company.company;
 
 /**
- * Possible types of companies.
+ * Possible types of companies. GLOBAL_1M and GLOBAL_10M are stress profiles with about one and ten million
+ * customers.
  * @author Arthur Deschamps
  * @since 1.0
  */
 public enum CompanyType {
-    INTERNATIONAL, NATIONAL, LOCAL
+    INTERNATIONAL, NATIONAL, LOCAL, GLOBAL_1M, GLOBAL_10M
 }
@@ -0,0 +1,29 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.company;
+
+/**
+ * Possible ways for a company to store its products.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public enum InventoryMode {
+    /** Every product is an object of its own. **/
+    OBJECTS,
+    /** Products are stored as columns of prices by type. See ColumnarProductStore. **/
+    COLUMNAR,
+    /** Only the stock of each type is counted, orders are made of lines. See QuantityProductStore. **/
+    QUANTITY
+}
@@ -46,29 +46,6 @@ public class Customer extends Item {
         this.address = new Address(customerToCopy.address);
     }
 
-    /**
-     * A customer is uniquely identified by the triplet (first name, last name, address).
-     */
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-
-        Customer customer = (Customer) o;
-
-        if (!getFirstName().equals(customer.getFirstName())) return false;
-        if (!getLastName().equals(customer.getLastName())) return false;
-        return getAddress().equals(customer.getAddress());
-    }
-
-    @Override
-    public int hashCode() {
-        int result = getFirstName().hashCode();
-        result = 31 * result + getLastName().hashCode();
-        result = 31 * result + getAddress().hashCode();
-        return result;
-    }
-
     @Override
     public boolean validate() {
         return ((firstName != null) && (lastName != null));
@@ -17,9 +17,14 @@ package company.delivery;
 import company.address.Address;
 import company.address.Coordinates;
 import company.order.Order;
+import company.route.RouteCursor;
 import company.transportation.Transportation;
 import storage.Item;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Describes a Delivery of the company.
  * @author Arthur Deschamps
@@ -27,15 +32,29 @@ import storage.Item;
  */
 public class Delivery extends Item {
 
-    private Order order;
+    /** Orders shipped together, the first one being the order the delivery was created for. **/
+    private List<Order> orders;
     private Transportation transporter;
     private Address destination;
     private Address departure;
     private Coordinates currentLocation;
     private DeliveryStatus deliveryState;
+    /** Position on the route followed to the destination, built when the delivery starts moving. **/
+    private transient RouteCursor routeCursor;
 
     public Delivery(Order order, Transportation transporter, Address departure, Address destination) {
-        this.order = order;
+        this(Collections.singletonList(order), transporter, departure, destination);
+    }
+
+    /**
+     * Creates a delivery shipping several orders at once with the same transportation.
+     * @param orders
+     * Orders to ship, not empty. The first one is the main order of the delivery.
+     */
+    public Delivery(List<Order> orders, Transportation transporter, Address departure, Address destination) {
+        if (orders.isEmpty())
+            throw new IllegalArgumentException("A delivery ships at least one order.");
+        this.orders = Collections.unmodifiableList(new ArrayList<>(orders));
         this.transporter = transporter;
         this.departure = departure;
         this.currentLocation = departure.getCoordinates();
@@ -61,64 +80,55 @@ public class Delivery extends Item {
     public boolean isAtDestination() {
         // Maximum tolerated distance from destination
         final int toleranceInKm = 30;
-        return Coordinates.calculateDistance(this.getDestination().getCoordinates(),this.getCurrentLocation()) < toleranceInKm;
+        // The approximation is precise enough at this range, and overestimates longer distances
+        return Coordinates.calculateApproximateDistance(this.getDestination().getCoordinates(),this.getCurrentLocation()) < toleranceInKm;
+    }
+
+    public boolean isDelivered() {
+        return deliveryState.equals(DeliveryStatus.DELIVERED);
     }
 
     /**
-     * Determines the route to take to minimize the distance between the current location and the destination.
-     * @param distance
-     * Total distance that the delivery shall move to.
      * @return
-     * New coordinates that are as close as possible to the destination considering the traveled destination.
+     * True if the delivery has been delivered or cancelled.
      */
-    public Coordinates minimizeDistanceFromDestination(final float distance) {
-
-        // Min is the base point at first
-        Coordinates minCoordinates = this.getCurrentLocation();
-        Coordinates intermediateCoordinates;
-        double minDistance = Coordinates.calculateDistance(minCoordinates,this.getDestination().getCoordinates());
-        double distanceX = -distance;
-        double distanceY, intermediateDistance;
-        // Step size
-        final double eps = 1;
-
-        // Evaluation with each possible x and y distances
-        while (distanceX <= distance) {
-            distanceY = -distance;
-            while (distanceY <= distance) {
-                // Constraint of our optimization problem
-                if (Math.abs(distanceX) + Math.abs(distanceY) <= distance) {
-                    intermediateCoordinates = Coordinates.applyDistance(this.getCurrentLocation(),(float)distanceX,(float)distanceY);
-                    intermediateDistance = Coordinates.calculateDistance(intermediateCoordinates,this.getDestination().getCoordinates());
-                    if (minDistance >= intermediateDistance) {
-                        minCoordinates = intermediateCoordinates;
-                        minDistance = intermediateDistance;
-                    }
-                }
-
-                distanceY += eps;
-            }
-            distanceX += eps;
-        }
-
-        return minCoordinates;
-
-    }
-
-    public boolean isDelivered() {
-        return deliveryState.equals(DeliveryStatus.DELIVERED);
+    public boolean isOver() {
+        return deliveryState == DeliveryStatus.DELIVERED || deliveryState == DeliveryStatus.CANCELLED;
     }
 
     public boolean isInTransit() {
         return !getCurrentLocation().equals(getDeparture().getCoordinates());
     }
 
+    /**
+     * @return
+     * The main order of the delivery.
+     */
     public Order getOrder() {
-        return order;
+        return orders.get(0);
     }
 
     public void setOrder(Order order) {
-        this.order = order;
+        this.orders = Collections.singletonList(order);
+    }
+
+    /**
+     * @return
+     * Every order shipped by the delivery, the main one first. The list is immutable.
+     */
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    /**
+     * @return
+     * Total weight of the orders in grams.
+     */
+    public double getWeight() {
+        double weight = 0;
+        for (final Order order : orders)
+            weight += order.getWeight();
+        return weight;
     }
 
     public Transportation getTransporter() {
@@ -153,6 +163,14 @@ public class Delivery extends Item {
         this.currentLocation = currentLocation;
     }
 
+    public RouteCursor getRouteCursor() {
+        return routeCursor;
+    }
+
+    public void setRouteCursor(RouteCursor routeCursor) {
+        this.routeCursor = routeCursor;
+    }
+
     public DeliveryStatus getDeliveryState() {
         return deliveryState;
     }
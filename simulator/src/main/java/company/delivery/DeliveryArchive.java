@@ -0,0 +1,107 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.delivery;
+
+import java.util.Arrays;
+
+/**
+ * Archive of the deliveries that are over (delivered or cancelled). Only the id and the final status of each delivery
+ * are kept, along with the number of deliveries per status, so that the archive stays small over long simulations.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Delivery
+ */
+public class DeliveryArchive {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final DeliveryStatus[] STATUSES = DeliveryStatus.values();
+
+    private long[] ids = new long[DEFAULT_CAPACITY];
+    private byte[] statuses = new byte[DEFAULT_CAPACITY];
+    private int size;
+    private final long[] countsByStatus = new long[STATUSES.length];
+
+    /**
+     * Archives a delivery with its current status.
+     * @param delivery
+     * A delivery that is over.
+     */
+    public void archive(Delivery delivery) {
+        archive(delivery.getNumericId(), delivery.getDeliveryState());
+    }
+
+    /**
+     * Archives a delivery from its id and final status, e.g. when restoring a saved archive.
+     * @param id
+     * Numeric id of the delivery.
+     * @param status
+     * Final status of the delivery.
+     */
+    public synchronized void archive(long id, DeliveryStatus status) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            statuses = Arrays.copyOf(statuses, size * 2);
+        }
+        ids[size] = id;
+        statuses[size] = (byte) status.ordinal();
+        size++;
+        countsByStatus[status.ordinal()]++;
+    }
+
+    /**
+     * @param status
+     * A delivery status.
+     * @return
+     * Number of archived deliveries that ended with the given status.
+     */
+    public synchronized long count(DeliveryStatus status) {
+        return countsByStatus[status.ordinal()];
+    }
+
+    /**
+     * @return
+     * Number of archived deliveries.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param index
+     * Index of the delivery in the archive, in archiving order.
+     * @return
+     * Numeric id of the archived delivery.
+     */
+    public synchronized long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index
+     * Index of the delivery in the archive, in archiving order.
+     * @return
+     * Final status of the archived delivery.
+     */
+    public synchronized DeliveryStatus getStatus(int index) {
+        checkIndex(index);
+        return STATUSES[statuses[index]];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.delivery;
+
+import company.address.Coordinates;
+import company.order.Order;
+import company.transportation.Transportation;
+
+import java.util.*;
+
+/**
+ * Puts several orders on the same transportation.
+ *
+ * Pending orders are grouped by destination: buyers in the same cell of a latitude/longitude grid are delivered
+ * together. The orders of a group are then packed into transportation by weight, heaviest first, each order going to
+ * the loaded transportation it fills the most (best-fit decreasing). When a group needs a new transportation, the
+ * smallest one able to carry what is left of the group is taken, or the largest one if none can.
+ *
+ * Orders that cannot be loaded, because no transportation is left or none is large enough, are not part of the
+ * result and stay pending.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Delivery
+ */
+public class DeliveryConsolidator {
+
+    public static final double DEFAULT_GROUPING_DISTANCE_IN_KM = 50;
+    private static final double GRAMS_PER_TONNE = 1e6;
+    private static final double KM_PER_DEGREE = Math.toRadians(1) * 6371;
+
+    private final double cellSize;
+
+    public DeliveryConsolidator() {
+        this(DEFAULT_GROUPING_DISTANCE_IN_KM);
+    }
+
+    /**
+     * @param groupingDistance
+     * Size in km of the cells orders are grouped in. Cells are narrower toward the poles.
+     */
+    public DeliveryConsolidator(double groupingDistance) {
+        if (groupingDistance <= 0)
+            throw new IllegalArgumentException("Grouping distance must be positive: " + groupingDistance);
+        this.cellSize = groupingDistance / KM_PER_DEGREE;
+    }
+
+    /**
+     * Packs orders into transportation.
+     * @param orders
+     * Orders to deliver.
+     * @param transportation
+     * Transportation that can be used. Availability is not checked.
+     * @return
+     * The loads, at most one per transportation. Orders of a load are in decreasing weight.
+     */
+    public List<Load> consolidate(Collection<Order> orders, Collection<Transportation> transportation) {
+        final TreeMap<Float, Deque<Transportation>> fleet = new TreeMap<>();
+        transportation.forEach(vehicle ->
+                fleet.computeIfAbsent(vehicle.getCapacity(), capacity -> new ArrayDeque<>()).add(vehicle));
+        final List<Load> loads = new ArrayList<>();
+        if (fleet.isEmpty() || orders.isEmpty())
+            return loads;
+
+        // Sorting packed weight and index sorts the orders by weight with a primitive sort
+        final Order[] pending = orders.toArray(new Order[orders.size()]);
+        final double[] weights = new double[pending.length];
+        final long[] sorted = new long[pending.length];
+        for (int i = 0; i < pending.length; i++) {
+            weights[i] = pending[i].getWeight();
+            sorted[i] = ((long) Float.floatToIntBits((float) weights[i]) << 32) | i;
+        }
+        Arrays.sort(sorted);
+
+        // Groups are filled heaviest order first
+        final Map<Long, Group> groups = new HashMap<>();
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            final int index = (int) sorted[i];
+            final Coordinates coordinates = pending[index].getBuyer().getAddress().getCoordinates();
+            groups.computeIfAbsent(cellKey(coordinates), key -> new Group()).add(index, weights[index]);
+        }
+        final List<Group> byWeight = new ArrayList<>(groups.values());
+        byWeight.sort((first, second) -> Double.compare(second.weight, first.weight));
+
+        for (final Group group : byWeight) {
+            if (fleet.isEmpty())
+                break;
+            pack(group, pending, weights, fleet, loads);
+        }
+        return loads;
+    }
+
+    private void pack(Group group, Order[] pending, double[] weights, TreeMap<Float, Deque<Transportation>> fleet,
+                      List<Load> loads) {
+        // Loads of the group by free capacity in grams
+        final TreeMap<Double, Deque<Load>> open = new TreeMap<>();
+        double remaining = group.weight;
+        for (int i = 0; i < group.size; i++) {
+            final int index = group.indexes[i];
+            final double weight = weights[index];
+            Load load = takeLoad(open, weight);
+            if (load == null) {
+                final Transportation vehicle = takeTransportation(fleet,
+                        Math.max(remaining, weight) / GRAMS_PER_TONNE);
+                if (vehicle == null || vehicle.getCapacity() * GRAMS_PER_TONNE < weight) {
+                    if (vehicle != null)
+                        fleet.computeIfAbsent(vehicle.getCapacity(), capacity -> new ArrayDeque<>()).push(vehicle);
+                    remaining -= weight;
+                    continue;
+                }
+                load = new Load(vehicle);
+                loads.add(load);
+            }
+            load.add(pending[index], weight);
+            open.computeIfAbsent(load.getFreeCapacity(), free -> new ArrayDeque<>()).push(load);
+            remaining -= weight;
+        }
+    }
+
+    /**
+     * Takes the load with the least free capacity that can still carry a weight.
+     */
+    private static Load takeLoad(TreeMap<Double, Deque<Load>> open, double weight) {
+        final Map.Entry<Double, Deque<Load>> entry = open.ceilingEntry(weight);
+        if (entry == null)
+            return null;
+        final Load load = entry.getValue().pop();
+        if (entry.getValue().isEmpty())
+            open.remove(entry.getKey());
+        return load;
+    }
+
+    /**
+     * Takes the smallest transportation carrying a weight, or the largest one if none can.
+     */
+    private static Transportation takeTransportation(TreeMap<Float, Deque<Transportation>> fleet, double tonnes) {
+        Map.Entry<Float, Deque<Transportation>> entry = fleet.ceilingEntry((float) Math.min(tonnes, Float.MAX_VALUE));
+        if (entry == null)
+            entry = fleet.lastEntry();
+        if (entry == null)
+            return null;
+        final Transportation vehicle = entry.getValue().pop();
+        if (entry.getValue().isEmpty())
+            fleet.remove(entry.getKey());
+        return vehicle;
+    }
+
+    private long cellKey(Coordinates coordinates) {
+        final long latitude = (long) Math.floor(coordinates.getLatitude() / cellSize);
+        final long longitude = (long) Math.floor(coordinates.getLongitude() / cellSize);
+        return (latitude << 32) | (longitude & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Orders going to the same cell, by index.
+     */
+    private static final class Group {
+
+        private int[] indexes = new int[4];
+        private int size;
+        private double weight;
+
+        void add(int index, double orderWeight) {
+            if (size == indexes.length)
+                indexes = Arrays.copyOf(indexes, size * 2);
+            indexes[size++] = index;
+            weight += orderWeight;
+        }
+    }
+
+    /**
+     * Orders loaded on a transportation.
+     */
+    public static final class Load {
+
+        private final Transportation transportation;
+        private final List<Order> orders = new ArrayList<>();
+        private double weight;
+
+        Load(Transportation transportation) {
+            this.transportation = transportation;
+        }
+
+        void add(Order order, double orderWeight) {
+            orders.add(order);
+            weight += orderWeight;
+        }
+
+        public Transportation getTransportation() {
+            return transportation;
+        }
+
+        public List<Order> getOrders() {
+            return Collections.unmodifiableList(orders);
+        }
+
+        /**
+         * @return
+         * Weight of the orders in grams.
+         */
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return
+         * Capacity left in grams.
+         */
+        public double getFreeCapacity() {
+            return transportation.getCapacity() * GRAMS_PER_TONNE - weight;
+        }
+    }
+}
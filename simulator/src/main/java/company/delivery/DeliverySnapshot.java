@@ -0,0 +1,63 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.delivery;
+
+import company.address.Coordinates;
+import company.transportation.TransportationHealthState;
+
+/**
+ * Immutable state of a delivery at the end of a simulated hour.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Delivery
+ * @see company.company.CompanySnapshot
+ */
+public final class DeliverySnapshot {
+
+    private final String id;
+    private final DeliveryStatus deliveryState;
+    private final Coordinates currentLocation;
+    private final String transporterId;
+    private final TransportationHealthState transporterHealthState;
+
+    public DeliverySnapshot(Delivery delivery) {
+        this.id = delivery.getId();
+        this.deliveryState = delivery.getDeliveryState();
+        // Locations are replaced, never modified, when a delivery moves: the object can be shared
+        this.currentLocation = delivery.getCurrentLocation();
+        this.transporterId = delivery.getTransporter().getId();
+        this.transporterHealthState = delivery.getTransporter().getHealthState();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public DeliveryStatus getDeliveryState() {
+        return deliveryState;
+    }
+
+    public Coordinates getCurrentLocation() {
+        return currentLocation;
+    }
+
+    public String getTransporterId() {
+        return transporterId;
+    }
+
+    public TransportationHealthState getTransporterHealthState() {
+        return transporterHealthState;
+    }
+}
@@ -16,11 +16,11 @@ package company.order;
 
 import company.customer.Customer;
 import company.product.Product;
+import company.product.ProductType;
 import org.slf4j.LoggerFactory;
 import storage.Item;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Created by Arthur Deschamps on 03.06.17.
@@ -28,27 +28,45 @@ import java.util.List;
 public class Order extends Item {
 
     private List<Product> orderedProducts;
+    private List<OrderLine> orderLines;
     private Customer buyer;
     private boolean issued;
 
     public Order(Customer buyer) {
         this.orderedProducts = new ArrayList<>();
+        this.orderLines = new ArrayList<>();
         this.buyer = buyer;
         this.issued = false;
     }
 
     public Order(Customer buyer, List<Product> orderedProducts) {
         this.orderedProducts = orderedProducts;
+        this.orderLines = new ArrayList<>();
         this.buyer = buyer;
         this.issued = false;
     }
 
+    /**
+     * Creates an order made of lines (type, quantity) instead of products.
+     * @param buyer
+     * Customer ordering.
+     * @param orderLines
+     * Lines of the order.
+     * @return
+     * The new order.
+     */
+    public static Order fromLines(Customer buyer, List<OrderLine> orderLines) {
+        Order order = new Order(buyer);
+        order.setOrderLines(orderLines);
+        return order;
+    }
+
     @Override
     public boolean validate() {
         if (buyer == null) {
             LoggerFactory.getLogger(Order.class).error("null buyer on order");
         }
-        return buyer != null && orderedProducts.size() > 0;
+        return buyer != null && (orderedProducts.size() > 0 || orderLines.size() > 0);
     }
 
     public List<Product> getOrderedProducts() {
@@ -60,10 +78,58 @@ public class Order extends Item {
     }
 
 
+    public List<OrderLine> getOrderLines() {
+        return orderLines;
+    }
+
+    public void setOrderLines(List<OrderLine> orderLines) {
+        this.orderLines = orderLines;
+    }
+
+    /**
+     * @return
+     * Types of the products ordered, from the products and the lines of the order. Each type appears once, types
+     * being told apart by id as in the stores.
+     */
+    public Collection<ProductType> getProductTypes() {
+        Map<Long, ProductType> productTypes = new LinkedHashMap<>();
+        orderedProducts.forEach(product ->
+                productTypes.putIfAbsent(product.getProductType().getNumericId(), product.getProductType()));
+        orderLines.forEach(orderLine ->
+                productTypes.putIfAbsent(orderLine.getProductType().getNumericId(), orderLine.getProductType()));
+        return productTypes.values();
+    }
+
+    /**
+     * @return
+     * Number of products ordered.
+     */
+    public int getQuantity() {
+        int quantity = orderedProducts.size();
+        for (final OrderLine orderLine : orderLines)
+            quantity += orderLine.getQuantity();
+        return quantity;
+    }
+
+    /**
+     * @return
+     * Weight of the products ordered in grams.
+     */
+    public double getWeight() {
+        double weight = 0;
+        for (final Product product : orderedProducts)
+            weight += product.getProductType().getWeight();
+        for (final OrderLine orderLine : orderLines)
+            weight += (double) orderLine.getProductType().getWeight() * orderLine.getQuantity();
+        return weight;
+    }
+
     public int getTotalAmount() {
         int totalAmount = 0;
         for (final Product product : this.getOrderedProducts())
             totalAmount += product.getPrice();
+        for (final OrderLine orderLine : this.getOrderLines())
+            totalAmount += orderLine.getAmount();
         return totalAmount;
     }
 
@@ -0,0 +1,57 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.order;
+
+import company.product.ProductType;
+
+/**
+ * Line of an order: a quantity of products of the same type, at a given unit price. Used instead of Product objects
+ * when the company counts its stock by type.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see company.company.InventoryMode
+ */
+public final class OrderLine {
+
+    private final ProductType productType;
+    private final int quantity;
+    private final float unitPrice;
+
+    public OrderLine(ProductType productType, int quantity, float unitPrice) {
+        this.productType = productType;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    public ProductType getProductType() {
+        return productType;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public float getUnitPrice() {
+        return unitPrice;
+    }
+
+    /**
+     * @return
+     * Price of the whole line.
+     */
+    public float getAmount() {
+        return quantity * unitPrice;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.persistence;
+
+import company.address.Address;
+import company.address.Coordinates;
+import company.customer.Customer;
+import company.delivery.Delivery;
+import company.delivery.DeliveryStatus;
+import company.order.Order;
+import company.order.OrderLine;
+import company.product.Product;
+import company.product.ProductType;
+import company.transportation.Transportation;
+import company.transportation.TransportationHealthState;
+import company.transportation.TransportationMode;
+import storage.Item;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes items written by a BinaryWriter. Decoded items keep their original id. Items referenced by other items must
+ * have been registered (decoded items are registered automatically). Not thread-safe.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see BinaryWriter
+ */
+final class BinaryReader {
+
+    private static final TransportationMode[] TRANSPORTATION_MODES = TransportationMode.values();
+    private static final TransportationHealthState[] HEALTH_STATES = TransportationHealthState.values();
+    private static final DeliveryStatus[] DELIVERY_STATUSES = DeliveryStatus.values();
+
+    private ByteBuffer buffer;
+    private final Map<Long, Item> registry = new HashMap<>();
+
+    void setBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Makes an item available to resolve references.
+     */
+    void register(Item item) {
+        registry.put(item.getNumericId(), item);
+    }
+
+    /**
+     * @return
+     * Registered item with the given id, null if the id is 0.
+     * @throws IOException
+     * If no item of the given class has been registered with this id.
+     */
+    <T extends Item> T resolve(long id, Class<T> itemClass) throws IOException {
+        if (id == 0)
+            return null;
+        final Item item = registry.get(id);
+        if (!itemClass.isInstance(item))
+            throw new IOException("Unknown " + itemClass.getSimpleName() + " with id " + id);
+        return itemClass.cast(item);
+    }
+
+    <T extends Item> T readReference(Class<T> itemClass) throws IOException {
+        return resolve(readLong(), itemClass);
+    }
+
+    int readByte() {
+        return buffer.get();
+    }
+
+    boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    int readInt() {
+        return buffer.getInt();
+    }
+
+    long readLong() {
+        return buffer.getLong();
+    }
+
+    float readFloat() {
+        return buffer.getFloat();
+    }
+
+    String readString() throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        if (length > buffer.remaining())
+            throw new IOException("Invalid string length: " + length);
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    Coordinates readCoordinates() {
+        if (!readBoolean())
+            return null;
+        final float latitude = readFloat();
+        return new Coordinates(latitude, readFloat());
+    }
+
+    Address readAddress() throws IOException {
+        if (!readBoolean())
+            return null;
+        final String street = readString();
+        final String city = readString();
+        final String region = readString();
+        final String country = readString();
+        final String zip = readString();
+        return new Address(street, city, region, country, zip, readCoordinates());
+    }
+
+    Customer readCustomer() throws IOException {
+        final long id = readLong();
+        final String firstName = readString();
+        final String lastName = readString();
+        final Address address = readAddress();
+        final String emailAddress = readString();
+        final String phoneNumber = readString();
+        return registered(Item.restore(id, () -> new Customer(firstName, lastName, address, emailAddress, phoneNumber)));
+    }
+
+    ProductType readProductType() throws IOException {
+        final long id = readLong();
+        final String name = readString();
+        final String productionCountry = readString();
+        final float basePrice = readFloat();
+        final float weight = readFloat();
+        final boolean fragile = readBoolean();
+        return registered(Item.restore(id, () -> new ProductType(name, productionCountry, basePrice, weight, fragile)));
+    }
+
+    /**
+     * Products are not registered: nothing references them. Products without an allocated id (units of a product
+     * store) keep their id, so that reading does not allocate ids while other ids are being restored.
+     */
+    Product readProduct() throws IOException {
+        final long id = readLong();
+        final ProductType productType = readReference(ProductType.class);
+        final float price = readFloat();
+        return Item.restore(id, () -> new Product(productType, null, price));
+    }
+
+    Transportation readTransportation() {
+        final long id = readLong();
+        final float capacity = readFloat();
+        final int maxSpeed = readInt();
+        final TransportationMode transportationMode = TRANSPORTATION_MODES[readByte()];
+        final Transportation transportation = Item.restore(id, () ->
+                new Transportation(capacity, maxSpeed, transportationMode));
+        transportation.setHealthState(HEALTH_STATES[readByte()]);
+        transportation.setAvailable(readBoolean());
+        return registered(transportation);
+    }
+
+    Order readOrder() throws IOException {
+        final long id = readLong();
+        final Customer buyer = readReference(Customer.class);
+        final boolean issued = readBoolean();
+        final int productsCount = readInt();
+        List<Product> products = new ArrayList<>(productsCount);
+        for (int i = 0; i < productsCount; i++)
+            products.add(readProduct());
+        final int linesCount = readInt();
+        List<OrderLine> orderLines = new ArrayList<>(linesCount);
+        for (int i = 0; i < linesCount; i++) {
+            final ProductType productType = readReference(ProductType.class);
+            final int quantity = readInt();
+            orderLines.add(new OrderLine(productType, quantity, readFloat()));
+        }
+        final Order order = Item.restore(id, () -> new Order(buyer, products));
+        order.setOrderLines(orderLines);
+        order.setIssued(issued);
+        return registered(order);
+    }
+
+    Delivery readDelivery() throws IOException {
+        final long id = readLong();
+        final List<Order> orders = new ArrayList<>();
+        for (int i = readInt(); i > 0; i--)
+            orders.add(readReference(Order.class));
+        final Transportation transporter = readReference(Transportation.class);
+        final Address departure = readAddress();
+        final Address destination = readAddress();
+        final Delivery delivery = Item.restore(id, () -> new Delivery(orders, transporter, departure, destination));
+        delivery.setCurrentLocation(readCoordinates());
+        delivery.setDeliveryState(DELIVERY_STATUSES[readByte()]);
+        return registered(delivery);
+    }
+
+    private <T extends Item> T registered(T item) {
+        register(item);
+        return item;
+    }
+}
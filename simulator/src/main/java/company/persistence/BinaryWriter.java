@@ -0,0 +1,191 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.persistence;
+
+import company.address.Address;
+import company.address.Coordinates;
+import company.customer.Customer;
+import company.delivery.Delivery;
+import company.order.Order;
+import company.order.OrderLine;
+import company.product.Product;
+import company.product.ProductType;
+import company.transportation.Transportation;
+import storage.Item;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes items into a compact binary form. Items referenced by other items (e.g. the buyer of an order) are written
+ * as their numeric id. Not thread-safe.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see BinaryReader
+ */
+final class BinaryWriter {
+
+    private ByteBuffer buffer;
+
+    BinaryWriter(int capacity) {
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * @return
+     * The content written since the last clear, ready to be read.
+     */
+    ByteBuffer flip() {
+        buffer.flip();
+        return buffer;
+    }
+
+    void clear() {
+        buffer.clear();
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    void writeByte(int value) {
+        ensureRemaining(1).put((byte) value);
+    }
+
+    void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    void writeInt(int value) {
+        ensureRemaining(4).putInt(value);
+    }
+
+    void writeInt(int position, int value) {
+        buffer.putInt(position, value);
+    }
+
+    void writeLong(long value) {
+        ensureRemaining(8).putLong(value);
+    }
+
+    void writeFloat(float value) {
+        ensureRemaining(4).putFloat(value);
+    }
+
+    void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            ensureRemaining(bytes.length).put(bytes);
+        }
+    }
+
+    void writeReference(Item item) {
+        writeLong(item == null ? 0 : item.getNumericId());
+    }
+
+    void writeCoordinates(Coordinates coordinates) {
+        writeBoolean(coordinates != null);
+        if (coordinates != null) {
+            writeFloat(coordinates.getLatitude());
+            writeFloat(coordinates.getLongitude());
+        }
+    }
+
+    void writeAddress(Address address) {
+        writeBoolean(address != null);
+        if (address != null) {
+            writeString(address.getStreet());
+            writeString(address.getCity());
+            writeString(address.getRegion());
+            writeString(address.getCountry());
+            writeString(address.getZip());
+            writeCoordinates(address.getCoordinates());
+        }
+    }
+
+    void writeCustomer(Customer customer) {
+        writeLong(customer.getNumericId());
+        writeString(customer.getFirstName());
+        writeString(customer.getLastName());
+        writeAddress(customer.getAddress());
+        writeString(customer.getEmailAddress());
+        writeString(customer.getPhoneNumber());
+    }
+
+    void writeProductType(ProductType productType) {
+        writeLong(productType.getNumericId());
+        writeString(productType.getName());
+        writeString(productType.getProductionCountry());
+        writeFloat(productType.getBasePrice());
+        writeFloat(productType.getWeight());
+        writeBoolean(productType.isFragile());
+    }
+
+    void writeProduct(Product product) {
+        writeLong(product.getNumericId());
+        writeReference(product.getProductType());
+        writeFloat(product.getPrice());
+    }
+
+    void writeTransportation(Transportation transportation) {
+        writeLong(transportation.getNumericId());
+        writeFloat(transportation.getCapacity());
+        writeInt(transportation.getMaxSpeed());
+        writeByte(transportation.getTransportationMode().ordinal());
+        writeByte(transportation.getHealthState().ordinal());
+        writeBoolean(transportation.isAvailable());
+    }
+
+    /**
+     * Writes an order along with its products, which belong to the order only.
+     */
+    void writeOrder(Order order) {
+        writeLong(order.getNumericId());
+        writeReference(order.getBuyer());
+        writeBoolean(order.isIssued());
+        writeInt(order.getOrderedProducts().size());
+        order.getOrderedProducts().forEach(this::writeProduct);
+        writeInt(order.getOrderLines().size());
+        for (final OrderLine orderLine : order.getOrderLines()) {
+            writeReference(orderLine.getProductType());
+            writeInt(orderLine.getQuantity());
+            writeFloat(orderLine.getUnitPrice());
+        }
+    }
+
+    void writeDelivery(Delivery delivery) {
+        writeLong(delivery.getNumericId());
+        writeInt(delivery.getOrders().size());
+        delivery.getOrders().forEach(this::writeReference);
+        writeReference(delivery.getTransporter());
+        writeAddress(delivery.getDeparture());
+        writeAddress(delivery.getDestination());
+        writeCoordinates(delivery.getCurrentLocation());
+        writeByte(delivery.getDeliveryState().ordinal());
+    }
+
+    private ByteBuffer ensureRemaining(int length) {
+        if (buffer.remaining() < length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
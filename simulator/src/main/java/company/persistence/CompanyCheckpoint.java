@@ -0,0 +1,280 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.persistence;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import company.delivery.Delivery;
+import company.delivery.DeliveryArchive;
+import company.delivery.DeliveryStatus;
+import company.product.ColumnarProductStore;
+import company.product.Product;
+import company.product.ProductType;
+import company.product.QuantityProductStore;
+import economy.Economy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Binary checkpoint of a company and its economy. Loading a checkpoint is much faster than generating a company, and
+ * the loaded items keep their ids so that a journal started right after the checkpoint can be replayed on it.
+ *
+ * The file starts with a version number: a checkpoint can only be loaded by a simulator supporting its version.
+ * Checkpoints must be saved by the thread running the simulation, between two ticks.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see CompanyJournal
+ */
+public final class CompanyCheckpoint {
+
+    private static final int MAGIC = 0x53434350; // "SCCP"
+    private static final int VERSION = 2;
+    private static final DeliveryStatus[] DELIVERY_STATUSES = DeliveryStatus.values();
+
+    private final Company company;
+    private final Economy economy;
+
+    private CompanyCheckpoint(Company company, Economy economy) {
+        this.company = company;
+        this.economy = economy;
+    }
+
+    public Company getCompany() {
+        return company;
+    }
+
+    /**
+     * @return
+     * The saved economy, or null if no economy was saved.
+     */
+    public Economy getEconomy() {
+        return economy;
+    }
+
+    /**
+     * Saves a company and its economy, replacing any existing file.
+     * @param path
+     * Path of the checkpoint file.
+     * @param company
+     * Company to save.
+     * @param economy
+     * Economy of the company. Can be null.
+     * @throws IOException
+     * If the file can't be written.
+     */
+    public static void save(Path path, Company company, Economy economy) throws IOException {
+        BinaryWriter writer = new BinaryWriter(1 << 16);
+        writer.writeInt(MAGIC);
+        writer.writeInt(VERSION);
+
+        writer.writeString(company.getType().name());
+        writer.writeString(company.getName());
+        writer.writeAddress(company.getHeadquarters());
+        writer.writeString(company.getInventoryMode().name());
+        writer.writeInt(company.getDeliveryRetention());
+
+        writer.writeBoolean(economy != null);
+        if (economy != null) {
+            writer.writeFloat(economy.getGrowth());
+            writer.writeFloat(economy.getSectorConcurrency());
+            writer.writeFloat(economy.getUpheavalLikelihood());
+            writer.writeFloat(economy.getDemand());
+        }
+
+        // Types that have been deleted may still be referenced by orders
+        final List<ProductType> productTypes = new ArrayList<>(company.getProductTypes());
+        final Set<ProductType> allProductTypes = Collections.newSetFromMap(new IdentityHashMap<>());
+        allProductTypes.addAll(productTypes);
+        final Set<ProductType> deletedProductTypes = Collections.newSetFromMap(new IdentityHashMap<>());
+        company.getOrders().forEach(order -> deletedProductTypes.addAll(order.getProductTypes()));
+        company.getDeliveries().forEach(delivery -> delivery.getOrders()
+                .forEach(order -> deletedProductTypes.addAll(order.getProductTypes())));
+        deletedProductTypes.removeAll(allProductTypes);
+        writer.writeInt(productTypes.size() + deletedProductTypes.size());
+        for (final ProductType productType : productTypes) {
+            writer.writeProductType(productType);
+            writer.writeBoolean(true);
+        }
+        for (final ProductType productType : deletedProductTypes) {
+            writer.writeProductType(productType);
+            writer.writeBoolean(false);
+        }
+        writeAll(writer, company.getCustomers(), writer::writeCustomer);
+        writeAll(writer, company.getAllTransportation(), writer::writeTransportation);
+        writeProducts(writer, company, productTypes);
+        writeAll(writer, company.getOrders(), writer::writeOrder);
+
+        // The orders of the deliveries are not in the order store anymore
+        final List<Delivery> deliveries = new ArrayList<>(company.getDeliveries());
+        writer.writeInt(deliveries.size());
+        for (final Delivery delivery : deliveries) {
+            writer.writeInt(delivery.getOrders().size());
+            delivery.getOrders().forEach(writer::writeOrder);
+            writer.writeDelivery(delivery);
+        }
+
+        final DeliveryArchive archive = company.getDeliveryArchive();
+        final int archived = archive.size();
+        writer.writeInt(archived);
+        for (int i = 0; i < archived; i++) {
+            writer.writeLong(archive.getId(i));
+            writer.writeByte(archive.getStatus(i).ordinal());
+        }
+
+        // Written next to the checkpoint first, so that a crash while saving does not lose the previous checkpoint
+        final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer content = writer.flip();
+            while (content.hasRemaining())
+                channel.write(content);
+            channel.force(false);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <T> void writeAll(BinaryWriter writer, Collection<T> items, Consumer<T> writeItem) {
+        final List<T> copy = new ArrayList<>(items);
+        writer.writeInt(copy.size());
+        copy.forEach(writeItem);
+    }
+
+    /**
+     * Products are saved as objects, as units (type and price) or as stock per type, depending on the product store.
+     */
+    private static void writeProducts(BinaryWriter writer, Company company, List<ProductType> productTypes) {
+        switch (company.getInventoryMode()) {
+            case QUANTITY:
+                final QuantityProductStore store = (QuantityProductStore) company.getProductStore();
+                writer.writeInt(productTypes.size());
+                for (final ProductType productType : productTypes) {
+                    writer.writeReference(productType);
+                    writer.writeInt(store.count(productType));
+                    writer.writeInt(store.countReserved(productType));
+                    writer.writeFloat(store.getPrice(productType));
+                }
+                break;
+            case COLUMNAR:
+                writeAll(writer, company.getProducts(), product -> {
+                    writer.writeReference(product.getProductType());
+                    writer.writeFloat(product.getPrice());
+                });
+                break;
+            default:
+                writeAll(writer, company.getProducts(), writer::writeProduct);
+        }
+    }
+
+    /**
+     * Loads a checkpoint. The file is mapped in memory rather than read.
+     * @param path
+     * Path of the checkpoint file.
+     * @return
+     * The checkpoint, holding a new company and economy.
+     * @throws IOException
+     * If the file can't be read, is not a checkpoint or has an unsupported version.
+     */
+    public static CompanyCheckpoint load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (content.remaining() < 8 || content.getInt() != MAGIC)
+                throw new IOException(path + " is not a checkpoint");
+            final int version = content.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported checkpoint version: " + version);
+            try {
+                return read(content);
+            } catch (RuntimeException e) {
+                // Buffer underflows, invalid enum values, etc
+                throw new IOException("Corrupt checkpoint " + path, e);
+            }
+        }
+    }
+
+    private static CompanyCheckpoint read(ByteBuffer content) throws IOException {
+        BinaryReader reader = new BinaryReader();
+        reader.setBuffer(content);
+
+        final CompanyType companyType = CompanyType.valueOf(reader.readString());
+        final String name = reader.readString();
+        final Company company = new Company(companyType, name, reader.readAddress(),
+                InventoryMode.valueOf(reader.readString()));
+        company.setDeliveryRetention(reader.readInt());
+
+        Economy economy = null;
+        if (reader.readBoolean())
+            economy = new Economy(reader.readFloat(), reader.readFloat(), reader.readFloat(), reader.readFloat());
+
+        for (int i = reader.readInt(); i > 0; i--) {
+            final ProductType productType = reader.readProductType();
+            if (reader.readBoolean())
+                company.getProductTypeStore().add(productType);
+        }
+        for (int i = reader.readInt(); i > 0; i--)
+            company.getCustomerStore().add(reader.readCustomer());
+        for (int i = reader.readInt(); i > 0; i--)
+            company.getTransportationStore().add(reader.readTransportation());
+        readProducts(reader, company);
+        for (int i = reader.readInt(); i > 0; i--)
+            company.getOrderStore().add(reader.readOrder());
+        for (int i = reader.readInt(); i > 0; i--) {
+            for (int j = reader.readInt(); j > 0; j--)
+                reader.readOrder();
+            company.restoreDelivery(reader.readDelivery());
+        }
+        final DeliveryArchive archive = company.getDeliveryArchive();
+        for (int i = reader.readInt(); i > 0; i--) {
+            final long id = reader.readLong();
+            archive.archive(id, DELIVERY_STATUSES[reader.readByte()]);
+        }
+        return new CompanyCheckpoint(company, economy);
+    }
+
+    private static void readProducts(BinaryReader reader, Company company) throws IOException {
+        switch (company.getInventoryMode()) {
+            case QUANTITY:
+                final QuantityProductStore quantityStore = (QuantityProductStore) company.getProductStore();
+                for (int i = reader.readInt(); i > 0; i--) {
+                    final ProductType productType = reader.readReference(ProductType.class);
+                    final int quantity = reader.readInt();
+                    final int reservedQuantity = reader.readInt();
+                    quantityStore.restore(productType, quantity, reservedQuantity, reader.readFloat());
+                }
+                break;
+            case COLUMNAR:
+                final ColumnarProductStore columnarStore = (ColumnarProductStore) company.getProductStore();
+                for (int i = reader.readInt(); i > 0; i--) {
+                    final ProductType productType = reader.readReference(ProductType.class);
+                    columnarStore.add(productType, reader.readFloat(), 1);
+                }
+                break;
+            default:
+                for (int i = reader.readInt(); i > 0; i--) {
+                    final Product product = reader.readProduct();
+                    company.getProductStore().add(product);
+                }
+        }
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.persistence;
+
+import company.company.Company;
+import company.company.CompanyListener;
+import company.company.CompanyType;
+import company.customer.Customer;
+import company.delivery.Delivery;
+import company.delivery.DeliveryStatus;
+import company.order.Order;
+import company.product.Product;
+import company.product.ProductType;
+import company.transportation.Transportation;
+import company.transportation.TransportationHealthState;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the changes made to a company. Registered as a listener of the company, it encodes every
+ * change as a small binary record into a buffer. The buffer is written to the file when it is full and at every
+ * commit (group commit): the simulation commits once per tick, so the tick never waits for a write per change.
+ *
+ * Replaying a journal on a company in the state the journal was started from brings the company back to its state
+ * at the last commit. Records are checksummed: a record that has only been partially written (crash) ends the replay.
+ * Only the changes made through the methods of the company are recorded, health states of transportation and the type
+ * and name of the company included. Locations are not.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see CompanyListener
+ */
+public class CompanyJournal implements CompanyListener, Closeable {
+
+    private static final int MAGIC = 0x53434A4C; // "SCJL"
+    private static final int VERSION = 4;
+    /** Oldest version that can be replayed. Version 3 added health state records, version 4 type and name records. **/
+    private static final int MIN_VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    /** Length and checksum of each record. **/
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 1 << 18;
+
+    // Record types
+    private static final byte NEW_CUSTOMER = 1;
+    private static final byte CUSTOMER_DELETED = 2;
+    private static final byte NEW_PRODUCT_TYPE = 3;
+    private static final byte PRODUCT_TYPE_DELETED = 4;
+    private static final byte NEW_PRODUCT = 5;
+    private static final byte NEW_PRODUCTS = 6;
+    private static final byte PRODUCT_DELETED = 7;
+    private static final byte PRODUCTS_DISCOUNTED = 8;
+    private static final byte NEW_ORDER = 9;
+    private static final byte ORDER_CANCELLED = 10;
+    private static final byte NEW_TRANSPORTATION = 11;
+    private static final byte TRANSPORTATION_DELETED = 12;
+    private static final byte NEW_DELIVERY = 13;
+    private static final byte DELIVERY_STATE_CHANGED = 14;
+    private static final byte DELIVERY_ARCHIVED = 15;
+    private static final byte TRANSPORTATION_DEGRADED = 16;
+    private static final byte TYPE_CHANGED = 17;
+    private static final byte NAME_CHANGED = 18;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final BinaryWriter record = new BinaryWriter(256);
+    private final CRC32 crc = new CRC32();
+    private long recordsCount;
+    private IOException failure;
+
+    private CompanyJournal(FileChannel channel, boolean sync) {
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    /**
+     * Creates a new journal, replacing any existing file.
+     * @param path
+     * Path of the journal file.
+     * @param sync
+     * If true, every commit forces the journal to the disk. Otherwise, the operating system decides when to write it,
+     * which is faster but may lose the last commits if the machine (not only the simulator) crashes.
+     * @return
+     * The journal, ready to be registered as listener of a company.
+     * @throws IOException
+     * If the file can't be created.
+     */
+    public static CompanyJournal create(Path path, boolean sync) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        CompanyJournal journal = new CompanyJournal(channel, sync);
+        journal.output.putInt(MAGIC).putInt(VERSION);
+        journal.commit();
+        return journal;
+    }
+
+    /**
+     * Writes the recorded changes to the file.
+     * @throws IOException
+     * If a write failed, now or since the last commit.
+     */
+    public synchronized void commit() throws IOException {
+        if (failure != null)
+            throw failure;
+        flush();
+        if (sync)
+            channel.force(false);
+    }
+
+    /**
+     * @return
+     * Number of changes recorded.
+     */
+    public synchronized long getRecordsCount() {
+        return recordsCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Override
+    public synchronized void onNewCustomer(Customer customer) {
+        begin(NEW_CUSTOMER);
+        record.writeCustomer(customer);
+        end();
+    }
+
+    @Override
+    public synchronized void onCustomerDeleted(Customer customer) {
+        begin(CUSTOMER_DELETED);
+        record.writeReference(customer);
+        end();
+    }
+
+    @Override
+    public synchronized void onNewProductType(ProductType productType) {
+        begin(NEW_PRODUCT_TYPE);
+        record.writeProductType(productType);
+        end();
+    }
+
+    @Override
+    public synchronized void onProductTypeDeleted(ProductType productType) {
+        begin(PRODUCT_TYPE_DELETED);
+        record.writeReference(productType);
+        end();
+    }
+
+    @Override
+    public synchronized void onNewProduct(Product product) {
+        begin(NEW_PRODUCT);
+        record.writeProduct(product);
+        end();
+    }
+
+    @Override
+    public synchronized void onNewProducts(ProductType productType, int quantity) {
+        begin(NEW_PRODUCTS);
+        record.writeReference(productType);
+        record.writeInt(quantity);
+        end();
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product product) {
+        begin(PRODUCT_DELETED);
+        record.writeProduct(product);
+        end();
+    }
+
+    @Override
+    public synchronized void onProductsDiscounted(float ratio, float minimumRatio) {
+        begin(PRODUCTS_DISCOUNTED);
+        record.writeFloat(ratio);
+        record.writeFloat(minimumRatio);
+        end();
+    }
+
+    @Override
+    public synchronized void onNewOrder(Order order) {
+        begin(NEW_ORDER);
+        record.writeOrder(order);
+        end();
+    }
+
+    @Override
+    public synchronized void onOrderCancelled(Order order) {
+        begin(ORDER_CANCELLED);
+        record.writeReference(order);
+        end();
+    }
+
+    @Override
+    public synchronized void onNewTransportation(Transportation transportation) {
+        begin(NEW_TRANSPORTATION);
+        record.writeTransportation(transportation);
+        end();
+    }
+
+    @Override
+    public synchronized void onTransportationDeleted(Transportation transportation) {
+        begin(TRANSPORTATION_DELETED);
+        record.writeReference(transportation);
+        end();
+    }
+
+    @Override
+    public synchronized void onTransportationDegraded(Transportation transportation) {
+        begin(TRANSPORTATION_DEGRADED);
+        record.writeReference(transportation);
+        record.writeByte(transportation.getHealthState().ordinal());
+        end();
+    }
+
+    @Override
+    public synchronized void onTypeChanged(CompanyType type) {
+        begin(TYPE_CHANGED);
+        record.writeByte(type.ordinal());
+        end();
+    }
+
+    @Override
+    public synchronized void onNameChanged(String name) {
+        begin(NAME_CHANGED);
+        record.writeString(name);
+        end();
+    }
+
+    @Override
+    public synchronized void onNewDelivery(Delivery delivery) {
+        begin(NEW_DELIVERY);
+        record.writeDelivery(delivery);
+        end();
+    }
+
+    @Override
+    public synchronized void onDeliveryStateChanged(Delivery delivery) {
+        begin(DELIVERY_STATE_CHANGED);
+        record.writeReference(delivery);
+        record.writeByte(delivery.getDeliveryState().ordinal());
+        end();
+    }
+
+    @Override
+    public synchronized void onDeliveryArchived(Delivery delivery) {
+        begin(DELIVERY_ARCHIVED);
+        record.writeReference(delivery);
+        end();
+    }
+
+    private void begin(byte type) {
+        record.clear();
+        // Room for the length and the checksum, written at the end
+        record.writeLong(0);
+        record.writeByte(type);
+    }
+
+    private void end() {
+        final int length = record.position() - RECORD_HEADER_SIZE;
+        ByteBuffer encoded = record.flip();
+        crc.reset();
+        encoded.position(RECORD_HEADER_SIZE);
+        crc.update(encoded);
+        encoded.putInt(0, length).putInt(4, (int) crc.getValue()).position(0);
+        recordsCount++;
+        try {
+            if (encoded.remaining() > output.remaining())
+                flush();
+            if (encoded.remaining() > output.remaining())
+                write(encoded);
+            else
+                output.put(encoded);
+        } catch (IOException e) {
+            // Listeners can't throw checked exceptions: the failure is reported by the next commit
+            if (failure == null)
+                LoggerFactory.getLogger(CompanyJournal.class).error("Could not write to the journal", e);
+            failure = e;
+        }
+    }
+
+    private void flush() throws IOException {
+        output.flip();
+        write(output);
+        output.clear();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Replays a journal on a company. The company must be in the state it was in when the journal was created, and
+     * must not have the journal registered as listener.
+     * @param path
+     * Path of the journal file.
+     * @param company
+     * Company to apply the changes to.
+     * @return
+     * Number of changes replayed.
+     * @throws IOException
+     * If the file can't be read or is not a journal.
+     */
+    public static long replay(Path path, Company company) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (journal.remaining() < HEADER_SIZE || journal.getInt() != MAGIC)
+                throw new IOException(path + " is not a journal");
+            final int version = journal.getInt();
+            if (version < MIN_VERSION || version > VERSION)
+                throw new IOException("Unsupported journal version: " + version);
+
+            BinaryReader reader = new BinaryReader();
+            registerItems(reader, company);
+            final CRC32 crc = new CRC32();
+            long replayed = 0;
+            while (journal.remaining() >= RECORD_HEADER_SIZE) {
+                final int length = journal.getInt();
+                final int checksum = journal.getInt();
+                if (length <= 0 || length > journal.remaining())
+                    break;
+                ByteBuffer record = journal.slice();
+                record.limit(length);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum)
+                    break;
+                record.position(0);
+                reader.setBuffer(record);
+                apply(reader, company);
+                journal.position(journal.position() + length);
+                replayed++;
+            }
+            if (journal.hasRemaining())
+                LoggerFactory.getLogger(CompanyJournal.class).warn("Journal " + path + " ends with an incomplete record, "
+                        + "which has been ignored.");
+            return replayed;
+        }
+    }
+
+    /**
+     * Registers the items of the company that may be referenced by the journal.
+     */
+    static void registerItems(BinaryReader reader, Company company) {
+        company.getCustomers().forEach(reader::register);
+        company.getProductTypes().forEach(reader::register);
+        company.getAllTransportation().forEach(reader::register);
+        company.getOrders().forEach(order -> {
+            reader.register(order);
+            // Types may have been deleted since the order
+            order.getProductTypes().forEach(reader::register);
+        });
+        company.getDeliveries().forEach(delivery -> {
+            reader.register(delivery);
+            delivery.getOrders().forEach(order -> {
+                reader.register(order);
+                order.getProductTypes().forEach(reader::register);
+            });
+        });
+    }
+
+    private static void apply(BinaryReader reader, Company company) throws IOException {
+        final int type = reader.readByte();
+        switch (type) {
+            case NEW_CUSTOMER:
+                company.newCustomer(reader.readCustomer());
+                break;
+            case CUSTOMER_DELETED:
+                company.deleteCustomer(reader.readReference(Customer.class));
+                break;
+            case NEW_PRODUCT_TYPE:
+                company.newProductType(reader.readProductType());
+                break;
+            case PRODUCT_TYPE_DELETED:
+                company.deleteProductType(reader.readReference(ProductType.class));
+                break;
+            case NEW_PRODUCT:
+                company.newProduct(reader.readProduct());
+                break;
+            case NEW_PRODUCTS:
+                final ProductType productType = reader.readReference(ProductType.class);
+                company.newProducts(productType, reader.readInt());
+                break;
+            case PRODUCT_DELETED:
+                company.deleteProduct(reader.readProduct());
+                break;
+            case PRODUCTS_DISCOUNTED:
+                final float ratio = reader.readFloat();
+                company.discountProducts(ratio, reader.readFloat());
+                break;
+            case NEW_ORDER:
+                company.newOrder(reader.readOrder());
+                break;
+            case ORDER_CANCELLED:
+                company.cancelOrder(reader.readReference(Order.class));
+                break;
+            case NEW_TRANSPORTATION:
+                company.newTransportation(reader.readTransportation());
+                break;
+            case TRANSPORTATION_DELETED:
+                company.deleteTransportation(reader.readReference(Transportation.class));
+                break;
+            case TRANSPORTATION_DEGRADED:
+                final Transportation transportation = reader.readReference(Transportation.class);
+                final TransportationHealthState healthState = TransportationHealthState.values()[reader.readByte()];
+                // The state reached is recorded, so that replaying never degrades further
+                while (transportation.getHealthState().compareTo(healthState) < 0)
+                    company.degradeTransportation(transportation);
+                break;
+            case TYPE_CHANGED:
+                company.setType(CompanyType.values()[reader.readByte()]);
+                break;
+            case NAME_CHANGED:
+                company.setName(reader.readString());
+                break;
+            case NEW_DELIVERY:
+                company.newDelivery(reader.readDelivery());
+                break;
+            case DELIVERY_STATE_CHANGED:
+                applyDeliveryState(company, reader.readReference(Delivery.class),
+                        DeliveryStatus.values()[reader.readByte()]);
+                break;
+            case DELIVERY_ARCHIVED:
+                company.archiveDelivery(reader.readReference(Delivery.class));
+                break;
+            default:
+                throw new IOException("Unknown journal record type: " + type);
+        }
+    }
+
+    private static void applyDeliveryState(Company company, Delivery delivery, DeliveryStatus deliveryState) {
+        switch (deliveryState) {
+            case TRANSIT:
+                company.startDeliveryShipping(delivery);
+                break;
+            case DELIVERED:
+                company.confirmDelivery(delivery);
+                break;
+            case CANCELLED:
+                company.cancelDelivery(delivery);
+                break;
+            default:
+                delivery.setDeliveryState(deliveryState);
+        }
+    }
+}
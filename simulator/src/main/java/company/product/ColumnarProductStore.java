@@ -0,0 +1,422 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.product;
+
+import storage.ItemStore;
+import storage.ItemStoreListener;
+
+import java.util.*;
+
+/**
+ * Product store that does not keep Product objects. Each product type gets an int id and a column of float prices:
+ * a unit of stock costs a single float. This allows inventories of millions of units.
+ *
+ * Units of the same type and price are interchangeable. Products returned by the store (random pick, iteration) are
+ * created on the fly and stay bound to their unit as long as the store is not modified: changing their price changes
+ * the price of the unit and deleting them deletes the unit. Deleting any other product deletes a unit of the same type
+ * and price. These products have no allocated id: their id is derived from the row of their unit.
+ *
+ * Listeners implementing ProductStoreListener are notified once per bulk addition or deletion, without creating any
+ * product. Other listeners are notified unit by unit.
+ *
+ * Modifications are synchronized, but iterating the storage must be done by the thread modifying the store.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see ItemStore
+ */
+public class ColumnarProductStore extends ItemStore<Product> {
+
+    private static final int DEFAULT_COLUMN_CAPACITY = 16;
+
+    /** Product type of each type id. **/
+    private ProductType[] types;
+    /** Type id of each product type, keyed by numeric id like the item stores (equal types may be distinct). **/
+    private final Map<Long, Integer> typeIds;
+    /** Price of each unit, by type id. **/
+    private float[][] prices;
+    /** Number of units of each type. **/
+    private final CountTree counts;
+    private volatile int size;
+    private int modCount;
+
+    private final Set<Product> storage = new ColumnarStorageView();
+    private final Random random = new Random();
+
+    public ColumnarProductStore() {
+        this.types = new ProductType[DEFAULT_COLUMN_CAPACITY];
+        this.typeIds = new HashMap<>();
+        this.prices = new float[DEFAULT_COLUMN_CAPACITY][];
+        this.counts = new CountTree(DEFAULT_COLUMN_CAPACITY);
+    }
+
+    @Override
+    public synchronized void setStorage(Set<Product> storage) {
+        final List<Product> products = new ArrayList<>(storage);
+        clear();
+        products.forEach(this::add);
+    }
+
+    /**
+     * Return the Store "storage". The returned set is a live view of the store. Its products are created on the fly,
+     * see the class description.
+     */
+    @Override
+    public Set<Product> getStorage() {
+        return storage;
+    }
+
+    @Override
+    public synchronized void add(Product product) {
+        if (product != null && product.getProductType() != null) {
+            append(typeId(product.getProductType()), product.getPrice(), 1);
+            notifyAdd(product);
+        }
+    }
+
+    /**
+     * Adds several units of the same type and price at once.
+     * @param productType
+     * Type of the units.
+     * @param price
+     * Price of each unit.
+     * @param quantity
+     * Number of units to add.
+     */
+    public synchronized void add(ProductType productType, float price, int quantity) {
+        final int typeId = typeId(productType);
+        if (quantity <= 0)
+            return;
+        append(typeId, price, quantity);
+        final int count = counts.get(typeId);
+        for (final ItemStoreListener<? super Product> listener : getListeners()) {
+            if (listener instanceof ProductStoreListener)
+                ((ProductStoreListener) listener).onAdd(productType, quantity);
+            else
+                for (int row = count - quantity; row < count; row++)
+                    listener.onAdd(new Unit(typeId, row));
+        }
+    }
+
+    /**
+     * Deletes every unit of a product type at once by dropping its column. The type keeps its id.
+     * @param productType
+     * Type of product.
+     */
+    public synchronized void deleteAll(ProductType productType) {
+        final Integer typeId = typeIdOf(productType);
+        if (typeId != null)
+            removeAll(typeId);
+    }
+
+    @Override
+    public synchronized void delete(Product product) {
+        if (product != null)
+            remove(product);
+    }
+
+    @Override
+    public synchronized Optional<Product> getRandom() {
+        if (size == 0)
+            return Optional.empty();
+        final int position = random.nextInt(size);
+        final int typeId = counts.find(position);
+        return Optional.of(new Unit(typeId, position - counts.sumBefore(typeId)));
+    }
+
+    @Override
+    public synchronized List<Product> getAt(int[] positions) {
+        final List<Product> found = new ArrayList<>(positions.length);
+        for (int position : positions)
+            if (position >= 0 && position < size) {
+                final int typeId = counts.find(position);
+                found.add(new Unit(typeId, position - counts.sumBefore(typeId)));
+            }
+        return found;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized long getVersion() {
+        return modCount;
+    }
+
+    /**
+     * @param productType
+     * Type of product.
+     * @return
+     * Number of units of the given type.
+     */
+    public synchronized int count(ProductType productType) {
+        final Integer typeId = typeIdOf(productType);
+        return typeId == null ? 0 : counts.get(typeId);
+    }
+
+    /**
+     * Applies a discount on every unit of the store, working directly on the price columns.
+     * @param ratio
+     * Ratio to apply to the prices (0.9 for a 10 % discount).
+     * @param minimumRatio
+     * Prices are never cut below this ratio of the base price of their type.
+     */
+    public synchronized void discount(float ratio, float minimumRatio) {
+        for (int typeId = 0; typeId < typeIds.size(); typeId++) {
+            final float[] column = prices[typeId];
+            final float minimumPrice = types[typeId].getBasePrice() * minimumRatio;
+            for (int row = 0; row < counts.get(typeId); row++) {
+                final float cutPrice = column[row] * ratio;
+                if (cutPrice >= minimumPrice)
+                    column[row] = cutPrice;
+            }
+        }
+    }
+
+    /**
+     * @return
+     * Type id of the given product type, null if the store never had units of it.
+     */
+    private Integer typeIdOf(ProductType productType) {
+        return productType == null ? null : typeIds.get(productType.getNumericId());
+    }
+
+    private int typeId(ProductType productType) {
+        Integer typeId = typeIdOf(productType);
+        if (typeId == null) {
+            typeId = typeIds.size();
+            if (typeId == types.length)
+                growTypes();
+            types[typeId] = productType;
+            prices[typeId] = new float[DEFAULT_COLUMN_CAPACITY];
+            typeIds.put(productType.getNumericId(), typeId);
+        }
+        return typeId;
+    }
+
+    private void growTypes() {
+        final int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+    }
+
+    private void append(int typeId, float price, int quantity) {
+        float[] column = prices[typeId];
+        final int row = counts.get(typeId);
+        if (row + quantity > column.length)
+            column = prices[typeId] = Arrays.copyOf(column, Math.max(column.length * 2, row + quantity));
+        Arrays.fill(column, row, row + quantity, price);
+        counts.add(typeId, quantity);
+        size += quantity;
+        modCount++;
+    }
+
+    private boolean remove(Product product) {
+        if (product instanceof Unit && ((Unit) product).isBoundTo(this)) {
+            final Unit unit = (Unit) product;
+            removeAt(unit.typeId, unit.row);
+            notifyDelete(product);
+            return true;
+        }
+        final Integer typeId = typeIdOf(product.getProductType());
+        if (typeId == null)
+            return false;
+        final int row = find(typeId, product.getPrice());
+        if (row < 0)
+            return false;
+        removeAt(typeId, row);
+        notifyDelete(product);
+        return true;
+    }
+
+    /**
+     * Finds a unit of the given type and price. Starts from the last unit, which is the one most likely to match.
+     */
+    private int find(int typeId, float price) {
+        final float[] column = prices[typeId];
+        for (int row = counts.get(typeId) - 1; row >= 0; row--)
+            if (Float.compare(column[row], price) == 0)
+                return row;
+        return -1;
+    }
+
+    /**
+     * Removes a unit by moving the last unit of the same type into its row.
+     */
+    private void removeAt(int typeId, int row) {
+        counts.add(typeId, -1);
+        prices[typeId][row] = prices[typeId][counts.get(typeId)];
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Removes every unit of a type, replacing its column by an empty one.
+     */
+    private void removeAll(int typeId) {
+        final int quantity = counts.get(typeId);
+        if (quantity == 0)
+            return;
+        final List<ItemStoreListener<? super Product>> listeners = getListeners();
+        // Listeners notified unit by unit get the units as they were before the removal
+        List<Product> units = Collections.emptyList();
+        if (listeners.stream().anyMatch(listener -> !(listener instanceof ProductStoreListener))) {
+            units = new ArrayList<>(quantity);
+            for (int row = 0; row < quantity; row++)
+                units.add(new Unit(typeId, row));
+        }
+        counts.add(typeId, -quantity);
+        prices[typeId] = new float[DEFAULT_COLUMN_CAPACITY];
+        size -= quantity;
+        modCount++;
+        for (final ItemStoreListener<? super Product> listener : listeners) {
+            if (listener instanceof ProductStoreListener)
+                ((ProductStoreListener) listener).onDelete(types[typeId], quantity);
+            else
+                units.forEach(listener::onDelete);
+        }
+    }
+
+    private void clear() {
+        for (int typeId = 0; typeId < typeIds.size(); typeId++)
+            removeAll(typeId);
+    }
+
+    /**
+     * Product created on the fly from a unit of the store. Its id is not allocated but derived from its row:
+     * products created from the same row are equal.
+     */
+    private final class Unit extends Product {
+
+        private final transient int typeId;
+        private final transient int row;
+        private final transient int expectedModCount;
+
+        Unit(int typeId, int row) {
+            super(-(((long) typeId << 32) | row) - 1, types[typeId], prices[typeId][row]);
+            this.typeId = typeId;
+            this.row = row;
+            this.expectedModCount = modCount;
+        }
+
+        /**
+         * @return
+         * True if the product still designates its unit in the given store.
+         */
+        boolean isBoundTo(ColumnarProductStore store) {
+            return store == ColumnarProductStore.this && expectedModCount == modCount;
+        }
+
+        @Override
+        public void setPrice(float price) {
+            super.setPrice(price);
+            synchronized (ColumnarProductStore.this) {
+                if (isBoundTo(ColumnarProductStore.this))
+                    prices[typeId][row] = price;
+            }
+        }
+    }
+
+    /**
+     * Set view of the store, as returned by getStorage.
+     */
+    private class ColumnarStorageView extends AbstractSet<Product> {
+
+        @Override
+        public Iterator<Product> iterator() {
+            return new Iterator<Product>() {
+                private int typeId = 0;
+                private int row = 0;
+                private Unit lastReturned;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    while (typeId < typeIds.size() && row >= counts.get(typeId)) {
+                        typeId++;
+                        row = 0;
+                    }
+                    return typeId < typeIds.size();
+                }
+
+                @Override
+                public Product next() {
+                    if (modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    lastReturned = new Unit(typeId, row++);
+                    return lastReturned;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastReturned == null)
+                        throw new IllegalStateException();
+                    if (modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                    ColumnarProductStore.this.delete(lastReturned);
+                    // The last unit of the type has been moved into the freed row and still has to be visited
+                    typeId = lastReturned.typeId;
+                    row = lastReturned.row;
+                    lastReturned = null;
+                    expectedModCount = modCount;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean add(Product product) {
+            ColumnarProductStore.this.add(Objects.requireNonNull(product));
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Product))
+                return false;
+            synchronized (ColumnarProductStore.this) {
+                return ColumnarProductStore.this.remove((Product) o);
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Product))
+                return false;
+            synchronized (ColumnarProductStore.this) {
+                final Product product = (Product) o;
+                if (product instanceof Unit && ((Unit) product).isBoundTo(ColumnarProductStore.this))
+                    return true;
+                final Integer typeId = typeIdOf(product.getProductType());
+                return typeId != null && find(typeId, product.getPrice()) >= 0;
+            }
+        }
+
+        @Override
+        public void clear() {
+            synchronized (ColumnarProductStore.this) {
+                ColumnarProductStore.this.clear();
+            }
+        }
+    }
+}
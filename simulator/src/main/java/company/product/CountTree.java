@@ -0,0 +1,100 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.product;
+
+import java.util.Arrays;
+
+/**
+ * Counts indexed by small ints (e.g. product type ids), kept in a Fenwick tree so that the n-th counted unit can be
+ * found in O(log(indexes)). Allows to pick a uniformly random unit without enumerating the units.
+ * Grows as needed. Not thread-safe.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+final class CountTree {
+
+    private int[] counts;
+    private int[] tree;
+    private int total;
+
+    CountTree(int capacity) {
+        this.counts = new int[capacity];
+        this.tree = new int[capacity + 1];
+    }
+
+    int get(int index) {
+        return index < counts.length ? counts[index] : 0;
+    }
+
+    /**
+     * Adds delta to the count at the given index.
+     */
+    void add(int index, int delta) {
+        if (index >= counts.length)
+            grow(Math.max(index + 1, counts.length * 2));
+        counts[index] += delta;
+        total += delta;
+        for (int i = index + 1; i < tree.length; i += i & -i)
+            tree[i] += delta;
+    }
+
+    /**
+     * @return
+     * Sum of all the counts.
+     */
+    int total() {
+        return total;
+    }
+
+    /**
+     * @param position
+     * Position of a unit, between 0 and total (exclusive).
+     * @return
+     * Index counting the unit at the given position, units being ordered by index.
+     */
+    int find(int position) {
+        // Descend the tree, keeping the largest index whose prefix sum is <= position
+        int index = 0;
+        for (int step = Integer.highestOneBit(counts.length); step > 0; step >>= 1) {
+            final int next = index + step;
+            if (next < tree.length && tree[next] <= position) {
+                index = next;
+                position -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return
+     * Sum of the counts of the indexes lower than the given one.
+     */
+    int sumBefore(int index) {
+        int sum = 0;
+        for (int i = Math.min(index, counts.length); i > 0; i -= i & -i)
+            sum += tree[i];
+        return sum;
+    }
+
+    private void grow(int capacity) {
+        counts = Arrays.copyOf(counts, capacity);
+        // Rebuild the tree since its layout depends on its size
+        tree = new int[capacity + 1];
+        for (int index = 0; index < capacity; index++)
+            for (int i = index + 1; i < tree.length; i += i & -i)
+                tree[i] += counts[index];
+    }
+}
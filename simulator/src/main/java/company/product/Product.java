@@ -36,6 +36,15 @@ public class Product extends Item {
         this.price = productType.getBasePrice();
     }
 
+    /**
+     * Creates a product with an id that is not allocated, see Item.
+     */
+    protected Product(long id, ProductType productType, float price) {
+        super(id);
+        this.productType = productType;
+        this.price = price;
+    }
+
 
     @Override
     public boolean validate() {
@@ -0,0 +1,46 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.product;
+
+import storage.ItemStoreListener;
+
+/**
+ * Listener of a product store that can be notified of many units of a type at once. ColumnarProductStore notifies
+ * such listeners once per bulk addition or deletion instead of once per unit, and does not create the products.
+ * Other listeners are still notified unit by unit.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see ColumnarProductStore
+ */
+public interface ProductStoreListener extends ItemStoreListener<Product> {
+
+    /**
+     * Called after units of a type have been added to the store.
+     * @param productType
+     * Type of the added units.
+     * @param quantity
+     * Number of added units.
+     */
+    void onAdd(ProductType productType, int quantity);
+
+    /**
+     * Called after units of a type have been deleted from the store.
+     * @param productType
+     * Type of the deleted units.
+     * @param quantity
+     * Number of deleted units.
+     */
+    void onDelete(ProductType productType, int quantity);
+}
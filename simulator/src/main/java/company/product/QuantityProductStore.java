@@ -0,0 +1,403 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.product;
+
+import storage.ItemStore;
+
+import java.util.*;
+
+/**
+ * Product store keeping only a stock counter and a price per product type. All the units of a type share the same
+ * price. Stock can be reserved by orders: reserved units are not available anymore until they are released (the order
+ * is cancelled) or committed (the order is shipped).
+ *
+ * Adding, reserving and discounting cost O(1) or O(types) whatever the quantities. Products returned by the store
+ * (random pick, iteration) are created on the fly and deleting any product of a type takes one unit of that type.
+ * These products have no allocated id: units of a type are interchangeable and share an id derived from the type.
+ * Listeners are not notified: the counts are kept by the store itself, see count.
+ *
+ * Modifications are synchronized, but iterating the storage must be done by the thread modifying the store.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see ItemStore
+ */
+public class QuantityProductStore extends ItemStore<Product> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Product type of each type id. **/
+    private ProductType[] types;
+    /** Type id of each product type, keyed by numeric id like the item stores (equal types may be distinct). **/
+    private final Map<Long, Integer> typeIds;
+    /** Unit price of each type. **/
+    private float[] prices;
+    /** Available units of each type. **/
+    private final CountTree available;
+    /** Reserved units of each type. **/
+    private int[] reserved;
+    private volatile int size;
+    private int modCount;
+
+    private final Set<Product> storage = new QuantityStorageView();
+    private final Random random = new Random();
+
+    public QuantityProductStore() {
+        this.types = new ProductType[DEFAULT_CAPACITY];
+        this.typeIds = new HashMap<>();
+        this.prices = new float[DEFAULT_CAPACITY];
+        this.available = new CountTree(DEFAULT_CAPACITY);
+        this.reserved = new int[DEFAULT_CAPACITY];
+    }
+
+    @Override
+    public synchronized void setStorage(Set<Product> storage) {
+        final List<Product> products = new ArrayList<>(storage);
+        clear();
+        products.forEach(this::add);
+    }
+
+    /**
+     * Return the Store "storage". The returned set is a live view of the available units. Its products are created on
+     * the fly, see the class description.
+     */
+    @Override
+    public Set<Product> getStorage() {
+        return storage;
+    }
+
+    @Override
+    public synchronized void add(Product product) {
+        if (product != null && product.getProductType() != null)
+            add(product.getProductType(), 1);
+    }
+
+    /**
+     * Adds available units of a type. Units of a new type are priced at the base price of the type.
+     * @param productType
+     * Type of the units.
+     * @param quantity
+     * Number of units to add.
+     */
+    public synchronized void add(ProductType productType, int quantity) {
+        if (quantity <= 0)
+            return;
+        available.add(typeId(productType), quantity);
+        size += quantity;
+        modCount++;
+    }
+
+    /**
+     * Sets the stock and price of a type, e.g. when restoring a saved store.
+     * @param productType
+     * Type of product.
+     * @param quantity
+     * Number of available units.
+     * @param reservedQuantity
+     * Number of reserved units.
+     * @param price
+     * Unit price.
+     */
+    public synchronized void restore(ProductType productType, int quantity, int reservedQuantity, float price) {
+        final int typeId = typeId(productType);
+        remove(productType, available.get(typeId));
+        add(productType, quantity);
+        reserved[typeId] = reservedQuantity;
+        prices[typeId] = price;
+    }
+
+    @Override
+    public synchronized void delete(Product product) {
+        if (product != null)
+            remove(product.getProductType(), 1);
+    }
+
+    /**
+     * Removes all the units of a type, including the reserved ones.
+     * @param productType
+     * Type of the units.
+     */
+    public synchronized void deleteAll(ProductType productType) {
+        final Integer typeId = typeIdOf(productType);
+        if (typeId != null) {
+            remove(productType, available.get(typeId));
+            reserved[typeId] = 0;
+        }
+    }
+
+    /**
+     * Reserves available units of a type. Reserved units are not counted as available anymore.
+     * @param productType
+     * Type of the units.
+     * @param quantity
+     * Number of units wanted.
+     * @return
+     * Number of units actually reserved, which is lower than the wanted quantity if the stock is too low.
+     */
+    public synchronized int reserve(ProductType productType, int quantity) {
+        final Integer typeId = typeIdOf(productType);
+        if (typeId == null)
+            return 0;
+        final int reservedQuantity = remove(productType, quantity);
+        reserved[typeId] += reservedQuantity;
+        return reservedQuantity;
+    }
+
+    /**
+     * Makes reserved units available again.
+     * @param productType
+     * Type of the units.
+     * @param quantity
+     * Number of reserved units to release.
+     */
+    public synchronized void release(ProductType productType, int quantity) {
+        final Integer typeId = typeIdOf(productType);
+        if (typeId == null)
+            return;
+        final int releasedQuantity = Math.min(quantity, reserved[typeId]);
+        reserved[typeId] -= releasedQuantity;
+        add(productType, releasedQuantity);
+    }
+
+    /**
+     * Takes reserved units out of the store for good.
+     * @param productType
+     * Type of the units.
+     * @param quantity
+     * Number of reserved units to take.
+     */
+    public synchronized void commit(ProductType productType, int quantity) {
+        final Integer typeId = typeIdOf(productType);
+        if (typeId != null)
+            reserved[typeId] = Math.max(0, reserved[typeId] - quantity);
+    }
+
+    @Override
+    public synchronized Optional<Product> getRandom() {
+        if (size == 0)
+            return Optional.empty();
+        final int typeId = available.find(random.nextInt(size));
+        return Optional.of(unit(typeId));
+    }
+
+    @Override
+    public synchronized List<Product> getAt(int[] positions) {
+        final List<Product> found = new ArrayList<>(positions.length);
+        for (int position : positions)
+            if (position >= 0 && position < size) {
+                final int typeId = available.find(position);
+                found.add(unit(typeId));
+            }
+        return found;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized long getVersion() {
+        return modCount;
+    }
+
+    /**
+     * @param productType
+     * Type of product.
+     * @return
+     * Number of available units of the given type.
+     */
+    public synchronized int count(ProductType productType) {
+        final Integer typeId = typeIdOf(productType);
+        return typeId == null ? 0 : available.get(typeId);
+    }
+
+    /**
+     * @param productType
+     * Type of product.
+     * @return
+     * Number of reserved units of the given type.
+     */
+    public synchronized int countReserved(ProductType productType) {
+        final Integer typeId = typeIdOf(productType);
+        return typeId == null ? 0 : reserved[typeId];
+    }
+
+    /**
+     * @param productType
+     * Type of product.
+     * @return
+     * Current unit price of the given type.
+     */
+    public synchronized float getPrice(ProductType productType) {
+        final Integer typeId = typeIdOf(productType);
+        return typeId == null ? productType.getBasePrice() : prices[typeId];
+    }
+
+    /**
+     * Applies a discount on the price of every type.
+     * @param ratio
+     * Ratio to apply to the prices (0.9 for a 10 % discount).
+     * @param minimumRatio
+     * Prices are never cut below this ratio of the base price of their type.
+     */
+    public synchronized void discount(float ratio, float minimumRatio) {
+        for (int typeId = 0; typeId < typeIds.size(); typeId++) {
+            final float cutPrice = prices[typeId] * ratio;
+            if (cutPrice >= types[typeId].getBasePrice() * minimumRatio)
+                prices[typeId] = cutPrice;
+        }
+    }
+
+    /**
+     * Product standing for a unit of the given type, with an id that is not allocated.
+     */
+    private Product unit(int typeId) {
+        return new Product(-(long) typeId - 1, types[typeId], prices[typeId]);
+    }
+
+    /**
+     * @return
+     * Type id of the given product type, null if the store never had units of it.
+     */
+    private Integer typeIdOf(ProductType productType) {
+        return productType == null ? null : typeIds.get(productType.getNumericId());
+    }
+
+    private int typeId(ProductType productType) {
+        Integer typeId = typeIdOf(productType);
+        if (typeId == null) {
+            typeId = typeIds.size();
+            if (typeId == types.length) {
+                types = Arrays.copyOf(types, typeId * 2);
+                prices = Arrays.copyOf(prices, typeId * 2);
+                reserved = Arrays.copyOf(reserved, typeId * 2);
+            }
+            types[typeId] = productType;
+            prices[typeId] = productType.getBasePrice();
+            typeIds.put(productType.getNumericId(), typeId);
+        }
+        return typeId;
+    }
+
+    /**
+     * Removes up to the given quantity of available units.
+     * @return
+     * Number of units removed.
+     */
+    private int remove(ProductType productType, int quantity) {
+        final Integer typeId = typeIdOf(productType);
+        if (typeId == null)
+            return 0;
+        final int removedQuantity = Math.min(Math.max(quantity, 0), available.get(typeId));
+        if (removedQuantity > 0) {
+            available.add(typeId, -removedQuantity);
+            size -= removedQuantity;
+            modCount++;
+        }
+        return removedQuantity;
+    }
+
+    private void clear() {
+        for (int typeId = 0; typeId < typeIds.size(); typeId++) {
+            remove(types[typeId], available.get(typeId));
+            reserved[typeId] = 0;
+        }
+    }
+
+    /**
+     * Set view of the available units, as returned by getStorage.
+     */
+    private class QuantityStorageView extends AbstractSet<Product> {
+
+        @Override
+        public Iterator<Product> iterator() {
+            return new Iterator<Product>() {
+                private int typeId = 0;
+                private int unit = 0;
+                private int lastTypeId = -1;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    while (typeId < typeIds.size() && unit >= available.get(typeId)) {
+                        typeId++;
+                        unit = 0;
+                    }
+                    return typeId < typeIds.size();
+                }
+
+                @Override
+                public Product next() {
+                    if (modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    unit++;
+                    lastTypeId = typeId;
+                    return unit(typeId);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastTypeId < 0)
+                        throw new IllegalStateException();
+                    if (modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                    synchronized (QuantityProductStore.this) {
+                        QuantityProductStore.this.remove(types[lastTypeId], 1);
+                    }
+                    // Units are interchangeable: the removed one is the last of its type
+                    typeId = lastTypeId;
+                    unit--;
+                    lastTypeId = -1;
+                    expectedModCount = modCount;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean add(Product product) {
+            QuantityProductStore.this.add(Objects.requireNonNull(product));
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Product))
+                return false;
+            synchronized (QuantityProductStore.this) {
+                return QuantityProductStore.this.remove(((Product) o).getProductType(), 1) > 0;
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof Product) && count(((Product) o).getProductType()) > 0;
+        }
+
+        @Override
+        public void clear() {
+            synchronized (QuantityProductStore.this) {
+                QuantityProductStore.this.clear();
+            }
+        }
+    }
+}
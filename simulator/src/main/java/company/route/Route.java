@@ -0,0 +1,94 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.route;
+
+import company.address.Coordinates;
+import company.transportation.TransportationMode;
+
+import java.util.List;
+
+/**
+ * Polyline followed by a transportation. Consecutive waypoints are joined by great circle arcs. Routes are immutable
+ * and shared between the deliveries going the same way.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see RouteEngine
+ */
+public final class Route {
+
+    private final TransportationMode transportationMode;
+    private final Coordinates[] waypoints;
+    /** Length of each segment in km. Segment i goes from waypoint i to waypoint i + 1. **/
+    private final double[] segmentLengths;
+    private final double length;
+
+    Route(TransportationMode transportationMode, List<Coordinates> waypoints) {
+        this.transportationMode = transportationMode;
+        this.waypoints = waypoints.toArray(new Coordinates[waypoints.size()]);
+        this.segmentLengths = new double[Math.max(0, this.waypoints.length - 1)];
+        double length = 0;
+        for (int i = 0; i < segmentLengths.length; i++) {
+            segmentLengths[i] = Coordinates.calculateDistance(this.waypoints[i], this.waypoints[i + 1]);
+            length += segmentLengths[i];
+        }
+        this.length = length;
+    }
+
+    /**
+     * Starts following the route.
+     * @param destination
+     * Exact destination, reached straight from the last waypoint of the route.
+     * @return
+     * A cursor at the first waypoint of the route.
+     */
+    public RouteCursor follow(Coordinates destination) {
+        return new RouteCursor(this, destination);
+    }
+
+    public TransportationMode getTransportationMode() {
+        return transportationMode;
+    }
+
+    /**
+     * @return
+     * Number of waypoints, origin included.
+     */
+    public int size() {
+        return waypoints.length;
+    }
+
+    public Coordinates getWaypoint(int index) {
+        return waypoints[index];
+    }
+
+    /**
+     * @param index
+     * Index of the waypoint the segment starts from.
+     * @return
+     * Length of the segment in km.
+     */
+    public double getSegmentLength(int index) {
+        return segmentLengths[index];
+    }
+
+    /**
+     * @return
+     * Length of the route in km.
+     */
+    public double getLength() {
+        return length;
+    }
+}
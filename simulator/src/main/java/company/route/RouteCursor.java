@@ -0,0 +1,90 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.route;
+
+import company.address.Coordinates;
+
+/**
+ * Position of a delivery on a route. The route is followed to its last waypoint and then straight to the exact
+ * destination. Advancing only looks at the segments that are travelled, so a tick costs O(1) in general.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Route
+ */
+public final class RouteCursor {
+
+    private final Route route;
+    private final Coordinates destination;
+    private final double lastSegmentLength;
+    /** Index of the waypoint the current segment starts from. The last segment goes to the destination. **/
+    private int segment;
+    /** Distance travelled on the current segment in km. **/
+    private double offset;
+    private Coordinates location;
+
+    RouteCursor(Route route, Coordinates destination) {
+        this.route = route;
+        this.destination = destination;
+        this.lastSegmentLength = Coordinates.calculateDistance(route.getWaypoint(route.size() - 1), destination);
+        this.location = new Coordinates(route.getWaypoint(0));
+    }
+
+    /**
+     * Moves along the route.
+     * @param distance
+     * Distance to travel in km.
+     * @return
+     * The new location.
+     */
+    public Coordinates advance(double distance) {
+        double remaining = distance;
+        while (remaining > 0 && !isFinished()) {
+            final boolean last = segment == route.size() - 1;
+            final double segmentLength = last ? lastSegmentLength : route.getSegmentLength(segment);
+            if (offset + remaining < segmentLength) {
+                offset += remaining;
+                location = Coordinates.moveTowards(route.getWaypoint(segment),
+                        last ? destination : route.getWaypoint(segment + 1), offset);
+                return location;
+            }
+            remaining -= segmentLength - offset;
+            offset = 0;
+            segment++;
+            location = new Coordinates(isFinished() ? destination : route.getWaypoint(segment));
+        }
+        return location;
+    }
+
+    /**
+     * @return
+     * True if the destination has been reached.
+     */
+    public boolean isFinished() {
+        return segment >= route.size();
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public Coordinates getDestination() {
+        return destination;
+    }
+
+    public Coordinates getLocation() {
+        return location;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.route;
+
+import company.address.Coordinates;
+import company.transportation.TransportationMode;
+
+import java.util.*;
+
+/**
+ * Builds the routes followed by deliveries, depending on their mode of transportation:
+ * - AIR follows the great circle, which is the shortest route.
+ * - WATER follows the rhumb line (constant heading), as ships do along sea lanes.
+ * - LAND_RAIL follows corridors along the parallel of the origin and then the meridian of the destination.
+ * - LAND_ROAD makes a detour through a waypoint on the side of the great circle, as roads rarely go straight.
+ * The simulation has no map data, so these corridors are approximations.
+ *
+ * Destinations are grouped in cells of a grid. A route leads to the center of the destination cell and is shared by
+ * every delivery leaving the same origin toward the same cell with the same mode. The most recently used routes are
+ * cached.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Route
+ */
+public class RouteEngine {
+
+    public static final int DEFAULT_CACHE_CAPACITY = 4096;
+    public static final float DEFAULT_CELL_SIZE_IN_DEGREES = 0.5f;
+    /** Maximum distance between two waypoints of a route that is not a great circle. **/
+    private static final double WAYPOINT_SPACING_IN_KM = 50;
+    /** Distance of the road detour from the great circle, as a ratio of the length of the great circle. **/
+    private static final double ROAD_DETOUR_RATIO = 0.1;
+    /** Mercator projection is not defined at the poles. **/
+    private static final double MAX_LATITUDE = 85;
+
+    private final float cellSize;
+    private final Map<RouteKey, Route> cache;
+    private long hits;
+    private long misses;
+
+    public RouteEngine() {
+        this(DEFAULT_CACHE_CAPACITY, DEFAULT_CELL_SIZE_IN_DEGREES);
+    }
+
+    /**
+     * @param cacheCapacity
+     * Maximum number of routes kept.
+     * @param cellSize
+     * Size in degrees of the cells destinations are grouped in.
+     */
+    public RouteEngine(final int cacheCapacity, float cellSize) {
+        this.cellSize = cellSize;
+        this.cache = new LinkedHashMap<RouteKey, Route>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey, Route> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the route from an origin to the cell of a destination.
+     * @param origin
+     * Starting coordinates.
+     * @param destination
+     * Coordinates to go to.
+     * @param transportationMode
+     * Mode of transportation.
+     * @return
+     * The route, starting at the origin and leading to the center of the cell of the destination.
+     */
+    public synchronized Route getRoute(Coordinates origin, Coordinates destination,
+                                       TransportationMode transportationMode) {
+        final int cellLatitude = (int) Math.floor(destination.getLatitude() / cellSize);
+        final int cellLongitude = (int) Math.floor(destination.getLongitude() / cellSize);
+        final RouteKey key = new RouteKey(origin.getLatitude(), origin.getLongitude(), cellLatitude, cellLongitude,
+                transportationMode);
+        Route route = cache.get(key);
+        if (route == null) {
+            misses++;
+            final Coordinates cellCenter = new Coordinates((cellLatitude + 0.5f) * cellSize,
+                    (cellLongitude + 0.5f) * cellSize);
+            // Roads of neighbouring cells bend to opposite sides
+            final boolean leftSide = ((cellLatitude + cellLongitude) & 1) == 0;
+            route = new Route(transportationMode, buildWaypoints(origin, cellCenter, transportationMode, leftSide));
+            cache.put(key, route);
+        } else {
+            hits++;
+        }
+        return route;
+    }
+
+    /**
+     * Returns a cursor following the route from an origin to a destination.
+     * @param origin
+     * Starting coordinates.
+     * @param destination
+     * Exact coordinates to go to.
+     * @param transportationMode
+     * Mode of transportation.
+     * @return
+     * A cursor at the origin.
+     */
+    public RouteCursor follow(Coordinates origin, Coordinates destination, TransportationMode transportationMode) {
+        return getRoute(origin, destination, transportationMode).follow(destination);
+    }
+
+    /**
+     * @return
+     * Number of routes currently cached.
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return
+     * Number of routes found in the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return
+     * Number of routes that had to be built.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static List<Coordinates> buildWaypoints(Coordinates origin, Coordinates target, TransportationMode mode,
+                                                    boolean leftSide) {
+        final List<Coordinates> waypoints = new ArrayList<>();
+        waypoints.add(new Coordinates(origin));
+        switch (mode) {
+            case WATER:
+                addRhumbLine(waypoints, origin, target);
+                break;
+            case LAND_RAIL:
+                final Coordinates junction = new Coordinates(origin.getLatitude(), target.getLongitude());
+                addParallel(waypoints, origin, junction);
+                waypoints.add(junction);
+                break;
+            case LAND_ROAD:
+                final double distance = Coordinates.calculateDistance(origin, target);
+                final Coordinates middle = Coordinates.moveTowards(origin, target, distance / 2);
+                final double side = leftSide ? -Math.PI / 2 : Math.PI / 2;
+                waypoints.add(Coordinates.applyBearing(middle, Coordinates.calculateBearing(middle, target) + side,
+                        distance * ROAD_DETOUR_RATIO));
+                break;
+            default:
+                break;
+        }
+        waypoints.add(target);
+        return waypoints;
+    }
+
+    /**
+     * Adds the waypoints of the rhumb line between two coordinates, which is a straight line on a Mercator map.
+     */
+    private static void addRhumbLine(List<Coordinates> waypoints, Coordinates from, Coordinates to) {
+        final double y1 = mercatorY(from.getLatitude());
+        final double y2 = mercatorY(to.getLatitude());
+        double dLon = to.getLongitude() - from.getLongitude();
+        if (Math.abs(dLon) > 180)
+            dLon -= Math.signum(dLon) * 360;
+        final int steps = steps(from, to);
+        for (int i = 1; i < steps; i++) {
+            final double ratio = (double) i / steps;
+            final double latitude = Math.toDegrees(2 * Math.atan(Math.exp(y1 + (y2 - y1) * ratio)) - Math.PI / 2);
+            waypoints.add(new Coordinates((float) latitude, (float) normalizeLongitude(from.getLongitude() + dLon * ratio)));
+        }
+    }
+
+    /**
+     * Adds the waypoints along the parallel of the first coordinates, up to the longitude of the second.
+     */
+    private static void addParallel(List<Coordinates> waypoints, Coordinates from, Coordinates to) {
+        double dLon = to.getLongitude() - from.getLongitude();
+        if (Math.abs(dLon) > 180)
+            dLon -= Math.signum(dLon) * 360;
+        final int steps = steps(from, to);
+        for (int i = 1; i < steps; i++)
+            waypoints.add(new Coordinates(from.getLatitude(),
+                    (float) normalizeLongitude(from.getLongitude() + dLon * i / steps)));
+    }
+
+    private static int steps(Coordinates from, Coordinates to) {
+        return Math.max(1, (int) Math.ceil(Coordinates.calculateDistance(from, to) / WAYPOINT_SPACING_IN_KM));
+    }
+
+    private static double mercatorY(float latitude) {
+        final double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        return Math.log(Math.tan(Math.PI / 4 + Math.toRadians(clamped) / 2));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        return (longitude + 540) % 360 - 180;
+    }
+
+    /**
+     * Key of the cache: origin, destination cell and mode.
+     */
+    private static final class RouteKey {
+
+        private final float originLatitude;
+        private final float originLongitude;
+        private final int cellLatitude;
+        private final int cellLongitude;
+        private final TransportationMode transportationMode;
+
+        RouteKey(float originLatitude, float originLongitude, int cellLatitude, int cellLongitude,
+                 TransportationMode transportationMode) {
+            this.originLatitude = originLatitude;
+            this.originLongitude = originLongitude;
+            this.cellLatitude = cellLatitude;
+            this.cellLongitude = cellLongitude;
+            this.transportationMode = transportationMode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RouteKey that = (RouteKey) o;
+            return Float.compare(that.originLatitude, originLatitude) == 0 &&
+                    Float.compare(that.originLongitude, originLongitude) == 0 &&
+                    cellLatitude == that.cellLatitude && cellLongitude == that.cellLongitude &&
+                    transportationMode == that.transportationMode;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Float.floatToIntBits(originLatitude);
+            result = 31 * result + Float.floatToIntBits(originLongitude);
+            result = 31 * result + cellLatitude;
+            result = 31 * result + cellLongitude;
+            result = 31 * result + transportationMode.hashCode();
+            return result;
+        }
+    }
+}
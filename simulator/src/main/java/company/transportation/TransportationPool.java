@@ -0,0 +1,173 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.transportation;
+
+import java.util.*;
+
+/**
+ * Available transportation of a company, kept in free lists by mode and health state so that finding, taking and
+ * giving back a transportation does not go through the whole fleet.
+ *
+ * The health state of a transportation may be changed without telling the pool. Such a transportation is moved to the
+ * right list when it is found in the wrong one, and transportation that is not available anymore is dropped.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Transportation
+ */
+public class TransportationPool {
+
+    private static final TransportationMode[] MODES = TransportationMode.values();
+    private static final TransportationHealthState[] HEALTH_STATES = TransportationHealthState.values();
+
+    /** Free lists, by mode and then health state ordinals. **/
+    private final LinkedHashSet<Transportation>[][] free;
+    /** List each transportation is in. **/
+    private final Map<Transportation, LinkedHashSet<Transportation>> lists = new IdentityHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public TransportationPool() {
+        free = new LinkedHashSet[MODES.length][HEALTH_STATES.length];
+        for (LinkedHashSet<Transportation>[] byHealth : free)
+            for (int health = 0; health < byHealth.length; health++)
+                byHealth[health] = new LinkedHashSet<>();
+    }
+
+    /**
+     * Puts a transportation in the pool if it is available.
+     */
+    public synchronized void release(Transportation transportation) {
+        remove(transportation);
+        if (!transportation.isAvailable())
+            return;
+        final LinkedHashSet<Transportation> list = listOf(transportation);
+        list.add(transportation);
+        lists.put(transportation, list);
+    }
+
+    /**
+     * Takes a transportation out of the pool, because it has been assigned or deleted.
+     * @return
+     * True if the transportation was in the pool.
+     */
+    public synchronized boolean remove(Transportation transportation) {
+        final LinkedHashSet<Transportation> list = lists.remove(transportation);
+        return list != null && list.remove(transportation);
+    }
+
+    /**
+     * Files a transportation again after its health state changed.
+     */
+    public synchronized void update(Transportation transportation) {
+        if (lists.containsKey(transportation))
+            release(transportation);
+    }
+
+    /**
+     * @return
+     * The healthiest available transportation of any mode, left in the pool.
+     */
+    public synchronized Optional<Transportation> find() {
+        for (TransportationHealthState health : HEALTH_STATES)
+            for (TransportationMode mode : MODES) {
+                final Transportation transportation = first(mode, health);
+                if (transportation != null)
+                    return Optional.of(transportation);
+            }
+        return Optional.empty();
+    }
+
+    /**
+     * @param mode
+     * Mode of transportation wanted.
+     * @param worstHealth
+     * Worst health state accepted.
+     * @return
+     * The healthiest available transportation of the mode, left in the pool.
+     */
+    public synchronized Optional<Transportation> find(TransportationMode mode, TransportationHealthState worstHealth) {
+        for (int health = 0; health <= worstHealth.ordinal(); health++) {
+            final Transportation transportation = first(mode, HEALTH_STATES[health]);
+            if (transportation != null)
+                return Optional.of(transportation);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return
+     * Every available transportation, healthiest first.
+     */
+    public synchronized List<Transportation> getAll() {
+        for (TransportationHealthState health : HEALTH_STATES)
+            for (TransportationMode mode : MODES)
+                clean(mode, health);
+        final List<Transportation> all = new ArrayList<>(lists.size());
+        for (TransportationHealthState health : HEALTH_STATES)
+            for (TransportationMode mode : MODES)
+                all.addAll(free[mode.ordinal()][health.ordinal()]);
+        return all;
+    }
+
+    /**
+     * @return
+     * Number of transportation in the pool, including transportation that will be dropped as not available anymore.
+     */
+    public synchronized int size() {
+        return lists.size();
+    }
+
+    /**
+     * @return
+     * Number of transportation of a mode in the pool, see size().
+     */
+    public synchronized int size(TransportationMode mode) {
+        int size = 0;
+        for (LinkedHashSet<Transportation> list : free[mode.ordinal()])
+            size += list.size();
+        return size;
+    }
+
+    /**
+     * Returns the first transportation of a list, moving the misplaced ones met on the way. Each one is moved once, so
+     * this is O(1) amortized.
+     */
+    private Transportation first(TransportationMode mode, TransportationHealthState health) {
+        final LinkedHashSet<Transportation> list = free[mode.ordinal()][health.ordinal()];
+        while (!list.isEmpty()) {
+            final Transportation transportation = list.iterator().next();
+            if (transportation.isAvailable() && transportation.getHealthState() == health)
+                return transportation;
+            release(transportation);
+        }
+        return null;
+    }
+
+    /**
+     * Moves the transportation that is not where it belongs anymore out of a list.
+     */
+    private void clean(TransportationMode mode, TransportationHealthState health) {
+        final LinkedHashSet<Transportation> list = free[mode.ordinal()][health.ordinal()];
+        final List<Transportation> misplaced = new ArrayList<>();
+        for (Transportation transportation : list)
+            if (!transportation.isAvailable() || transportation.getHealthState() != health)
+                misplaced.add(transportation);
+        misplaced.forEach(this::release);
+    }
+
+    private LinkedHashSet<Transportation> listOf(Transportation transportation) {
+        return free[transportation.getTransportationMode().ordinal()][transportation.getHealthState().ordinal()];
+    }
+}
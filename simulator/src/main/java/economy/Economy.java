@@ -37,6 +37,16 @@ public class Economy {
         this.demand = demand;
     }
 
+    /**
+     * Used to copy an economy.
+     * @param economyToCopy
+     * Economy to copy.
+     */
+    public Economy(Economy economyToCopy) {
+        this(economyToCopy.growth, economyToCopy.sectorConcurrency, economyToCopy.upheavalLikelihood,
+                economyToCopy.demand);
+    }
+
     public Economy() {
         this.setGrowth(0);
         this.setDemand(0.5f);
@@ -0,0 +1,158 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.events;
+
+import java.util.PriorityQueue;
+
+/**
+ * Events scheduled at instants of virtual time, run in chronological order. Virtual time only moves from one event to
+ * the next, so periods where nothing happens cost nothing. Events scheduled at the same instant run in the order they
+ * were scheduled.
+ *
+ * Virtual time is counted in hours, the time unit of the runners. The queue is meant to be used by a single thread.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class EventQueue {
+
+    private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>();
+    private double time;
+    private long sequence;
+    private long processedEvents;
+
+    /**
+     * Schedules an event after a delay.
+     * @param delayInHours
+     * Virtual time between now and the event. Must not be negative.
+     * @param action
+     * What happens at the event.
+     * @return
+     * The scheduled event, which can be cancelled.
+     */
+    public ScheduledEvent schedule(double delayInHours, Runnable action) {
+        if (delayInHours < 0 || Double.isNaN(delayInHours))
+            throw new IllegalArgumentException("Invalid delay: " + delayInHours);
+        final ScheduledEvent event = new ScheduledEvent(time + delayInHours, sequence++, action);
+        // An event that never happens is not worth keeping
+        if (!Double.isInfinite(event.time))
+            events.add(event);
+        return event;
+    }
+
+    /**
+     * Runs the next event, moving virtual time to it. Cancelled events are skipped.
+     * @return
+     * False if there was no event left.
+     */
+    public boolean step() {
+        ScheduledEvent event;
+        do {
+            event = events.poll();
+            if (event == null)
+                return false;
+        } while (event.cancelled);
+        time = event.time;
+        processedEvents++;
+        event.action.run();
+        return true;
+    }
+
+    /**
+     * Runs every event up to a given instant, included, then moves virtual time to that instant.
+     * @param endTime
+     * Instant to stop at, in hours.
+     * @return
+     * Number of events run.
+     */
+    public long runUntil(double endTime) {
+        final long processedBefore = processedEvents;
+        ScheduledEvent next;
+        while ((next = events.peek()) != null && next.time <= endTime) {
+            if (next.cancelled)
+                events.poll();
+            else
+                step();
+        }
+        time = Math.max(time, endTime);
+        return processedEvents - processedBefore;
+    }
+
+    /**
+     * @return
+     * Current virtual time, in hours.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return
+     * Number of scheduled events, including cancelled ones not yet dropped.
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @return
+     * Number of events run so far.
+     */
+    public long getProcessedEvents() {
+        return processedEvents;
+    }
+
+    /**
+     * An action at an instant of virtual time.
+     */
+    public static final class ScheduledEvent implements Comparable<ScheduledEvent> {
+
+        private final double time;
+        private final long sequence;
+        private final Runnable action;
+        private boolean cancelled;
+
+        private ScheduledEvent(double time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        /**
+         * Prevents the event from happening. Cancelled events are dropped when they reach the head of the queue.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return
+         * Instant of the event, in hours.
+         */
+        public double getTime() {
+            return time;
+        }
+
+        @Override
+        public int compareTo(ScheduledEvent other) {
+            final int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.generators;
+
+import company.address.Address;
+import company.address.Coordinates;
+import company.customer.Customer;
+import company.product.Product;
+import company.product.ProductType;
+import company.transportation.Transportation;
+import company.transportation.TransportationMode;
+
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Generates large amounts of customers, products and transportation quickly.
+ *
+ * Text values are picked from pools filled once by Faker. Items are generated in parallel on the common fork-join
+ * pool, by partitions of fixed size, each one with its own SplittableRandom split from the seed beforehand. The
+ * partitions write to distinct parts of the result array, which is safely published when the parallel stream ends.
+ *
+ * The same seed and the same sequence of calls give the same data, whatever the number of threads. Ids of the items
+ * are not part of it, as they are allocated by the threads. Calls must not be made by several threads at once.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see DataGenerator
+ */
+public class BulkDataGenerator {
+
+    public static final int DEFAULT_POOL_SIZE = 1000;
+    /** Number of items generated by a task. Not tied to the number of threads, for the results to be reproducible. **/
+    private static final int PARTITION_SIZE = 8192;
+    private static final TransportationMode[] TRANSPORTATION_MODES = TransportationMode.values();
+
+    private final SplittableRandom random;
+    private final FakerPools pools;
+    private long emailCounter;
+
+    public BulkDataGenerator(long seed) {
+        this(seed, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param seed
+     * Seed of all the generated data.
+     * @param poolSize
+     * Number of distinct values of each text pool (first names, cities, etc).
+     */
+    public BulkDataGenerator(long seed, int poolSize) {
+        if (poolSize <= 0)
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        this.random = new SplittableRandom(seed);
+        this.pools = new FakerPools(random.nextLong(), poolSize);
+    }
+
+    /**
+     * Generates customers living anywhere in the world.
+     * @param count
+     * Number of customers.
+     * @return
+     * The customers.
+     */
+    public Customer[] generateCustomers(int count) {
+        // Makes email addresses unique across calls
+        final long firstEmail = emailCounter;
+        emailCounter += count;
+        return generate(count, Customer[]::new, (rng, i) -> {
+            final int first = rng.nextInt(pools.firstNames.length);
+            final int last = rng.nextInt(pools.lastNames.length);
+            final int place = rng.nextInt(pools.cities.length);
+            final Address address = new Address(pools.streets[place], pools.cities[place], pools.states[place],
+                    pools.countries[place], pools.zipCodes[place],
+                    new Coordinates((float) (rng.nextDouble() * 180 - 90), (float) (rng.nextDouble() * 360 - 180)));
+            final String email = pools.emailFirstNames[first] + '.' + pools.emailLastNames[last] + (firstEmail + i) +
+                    '@' + pools.emailDomains[rng.nextInt(pools.emailDomains.length)];
+            return new Customer(pools.firstNames[first], pools.lastNames[last], address, email,
+                    pools.phoneNumbers[rng.nextInt(pools.phoneNumbers.length)]);
+        });
+    }
+
+    /**
+     * Generates types of product, as DataGenerator.generateRandomProductType does.
+     * @param count
+     * Number of types.
+     * @return
+     * The types of product.
+     */
+    public ProductType[] generateProductTypes(int count) {
+        return generate(count, ProductType[]::new, (rng, i) -> new ProductType(
+                pools.productNames[rng.nextInt(pools.productNames.length)],
+                pools.countries[rng.nextInt(pools.countries.length)],
+                (float) (rng.nextDouble() * 1000), (float) Math.log(rng.nextDouble() * 10000 + 1), rng.nextBoolean()));
+    }
+
+    /**
+     * Generates products of a given type.
+     * @param productType
+     * Type of the products.
+     * @param count
+     * Number of products.
+     * @param location
+     * Location of the products, shared by all of them.
+     * @return
+     * The products.
+     */
+    public Product[] generateProducts(ProductType productType, int count, Coordinates location) {
+        return generate(count, Product[]::new, (rng, i) -> new Product(productType, location));
+    }
+
+    /**
+     * Generates transportation of random modes, as DataGenerator.generateRandomTransportation does.
+     * @param count
+     * Number of transportation.
+     * @return
+     * The transportation.
+     */
+    public Transportation[] generateTransportation(int count) {
+        return generate(count, Transportation[]::new, (rng, i) -> DataGenerator.generateTransportation(
+                TRANSPORTATION_MODES[rng.nextInt(TRANSPORTATION_MODES.length)], rng.nextDouble(), rng.nextDouble()));
+    }
+
+    private <T> T[] generate(int count, IntFunction<T[]> arrayFactory, ItemFactory<T> factory) {
+        if (count < 0)
+            throw new IllegalArgumentException("Negative count: " + count);
+        final T[] items = arrayFactory.apply(count);
+        final int partitions = (count + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        // Split in order before going parallel, so that each partition always gets the same generator
+        final SplittableRandom[] randoms = new SplittableRandom[partitions];
+        for (int partition = 0; partition < partitions; partition++)
+            randoms[partition] = random.split();
+        IntStream.range(0, partitions).parallel().forEach(partition -> {
+            final SplittableRandom rng = randoms[partition];
+            final int end = Math.min(count, (partition + 1) * PARTITION_SIZE);
+            for (int i = partition * PARTITION_SIZE; i < end; i++)
+                items[i] = factory.create(rng, i);
+        });
+        return items;
+    }
+
+    /**
+     * Creates the item at a given index of the result.
+     */
+    @FunctionalInterface
+    private interface ItemFactory<T> {
+        T create(SplittableRandom random, int index);
+    }
+}
@@ -16,6 +16,7 @@ package simulation.generators;
 
 import company.company.Company;
 import company.company.CompanyType;
+import company.company.InventoryMode;
 import org.slf4j.LoggerFactory;
 
 import java.util.Random;
@@ -65,6 +66,44 @@ public class CompanyGenerator {
         return makeCompany(CompanyType.INTERNATIONAL);
     }
 
+    /**
+     * Generates a company of the given type, storing its products as specified.
+     * @param companyType
+     * Type of the company.
+     * @param inventoryMode
+     * How the company stores its products.
+     * @return
+     * Newly generated company.
+     */
+    public static Company generateCompany(CompanyType companyType, InventoryMode inventoryMode) {
+        Company company = new Company(companyType,generateRandomCompanyName(),
+                AddressGenerator.generateInternationalAddress(),inventoryMode);
+        new DataGenerator(company).generateData();
+        return company;
+    }
+
+    /**
+     * Generates a company of the given type with the amounts of data of a profile, for instance a scaled stress
+     * profile. The same seed gives the same data.
+     * @param companyType
+     * Type of the company.
+     * @param inventoryMode
+     * How the company stores its products.
+     * @param profile
+     * Amounts of data to generate.
+     * @param seed
+     * Seed of the data.
+     * @return
+     * Newly generated company.
+     */
+    public static Company generateCompany(CompanyType companyType, InventoryMode inventoryMode,
+                                          GenerationProfile profile, long seed) {
+        Company company = new Company(companyType,generateRandomCompanyName(),
+                AddressGenerator.generateInternationalAddress(),inventoryMode);
+        new DataGenerator(company, seed, profile).generateData();
+        return company;
+    }
+
     /**
      * Generates a company of random type without data.
      * @return
@@ -75,9 +114,7 @@ public class CompanyGenerator {
     }
 
     private static Company makeCompany(CompanyType companyType) {
-        Company company = new Company(companyType,generateRandomCompanyName(),AddressGenerator.generateInternationalAddress());
-        new DataGenerator(company).generateData();
-        return company;
+        return generateCompany(companyType, InventoryMode.OBJECTS);
     }
 
     private static CompanyType generateRandomCompanyType() {
@@ -18,6 +18,7 @@ import com.github.javafaker.Faker;
 import com.github.javafaker.Name;
 import company.address.Address;
 import company.company.Company;
+import company.company.InventoryMode;
 import company.customer.Customer;
 import company.delivery.Delivery;
 import company.order.Order;
@@ -27,9 +28,6 @@ import company.transportation.Transportation;
 import company.transportation.TransportationMode;
 
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Created by Arthur Deschamps on 01.06.17.
@@ -39,6 +37,12 @@ public final class DataGenerator {
 
     private Company company;
     private static final Random random = new Random();
+    /** Items generated at once, and then added to the company, to bound the memory used by generation. **/
+    private static final int CHUNK_SIZE = 65536;
+    /** Draws the amounts of generated data. **/
+    private final Random sizes;
+    private final BulkDataGenerator bulkDataGenerator;
+    private final GenerationProfile profile;
 
     /**
      * DataGenerator allows to create fake data for a company.
@@ -46,7 +50,34 @@ public final class DataGenerator {
      * Company to fill the data with.
      */
     public DataGenerator(Company company) {
+        this(company, random.nextLong());
+    }
+
+    /**
+     * DataGenerator allows to create fake data for a company, the same seed filling the company with the same data.
+     * @param company
+     * Company to fill the data with.
+     * @param seed
+     * Seed of the data.
+     */
+    public DataGenerator(Company company, long seed) {
+        this(company, seed, GenerationProfile.of(company.getType()));
+    }
+
+    /**
+     * DataGenerator allows to create fake data for a company, in amounts given by a profile.
+     * @param company
+     * Company to fill the data with.
+     * @param seed
+     * Seed of the data.
+     * @param profile
+     * Amounts of data to generate.
+     */
+    public DataGenerator(Company company, long seed, GenerationProfile profile) {
         this.company = company;
+        this.sizes = new Random(seed);
+        this.bulkDataGenerator = new BulkDataGenerator(seed);
+        this.profile = profile;
     }
 
     /**
@@ -151,25 +182,40 @@ public final class DataGenerator {
      * The newly generated transportation.
      */
     public static Transportation generateRandomTransportation() {
-        TransportationMode transportationMode = TransportationMode.randomTransportationMode();
+        return generateTransportation(TransportationMode.randomTransportationMode(), Math.random(), Math.random());
+    }
+
+    /**
+     * Generates a transportation of a given mode.
+     * @param transportationMode
+     * Mode of the transportation.
+     * @param speedRandom
+     * Random number in [0, 1) choosing the speed within the range of the mode.
+     * @param capacityRandom
+     * Random number in [0, 1) choosing the capacity within the range of the mode.
+     * @return
+     * The newly generated transportation.
+     */
+    static Transportation generateTransportation(TransportationMode transportationMode, double speedRandom,
+                                                 double capacityRandom) {
         int maxSpeed;
         float capacity;
         switch (transportationMode) {
             case WATER:
-                maxSpeed = (int) (Math.random()*20 + 30);
-                capacity = (int) (Math.random()*15000 + 10000);
+                maxSpeed = (int) (speedRandom*20 + 30);
+                capacity = (int) (capacityRandom*15000 + 10000);
                 break;
             case LAND_ROAD:
-                maxSpeed = (int) (Math.random()*50 + 100);
-                capacity = (int) (Math.random()*5000+2000);
+                maxSpeed = (int) (speedRandom*50 + 100);
+                capacity = (int) (capacityRandom*5000+2000);
                 break;
             case LAND_RAIL:
-                maxSpeed = (int) (Math.random()*200 + 150);
-                capacity = (int) (Math.random()*5000 + 5000);
+                maxSpeed = (int) (speedRandom*200 + 150);
+                capacity = (int) (capacityRandom*5000 + 5000);
                 break;
             case AIR:
-                maxSpeed = (int) (Math.random()*100 + 350);
-                capacity = (int) (Math.random()*3000 + 1000);
+                maxSpeed = (int) (speedRandom*100 + 350);
+                capacity = (int) (capacityRandom*3000 + 1000);
                 break;
             default:
                 capacity = 500;
@@ -191,118 +237,44 @@ public final class DataGenerator {
         generateCustomers();
     }
 
-    private  void generateProductTypes() {
-        int nbrProductTypes;
-        switch (company.getType()) {
-            case LOCAL:
-                // From 10 to 20
-                nbrProductTypes = random.nextInt(10)+10;
-                break;
-            case NATIONAL:
-                // From 50 to 100
-                nbrProductTypes = random.nextInt(50)+50;
-                break;
-            case INTERNATIONAL:
-                // From 100 to 200
-                nbrProductTypes = random.nextInt(100)+100;
-                break;
-            default:
-                nbrProductTypes = 20;
-                break;
-        }
-
-        for (int i = 0; i < nbrProductTypes; i++)
-            company.newProductType(generateRandomProductType());
+    private void generateProductTypes() {
+        for (ProductType productType : bulkDataGenerator.generateProductTypes(profile.drawProductTypes(sizes)))
+            company.newProductType(productType);
     }
 
-    private  void generateProducts() {
-        int nbrProducts;
-        switch (company.getType()) {
-            case LOCAL:
-                nbrProducts = random.nextInt(60)+40;
-                break;
-            case NATIONAL:
-                nbrProducts = random.nextInt(300)+200;
-                break;
-            case INTERNATIONAL:
-                nbrProducts = random.nextInt(1000)+1000;
-                break;
-            default:
-                nbrProducts = 100;
-                break;
-        }
-
+    private void generateProducts() {
+        final int nbrProducts = profile.drawProducts(sizes);
+        final boolean objects = company.getInventoryMode() == InventoryMode.OBJECTS;
         for (final ProductType productType : company.getProductTypes()) {
-            // Product type base price influences the initial stock (the more expensive, the less quantity)
-            for (int i = 0; i < (int) (nbrProducts * (100.0f / productType.getBasePrice())); i++)
-                company.newProduct(this.generateProductFromProductType(productType));
+            // Types costing more than 100 get less stock. Cheaper types get the base stock of the profile, no more
+            final int quantity = (int) (nbrProducts * Math.min(1, 100.0 / productType.getBasePrice()));
+            // Other inventory modes store quantities without creating products
+            if (objects)
+                for (int generated = 0; generated < quantity; generated += CHUNK_SIZE)
+                    for (Product product : bulkDataGenerator.generateProducts(productType,
+                            Math.min(CHUNK_SIZE, quantity - generated), company.getHeadquarters().getCoordinates()))
+                        company.newProduct(product);
+            else
+                company.newProducts(productType, quantity);
         }
     }
 
-    private  void generateTransportation() {
-        int nbrTransportation;
-        switch (company.getType()) {
-            case LOCAL:
-                nbrTransportation = random.nextInt(5)+5;
-                break;
-            case NATIONAL:
-                nbrTransportation = random.nextInt(50)+50;
-                break;
-            case INTERNATIONAL:
-                nbrTransportation = random.nextInt(500)+500;
-                break;
-            default:
-                nbrTransportation = 50;
-                break;
-        }
-
-        for (int i = 0; i < nbrTransportation; i++)
-            company.newTransportation(generateRandomTransportation());
+    private void generateTransportation() {
+        final int nbrTransportation = profile.drawTransportation(sizes);
+        for (Transportation transportation : bulkDataGenerator.generateTransportation(nbrTransportation))
+            company.newTransportation(transportation);
     }
 
     /**
-     * Generates customers for the company.
-     * This method is delicate in terms of performance and might take long for big amounts of customers.
+     * Generates customers for the company. Customers are generated in parallel by chunks, each chunk being added to
+     * the company before the next one is generated.
      */
     private void generateCustomers() {
-        int nbrCustomers;
-        switch (company.getType()) {
-            case LOCAL:
-                nbrCustomers = random.nextInt(50)+50;
-                break;
-            case NATIONAL:
-                nbrCustomers = random.nextInt(2000)+700;
-                break;
-            case INTERNATIONAL:
-                nbrCustomers = random.nextInt(5000)+5000;
-                break;
-            default:
-                nbrCustomers = 1000;
-                break;
-        }
-
-        // We make use of multi-threading in order to speed up the process, which might be very long otherwise.
-        final int nbrThreads = 100;
-        Set<Customer> customers = new HashSet<>(nbrCustomers);
-        final ExecutorService executorService = Executors.newScheduledThreadPool(nbrThreads);
-        Collection<Callable<Void>> tasks = new ArrayList<>(nbrCustomers);
-        Callable<Void> addUser = () -> {
-            customers.add(generateRandomCustomer());
-            return null;
-        };
-
-        for (int i = 0; i < nbrCustomers; i++)
-            tasks.add(addUser);
-
-        try {
-            // Executes everything in a blocking way
-            executorService.invokeAll(tasks);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        final int nbrCustomers = profile.drawCustomers(sizes);
+        for (int generated = 0; generated < nbrCustomers; generated += CHUNK_SIZE) {
+            final int chunk = Math.min(CHUNK_SIZE, nbrCustomers - generated);
+            for (Customer customer : bulkDataGenerator.generateCustomers(chunk))
+                company.newCustomer(customer);
         }
-
-        executorService.shutdown();
-        company.getCustomerStore().setStorage(customers);
     }
-
 }
@@ -0,0 +1,87 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.generators;
+
+import com.github.javafaker.Address;
+import com.github.javafaker.Name;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Values produced by Faker once and then picked at random, since calling Faker for every generated item is slow.
+ * The arrays are filled at construction and only read afterwards, so they can be shared by threads.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see BulkDataGenerator
+ */
+final class FakerPools {
+
+    final String[] firstNames;
+    final String[] lastNames;
+    /** Lower case names, used to build email addresses. **/
+    final String[] emailFirstNames;
+    final String[] emailLastNames;
+    final String[] emailDomains;
+    final String[] phoneNumbers;
+    final String[] streets;
+    final String[] cities;
+    final String[] states;
+    final String[] countries;
+    final String[] zipCodes;
+    final String[] productNames;
+
+    /**
+     * @param seed
+     * Seed of the Faker instance filling the pools.
+     * @param size
+     * Number of values of each pool.
+     */
+    FakerPools(long seed, int size) {
+        final com.github.javafaker.Faker faker = new com.github.javafaker.Faker(new Random(seed));
+        firstNames = new String[size];
+        lastNames = new String[size];
+        emailFirstNames = new String[size];
+        emailLastNames = new String[size];
+        emailDomains = new String[size];
+        phoneNumbers = new String[size];
+        streets = new String[size];
+        cities = new String[size];
+        states = new String[size];
+        countries = new String[size];
+        zipCodes = new String[size];
+        productNames = new String[size];
+        for (int i = 0; i < size; i++) {
+            final Name name = faker.name();
+            firstNames[i] = name.firstName();
+            lastNames[i] = name.lastName();
+            emailFirstNames[i] = emailPart(firstNames[i]);
+            emailLastNames[i] = emailPart(lastNames[i]);
+            emailDomains[i] = faker.internet().domainName();
+            phoneNumbers[i] = faker.phoneNumber().phoneNumber();
+            final Address address = faker.address();
+            streets[i] = address.streetAddress();
+            cities[i] = address.cityName();
+            states[i] = address.state();
+            countries[i] = address.country();
+            zipCodes[i] = address.zipCode();
+            productNames[i] = faker.commerce().productName();
+        }
+    }
+
+    private static String emailPart(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.generators;
+
+import company.company.CompanyType;
+
+import java.util.Random;
+
+/**
+ * Amounts of data generated for a company: types of product, products, transportation and customers. Each amount is
+ * drawn between a minimum (included) and a maximum (excluded).
+ *
+ * Every type of company has its profile, and profiles can be scaled to generate more or less data.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see DataGenerator
+ */
+public final class GenerationProfile {
+
+    private final Range productTypes;
+    /** Stock of a type of product, lowered for types costing more than 100. Bounds the stock of the company. **/
+    private final Range products;
+    private final Range transportation;
+    private final Range customers;
+
+    private GenerationProfile(Range productTypes, Range products, Range transportation, Range customers) {
+        this.productTypes = productTypes;
+        this.products = products;
+        this.transportation = transportation;
+        this.customers = customers;
+    }
+
+    /**
+     * @param companyType
+     * Type of company.
+     * @return
+     * The profile of the type of company.
+     */
+    public static GenerationProfile of(CompanyType companyType) {
+        switch (companyType) {
+            case LOCAL:
+                return new GenerationProfile(new Range(10, 20), new Range(40, 100), new Range(5, 10),
+                        new Range(50, 100));
+            case NATIONAL:
+                return new GenerationProfile(new Range(50, 100), new Range(200, 500), new Range(50, 100),
+                        new Range(700, 2700));
+            case INTERNATIONAL:
+                return new GenerationProfile(new Range(100, 200), new Range(1000, 2000), new Range(500, 1000),
+                        new Range(5000, 10000));
+            case GLOBAL_1M:
+                // About 1.5 million units of stock
+                return new GenerationProfile(new Range(1000, 2000), new Range(2000, 4000), new Range(10000, 20000),
+                        new Range(1000000, 1000001));
+            case GLOBAL_10M:
+                // About 15 million units of stock
+                return new GenerationProfile(new Range(5000, 10000), new Range(4000, 8000),
+                        new Range(100000, 200000), new Range(10000000, 10000001));
+            default:
+                return new GenerationProfile(new Range(20, 21), new Range(100, 101), new Range(50, 51),
+                        new Range(1000, 1001));
+        }
+    }
+
+    /**
+     * Multiplies the amounts of data.
+     * @param customersFactor
+     * Factor of the number of customers.
+     * @param productsFactor
+     * Factor of the stock of each type of product.
+     * @param transportationFactor
+     * Factor of the size of the fleet.
+     * @param productTypesFactor
+     * Factor of the number of types of product.
+     * @return
+     * The scaled profile.
+     */
+    public GenerationProfile scale(double customersFactor, double productsFactor, double transportationFactor,
+                                   double productTypesFactor) {
+        return new GenerationProfile(productTypes.scale(productTypesFactor), products.scale(productsFactor),
+                transportation.scale(transportationFactor), customers.scale(customersFactor));
+    }
+
+    int drawProductTypes(Random random) {
+        return productTypes.draw(random);
+    }
+
+    /**
+     * @return
+     * Largest stock the company can be generated with: every type at its largest base stock.
+     */
+    public long getMaxProducts() {
+        return (long) (productTypes.max - 1) * (products.max - 1);
+    }
+
+    int drawProducts(Random random) {
+        return products.draw(random);
+    }
+
+    int drawTransportation(Random random) {
+        return transportation.draw(random);
+    }
+
+    int drawCustomers(Random random) {
+        return customers.draw(random);
+    }
+
+    /**
+     * @return
+     * Largest number of customers generated.
+     */
+    public int getMaxCustomers() {
+        return customers.max - 1;
+    }
+
+    /**
+     * Integers from min (included) to max (excluded).
+     */
+    private static final class Range {
+
+        private final int min;
+        private final int max;
+
+        Range(int min, int max) {
+            this.min = min;
+            this.max = Math.max(max, min + 1);
+        }
+
+        Range scale(double factor) {
+            if (factor < 0)
+                throw new IllegalArgumentException("Negative scale factor: " + factor);
+            return new Range((int) Math.min(min * factor, Integer.MAX_VALUE - 1),
+                    (int) Math.min(max * factor, Integer.MAX_VALUE));
+        }
+
+        int draw(Random random) {
+            return min + random.nextInt(max - min);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.main;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import economy.Economy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.GenerationProfile;
+import simulation.simulators.DiscreteEventSimulator;
+import simulation.simulators.runners.CompanySimulatorRunner;
+import simulation.simulators.runners.EconomySimulatorRunner;
+import simulation.simulators.runners.TelemetryDataSimulatorRunner;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Headless simulation, run as fast as possible: virtual days are simulated back to back, without waiting between
+ * ticks, without Kapua and without the frontend app. Reports the throughput in simulated hours per second and the
+ * final state of the company.
+ *
+ * Arguments (all optional):
+ * <ul>
+ *     <li>--days N: number of virtual days to simulate (default 30);</li>
+ *     <li>--type TYPE: type of the generated company, see CompanyType (default LOCAL);</li>
+ *     <li>--inventory MODE: inventory mode of the generated company, see InventoryMode (default QUANTITY);</li>
+ *     <li>--seed N: seed of the generated company (default random);</li>
+ *     <li>--events: simulates event by event (see DiscreteEventSimulator) instead of hour by hour.</li>
+ * </ul>
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Simulation
+ */
+public class BatchSimulation {
+
+    private static final int DEFAULT_DAYS = 30;
+    /** Progress is logged every that many virtual days. **/
+    private static final int PROGRESS_DAYS = 30;
+
+    private final Company company;
+    private final Economy economy;
+    private final boolean eventDriven;
+    private final Logger logger = LoggerFactory.getLogger(BatchSimulation.class);
+
+    /**
+     * @param company
+     * Company to simulate.
+     * @param economy
+     * Economy the company evolves in.
+     * @param eventDriven
+     * If true, the company is simulated event by event, otherwise hour by hour as by SupplyChainControlSimulator.
+     */
+    public BatchSimulation(Company company, Economy economy, boolean eventDriven) {
+        this.company = company;
+        this.economy = economy;
+        this.eventDriven = eventDriven;
+    }
+
+    public static void main(String[] args) {
+        int days = DEFAULT_DAYS;
+        CompanyType companyType = CompanyType.LOCAL;
+        InventoryMode inventoryMode = InventoryMode.QUANTITY;
+        long seed = new Random().nextLong();
+        boolean eventDriven = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--days":
+                    days = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--type":
+                    companyType = CompanyType.valueOf(value(args, ++i));
+                    break;
+                case "--inventory":
+                    inventoryMode = InventoryMode.valueOf(value(args, ++i));
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value(args, ++i));
+                    break;
+                case "--events":
+                    eventDriven = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        final Logger logger = LoggerFactory.getLogger(BatchSimulation.class);
+        logger.info("Generating " + companyType + " company (seed " + seed + ")...");
+        final Company company = CompanyGenerator.generateCompany(companyType, inventoryMode,
+                GenerationProfile.of(companyType), seed);
+        final Report report = new BatchSimulation(company, new Economy(), eventDriven).run(days);
+        System.out.println(report);
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        return args[index];
+    }
+
+    /**
+     * Simulates virtual days without pause.
+     * @param days
+     * Number of virtual days.
+     * @return
+     * Throughput and final state.
+     */
+    public Report run(int days) {
+        if (days < 0)
+            throw new IllegalArgumentException("Negative number of days: " + days);
+        final long start = System.nanoTime();
+        long events = 0;
+        if (eventDriven) {
+            final DiscreteEventSimulator simulator = new DiscreteEventSimulator(company, economy);
+            for (int day = 0; day < days; day++) {
+                events += simulator.runFor(24);
+                logProgress(day + 1, start);
+            }
+            simulator.shutdown();
+        } else {
+            final EconomySimulatorRunner economySimulator = new EconomySimulatorRunner(economy);
+            final CompanySimulatorRunner companySimulator = new CompanySimulatorRunner(company, economy);
+            final TelemetryDataSimulatorRunner telemetrySimulator = new TelemetryDataSimulatorRunner(company);
+            for (int day = 0; day < days; day++) {
+                for (int hour = 0; hour < 24; hour++) {
+                    // Same tick as SupplyChainControlSimulator, without the snapshots nobody reads
+                    economySimulator.run();
+                    companySimulator.run();
+                    telemetrySimulator.run();
+                    company.archiveDeliveries();
+                }
+                events += 24;
+                logProgress(day + 1, start);
+            }
+        }
+        final long elapsed = System.nanoTime() - start;
+        return new Report(days * 24L, events, elapsed, company.publishSnapshot(economy).getStoresSizes(), economy);
+    }
+
+    private void logProgress(int day, long start) {
+        if (day % PROGRESS_DAYS == 0)
+            logger.info("Day " + day + ": " + String.format("%.1f", day * 24 / ((System.nanoTime() - start) / 1e9)) +
+                    " simulated hours per second");
+    }
+
+    /**
+     * Outcome of a batch simulation.
+     */
+    public static final class Report {
+
+        private final long simulatedHours;
+        private final long events;
+        private final long elapsedNanos;
+        private final Map<String, Integer> storesSizes;
+        private final Economy economy;
+
+        Report(long simulatedHours, long events, long elapsedNanos, Map<String, Integer> storesSizes, Economy economy) {
+            this.simulatedHours = simulatedHours;
+            this.events = events;
+            this.elapsedNanos = elapsedNanos;
+            this.storesSizes = storesSizes;
+            this.economy = new Economy(economy);
+        }
+
+        public long getSimulatedHours() {
+            return simulatedHours;
+        }
+
+        /**
+         * @return
+         * Number of events that happened, or of ticks when simulating hour by hour.
+         */
+        public long getEvents() {
+            return events;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return
+         * Simulated hours per second of real time.
+         */
+        public double getHoursPerSecond() {
+            return elapsedNanos == 0 ? Double.POSITIVE_INFINITY : simulatedHours / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @return
+         * Sizes of the stores of the company at the end, see CompanySnapshot.
+         */
+        public Map<String, Integer> getStoresSizes() {
+            return storesSizes;
+        }
+
+        /**
+         * @return
+         * Copy of the economy at the end.
+         */
+        public Economy getEconomy() {
+            return economy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Simulated %d hours in %.3f s: %.1f simulated hours per second (%d events)%n",
+                    simulatedHours, elapsedNanos / 1e9, getHoursPerSecond(), events) +
+                    "Products: " + storesSizes.get("products") + ", Types: " + storesSizes.get("productTypes") +
+                    ", Orders: " + storesSizes.get("orders") + ", Deliveries: " + storesSizes.get("deliveries") +
+                    " (archived: " + storesSizes.get("archivedDeliveries") + ")" +
+                    ", Transportation: " + storesSizes.get("transportation") +
+                    ", Customers: " + storesSizes.get("customers") + String.format("%n") +
+                    "Growth: " + economy.getGrowth() + ", Demand: " + economy.getDemand() +
+                    ", Sector concurrency: " + economy.getSectorConcurrency();
+        }
+    }
+}
@@ -16,11 +16,17 @@ package simulation.main;
 
 import company.company.Company;
 import company.company.CompanyType;
+import company.persistence.CompanyCheckpoint;
+import company.persistence.CompanyJournal;
 import economy.Economy;
 import simulation.generators.CompanyGenerator;
 import simulation.simulators.SupplyChainControlSimulator;
 import simulation.simulators.runners.AbstractRunner;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * The class allows to totally parametrize the whole simulation at will.
  * @author Arthur Deschamps
@@ -44,6 +50,13 @@ public class Parametrizer {
     private Economy economy;
     /** Company to use in the simulator. If null, a company is auto-generated and respect the criteria @withInitialData.**/
     private Company company;
+    /** File where the changes made to the company are recorded, see CompanyJournal. If null, changes are not recorded. **/
+    private Path journalFile;
+    /** If true, the journal is forced to the disk at the end of every tick. Ignored if journalFile is null. **/
+    private boolean journalSync;
+    /** File where the company is saved when the simulation starts, before the journal is started. If null, the company
+     * is not saved. Ignored if journalFile is null. **/
+    private Path checkpointFile;
     /** Simulation has to be accesible if parametrizer needs to restart it. **/
     private SupplyChainControlSimulator simulation;
 
@@ -60,6 +73,34 @@ public class Parametrizer {
         this.simulation = simulation;
     }
 
+    /**
+     * Default parametrizer, with the company and the economy saved in a checkpoint instead of generated ones. If a
+     * journal has been recorded since the checkpoint, it is replayed. The simulation will then save a new checkpoint
+     * and start a new journal.
+     * @param simulation
+     * The simulation.
+     * @param checkpointFile
+     * Checkpoint to start from.
+     * @param journalFile
+     * Journal recorded since the checkpoint. Can be null or not exist.
+     * @throws IOException
+     * If the checkpoint or the journal can't be read.
+     */
+    public Parametrizer(SupplyChainControlSimulator simulation, Path checkpointFile, Path journalFile) throws IOException {
+        this.timeFlow = 3600;
+        this.dataSendingDelay = 3;
+        this.displayMetrics = true;
+        this.displayMetricsDelay = 5;
+        final CompanyCheckpoint checkpoint = CompanyCheckpoint.load(checkpointFile);
+        this.company = checkpoint.getCompany();
+        this.economy = checkpoint.getEconomy() != null ? checkpoint.getEconomy() : new Economy();
+        if (journalFile != null && Files.exists(journalFile))
+            CompanyJournal.replay(journalFile, company);
+        this.checkpointFile = checkpointFile;
+        this.journalFile = journalFile;
+        this.simulation = simulation;
+    }
+
     /**
      * Converts the time flow to a delay in milliseconds to execute the runners
      * @return
@@ -123,4 +164,28 @@ public class Parametrizer {
     public Company getCompany() {
         return company;
     }
+
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    public void setJournalFile(Path journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    public boolean isJournalSync() {
+        return journalSync;
+    }
+
+    public void setJournalSync(boolean journalSync) {
+        this.journalSync = journalSync;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
 }
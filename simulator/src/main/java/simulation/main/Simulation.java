@@ -41,6 +41,10 @@ public class Simulation {
 
         // Comment the line below if you don't want the default parameters for the simulation
         Parametrizer parametrizer = new Parametrizer(simulation);
+        // Or replace it by the line below to start from a checkpoint (and the journal recorded since) instead of
+        // generating a company
+        // Parametrizer parametrizer = new Parametrizer(simulation, Paths.get("company.checkpoint"),
+        //         Paths.get("company.journal"));
 
         VirtualTime virtualTime = new VirtualTime(parametrizer);
 
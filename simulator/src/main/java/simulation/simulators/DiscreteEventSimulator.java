@@ -0,0 +1,338 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.simulators;
+
+import company.company.Company;
+import company.company.CompanyListener;
+import company.delivery.Delivery;
+import company.delivery.DeliveryConsolidator;
+import company.delivery.DeliveryStatus;
+import company.order.Order;
+import company.transportation.Transportation;
+import company.transportation.TransportationHealthState;
+import economy.Economy;
+import simulation.events.EventQueue;
+import simulation.simulators.company.CustomerSimulator;
+import simulation.simulators.company.OrderSimulator;
+import simulation.simulators.company.ProductSimulator;
+import simulation.simulators.company.TransportationSimulator;
+import simulation.simulators.runners.EconomySimulatorRunner;
+import simulation.simulators.telemetry.DeliveryMovementSimulator;
+import simulation.util.ProbabilityUtils;
+import storage.Item;
+import storage.ItemStore;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Simulates a company event by event instead of hour by hour.
+ *
+ * The hourly simulators go through every customer, order, delivery and transportation at each tick, to find out
+ * whether something happens to it. Here the next occurrence of each kind of event is drawn from the same rates and
+ * scheduled in an event queue, and virtual time jumps from one event to the next, so the work done is proportional
+ * to the number of events rather than to the number of items times the number of hours:
+ * <ul>
+ *     <li>orders of customers, transportation degradation and orders getting ready to be shipped happen to every
+ *     item at the same rate. Each kind is simulated as a single Poisson process, at the rate of one item times the
+ *     number of items, which picks the item at random when it fires;</li>
+ *     <li>a new delivery gets its shipping or its cancellation, whichever comes first, and a transportation in bad
+ *     state its destruction.</li>
+ * </ul>
+ * What cannot be drawn ahead still happens once an hour, as a recurring event: evolution of the economy, customers,
+ * products and fleet acquisitions (which depend on the economy), shipping of the orders that got ready during the
+ * hour, movement of the deliveries in transit and archiving.
+ *
+ * The simulator must be run by a single thread, and the company must not be modified by other threads meanwhile.
+ * Snapshots are not published.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see EventQueue
+ */
+public class DiscreteEventSimulator {
+
+    private final Company company;
+    private final Economy economy;
+    private final EventQueue events = new EventQueue();
+    private final ProbabilityUtils probabilityUtils = new ProbabilityUtils();
+    private final Random random;
+
+    private final EconomySimulatorRunner economySimulator;
+    private final CustomerSimulator customerSimulator;
+    private final ProductSimulator productSimulator;
+    private final TransportationSimulator transportationSimulator;
+    private final OrderSimulator orderSimulator;
+    private final DeliveryMovementSimulator movementSimulator;
+    private final DeliveryConsolidator consolidator = new DeliveryConsolidator();
+
+    private final List<Process<?>> processes = new ArrayList<>();
+    /** Orders that got ready since the last hour, shipped together. **/
+    private final Set<Order> readyOrders = new LinkedHashSet<>();
+    private final Set<Delivery> deliveriesInTransit = new LinkedHashSet<>();
+    private final Map<Transportation, EventQueue.ScheduledEvent> destructions = new HashMap<>();
+    private final CompanyListener listener;
+
+    public DiscreteEventSimulator(Company company, Economy economy) {
+        this(company, economy, new Random());
+    }
+
+    /**
+     * @param company
+     * Company to simulate.
+     * @param economy
+     * Economy the company evolves in.
+     * @param random
+     * Source of the times between events.
+     */
+    public DiscreteEventSimulator(Company company, Economy economy, Random random) {
+        this.company = company;
+        this.economy = economy;
+        this.random = random;
+        this.economySimulator = new EconomySimulatorRunner(economy);
+        this.customerSimulator = new CustomerSimulator(company, economy);
+        this.productSimulator = new ProductSimulator(company, economy);
+        this.transportationSimulator = new TransportationSimulator(company, economy);
+        this.orderSimulator = new OrderSimulator(company, economy);
+        this.movementSimulator = new DeliveryMovementSimulator(company);
+
+        // A customer buys a product on average once a month
+        processes.add(new Process<>(company.getCustomerStore(), 1, ProbabilityUtils.TimeUnit.MONTH,
+                orderSimulator::simulateOrder));
+        // An order is ready to be shipped on average 3 times a day
+        processes.add(new Process<>(company.getOrderStore(), 3, ProbabilityUtils.TimeUnit.DAY, readyOrders::add));
+        processes.add(new Process<>(company.getTransportationStore(), 1, ProbabilityUtils.TimeUnit.MONTH,
+                this::degradeTransportation));
+
+        // Picks up where the hourly simulation left the company
+        for (Delivery delivery : company.getDeliveries()) {
+            if (delivery.getDeliveryState() == DeliveryStatus.WAREHOUSE)
+                scheduleDeliveryStart(delivery);
+            else if (delivery.getDeliveryState() == DeliveryStatus.TRANSIT)
+                deliveriesInTransit.add(delivery);
+        }
+        for (Transportation transportation : company.getAllTransportation())
+            if (transportation.getHealthState().compareTo(TransportationHealthState.BAD) >= 0)
+                scheduleDestruction(transportation, 0);
+
+        this.listener = new CompanyListener() {
+            @Override
+            public void onNewDelivery(Delivery delivery) {
+                scheduleDeliveryStart(delivery);
+            }
+
+            @Override
+            public void onDeliveryStateChanged(Delivery delivery) {
+                if (delivery.getDeliveryState() == DeliveryStatus.TRANSIT)
+                    deliveriesInTransit.add(delivery);
+            }
+        };
+        company.addListener(listener);
+
+        processes.forEach(Process::schedule);
+        events.schedule(1, this::tick);
+    }
+
+    /**
+     * Simulates a period of virtual time.
+     * @param hours
+     * Duration of the period.
+     * @return
+     * Number of events that happened.
+     */
+    public long runFor(double hours) {
+        return events.runUntil(events.getTime() + hours);
+    }
+
+    /**
+     * Stops following the changes made to the company. The simulator can't be run anymore.
+     */
+    public void shutdown() {
+        company.removeListener(listener);
+    }
+
+    /**
+     * What happens at the end of every hour.
+     */
+    private void tick() {
+        economySimulator.run();
+        customerSimulator.run();
+        productSimulator.run();
+        transportationSimulator.simulateTransportationAcquisitions();
+        shipReadyOrders();
+        moveDeliveries();
+        company.archiveDeliveries();
+        // The number of items changed, and so did the rates of the processes
+        processes.forEach(Process::schedule);
+        events.schedule(1, this::tick);
+    }
+
+    /**
+     * Consolidates the orders that got ready during the hour into deliveries, as DeliverySimulator does.
+     */
+    private void shipReadyOrders() {
+        if (readyOrders.isEmpty())
+            return;
+        final List<Order> ready = new ArrayList<>(readyOrders.size());
+        // Orders may have been cancelled since
+        for (Order order : readyOrders)
+            if (company.getOrders().contains(order))
+                ready.add(order);
+        readyOrders.clear();
+        if (ready.isEmpty())
+            return;
+        for (DeliveryConsolidator.Load load : consolidator.consolidate(ready, company.getAllAvailableTransportation())) {
+            final List<Order> orders = load.getOrders();
+            company.newDelivery(new Delivery(orders, load.getTransportation(), company.getHeadquarters(),
+                    orders.get(0).getBuyer().getAddress()));
+        }
+    }
+
+    /**
+     * Moves the deliveries in transit by an hour and confirms the ones that arrived.
+     */
+    private void moveDeliveries() {
+        final Iterator<Delivery> iterator = deliveriesInTransit.iterator();
+        while (iterator.hasNext()) {
+            final Delivery delivery = iterator.next();
+            if (delivery.getDeliveryState() != DeliveryStatus.TRANSIT || !company.getDeliveries().contains(delivery)) {
+                iterator.remove();
+                continue;
+            }
+            movementSimulator.moveDelivery(delivery);
+            if (delivery.isAtDestination()) {
+                iterator.remove();
+                company.confirmDelivery(delivery);
+            }
+        }
+    }
+
+    /**
+     * A delivery waiting in the warehouse is shipped on average after a day, or cancelled after a month. Only the
+     * first of the two happens.
+     */
+    private void scheduleDeliveryStart(Delivery delivery) {
+        final double shipping = probabilityUtils.interval(1, ProbabilityUtils.TimeUnit.DAY, random);
+        final double cancellation = probabilityUtils.interval(1, ProbabilityUtils.TimeUnit.MONTH, random);
+        events.schedule(Math.min(shipping, cancellation), () -> {
+            if (delivery.getDeliveryState() != DeliveryStatus.WAREHOUSE || !company.getDeliveries().contains(delivery))
+                return;
+            if (shipping <= cancellation)
+                company.startDeliveryShipping(delivery);
+            else
+                company.cancelDelivery(delivery);
+        });
+    }
+
+    private void degradeTransportation(Transportation transportation) {
+        final TransportationHealthState before = transportation.getHealthState();
+        company.degradeTransportation(transportation);
+        if (transportation.getHealthState() != before &&
+                transportation.getHealthState().compareTo(TransportationHealthState.BAD) >= 0)
+            scheduleDestruction(transportation, 0);
+    }
+
+    /**
+     * A transportation in bad state is destroyed on average after a day, a transportation in critical state right
+     * away. Transportation assigned to a delivery is kept until it is available.
+     * @param criticalDelay
+     * Delay before destroying a transportation in critical state.
+     */
+    private void scheduleDestruction(Transportation transportation, double criticalDelay) {
+        final EventQueue.ScheduledEvent previous = destructions.remove(transportation);
+        if (previous != null)
+            previous.cancel();
+        final double delay = transportation.getHealthState() == TransportationHealthState.CRITICAL ? criticalDelay :
+                probabilityUtils.interval(1, ProbabilityUtils.TimeUnit.DAY, random);
+        destructions.put(transportation, events.schedule(delay, () -> {
+            destructions.remove(transportation);
+            if (company.getAllTransportation().contains(transportation) && !company.deleteTransportation(transportation))
+                // Checked again an hour later, as the hourly simulator does
+                scheduleDestruction(transportation, 1);
+        }));
+    }
+
+    /**
+     * @return
+     * Current virtual time, in hours since the simulator was created.
+     */
+    public double getTime() {
+        return events.getTime();
+    }
+
+    /**
+     * @return
+     * Number of events that happened so far, hourly ones included.
+     */
+    public long getProcessedEvents() {
+        return events.getProcessedEvents();
+    }
+
+    /**
+     * @return
+     * Number of events waiting in the queue.
+     */
+    public int getScheduledEvents() {
+        return events.size();
+    }
+
+    public Company getCompany() {
+        return company;
+    }
+
+    public Economy getEconomy() {
+        return economy;
+    }
+
+    /**
+     * An event happening to every item of a store at the same rate. The first occurrence among all the items is drawn
+     * at the rate of one item times the number of items, then the item it happens to is picked at random. Since the
+     * time between occurrences is memoryless, the next occurrence can be drawn again whenever the number of items
+     * changes.
+     */
+    private final class Process<T extends Item> {
+
+        private final ItemStore<T> store;
+        private final double frequency;
+        private final ProbabilityUtils.TimeUnit timeUnit;
+        private final Consumer<T> action;
+        private EventQueue.ScheduledEvent next;
+        private int scheduledSize;
+
+        Process(ItemStore<T> store, double frequency, ProbabilityUtils.TimeUnit timeUnit, Consumer<T> action) {
+            this.store = store;
+            this.frequency = frequency;
+            this.timeUnit = timeUnit;
+            this.action = action;
+        }
+
+        /**
+         * Draws the next occurrence, unless it is already drawn for the current number of items.
+         */
+        void schedule() {
+            final int size = store.size();
+            if (next != null && size == scheduledSize)
+                return;
+            if (next != null)
+                next.cancel();
+            scheduledSize = size;
+            next = events.schedule(probabilityUtils.interval(frequency * size, timeUnit, random), () -> {
+                next = null;
+                store.getRandom().ifPresent(action);
+                schedule();
+            });
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.simulators;
+
+import company.company.Company;
+import economy.Economy;
+import simulation.simulators.runners.CompanySimulatorRunner;
+import simulation.simulators.runners.EconomySimulatorRunner;
+import simulation.simulators.runners.TelemetryDataSimulatorRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Simulates many companies competing in the same economy.
+ *
+ * Each tick first runs the economy simulator alone. Every company is then simulated as a task of a fork-join pool:
+ * company and telemetry simulators, archiving of the deliveries that are over and publication of a snapshot. The
+ * tick ends when all the companies are done, so the economy is never modified while companies read it, and companies
+ * share nothing else. With as many threads as cores, a market is simulated at the rate of a single company.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see SupplyChainControlSimulator
+ */
+public class MarketSimulator {
+
+    private final Economy economy;
+    private final EconomySimulatorRunner economySimulator;
+    private final List<Shard> shards;
+    private final ForkJoinPool pool;
+    /** Ticks started by hand and by the executor are not run at the same time. **/
+    private final Object tickLock = new Object();
+
+    private ScheduledExecutorService ticksExecutor;
+    private volatile long ticks;
+
+    /**
+     * @param economy
+     * Economy shared by the companies.
+     * @param companies
+     * Companies to simulate.
+     */
+    public MarketSimulator(Economy economy, List<Company> companies) {
+        this(economy, companies, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param economy
+     * Economy shared by the companies.
+     * @param companies
+     * Companies to simulate.
+     * @param parallelism
+     * Number of threads simulating companies.
+     */
+    public MarketSimulator(Economy economy, List<Company> companies, int parallelism) {
+        this.economy = economy;
+        this.economySimulator = new EconomySimulatorRunner(economy);
+        this.shards = new ArrayList<>(companies.size());
+        companies.forEach(company -> shards.add(new Shard(company, economy)));
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Starts ticking periodically.
+     * @param delayInMilliSeconds
+     * Delay between the end of a tick and the start of the next one.
+     */
+    public synchronized void start(long delayInMilliSeconds) {
+        if (ticksExecutor != null)
+            throw new IllegalStateException("Market simulation already started.");
+        ticksExecutor = Executors.newSingleThreadScheduledExecutor();
+        ticksExecutor.scheduleWithFixedDelay(this::tick, 0, delayInMilliSeconds, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops ticking, waiting for the current tick to end.
+     */
+    public synchronized void stop() {
+        if (ticksExecutor == null)
+            return;
+        ticksExecutor.shutdown();
+        try {
+            ticksExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ticksExecutor = null;
+    }
+
+    /**
+     * Stops ticking and releases the threads of the simulation.
+     */
+    public void shutdown() {
+        stop();
+        pool.shutdown();
+    }
+
+    /**
+     * Simulates one hour for the whole market. Returns once every company has been simulated.
+     */
+    public void tick() {
+        synchronized (tickLock) {
+            economySimulator.run();
+            try {
+                // invokeAll returns once every task is done, which is the barrier before the next economy update
+                for (Future<Void> future : pool.invokeAll(shards))
+                    future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+            ticks++;
+        }
+    }
+
+    public Economy getEconomy() {
+        return economy;
+    }
+
+    /**
+     * @return
+     * The simulated companies.
+     */
+    public List<Company> getCompanies() {
+        final List<Company> companies = new ArrayList<>(shards.size());
+        shards.forEach(shard -> companies.add(shard.company));
+        return Collections.unmodifiableList(companies);
+    }
+
+    /**
+     * @return
+     * Number of ticks simulated so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * A company and its simulators, run as one task per tick.
+     */
+    private static final class Shard implements Callable<Void> {
+
+        private final Company company;
+        private final Economy economy;
+        private final CompanySimulatorRunner companySimulator;
+        private final TelemetryDataSimulatorRunner telemetrySimulator;
+
+        Shard(Company company, Economy economy) {
+            this.company = company;
+            this.economy = economy;
+            this.companySimulator = new CompanySimulatorRunner(company, economy);
+            this.telemetrySimulator = new TelemetryDataSimulatorRunner(company);
+        }
+
+        @Override
+        public Void call() {
+            companySimulator.run();
+            telemetrySimulator.run();
+            try {
+                company.archiveDeliveries();
+                company.publishSnapshot(economy);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            return null;
+        }
+    }
+}
@@ -15,6 +15,8 @@
 package simulation.simulators;
 
 import company.company.Company;
+import company.persistence.CompanyCheckpoint;
+import company.persistence.CompanyJournal;
 import economy.Economy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +25,8 @@ import simulation.simulators.runners.CompanySimulatorRunner;
 import simulation.simulators.runners.EconomySimulatorRunner;
 import simulation.simulators.runners.TelemetryDataSimulatorRunner;
 
-import java.util.concurrent.ExecutionException;
+import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +47,7 @@ public class SupplyChainControlSimulator {
     private TelemetryDataSimulatorRunner telemetrySimulator;
 
     private ScheduledExecutorService simulatorsExecutor;
+    private CompanyJournal journal;
 
     private  final Logger logger = LoggerFactory.getLogger(SupplyChainControlSimulator.class);
 
@@ -70,13 +74,17 @@ public class SupplyChainControlSimulator {
         if (parametrizer == null)
             throw new IllegalArgumentException("Parametrizer must be set before starting simulation.");
         try {
+            // The journal is kept across restarts
+            if (journal == null && parametrizer.getJournalFile() != null) {
+                // The new journal starts from the checkpoint, so the previous journal is not needed anymore
+                if (parametrizer.getCheckpointFile() != null)
+                    CompanyCheckpoint.save(parametrizer.getCheckpointFile(), company, economy);
+                journal = CompanyJournal.create(parametrizer.getJournalFile(), parametrizer.isJournalSync());
+                company.addListener(journal);
+            }
             simulatorsExecutor = Executors.newSingleThreadScheduledExecutor();
 
-            simulatorsExecutor.scheduleWithFixedDelay(economySimulator,0,parametrizer.getDelayInMilliSeconds(),
-                    TimeUnit.MILLISECONDS);
-            simulatorsExecutor.scheduleWithFixedDelay(companySimulator,0,parametrizer.getDelayInMilliSeconds(),
-                    TimeUnit.MILLISECONDS);
-            simulatorsExecutor.scheduleWithFixedDelay(telemetrySimulator,0,parametrizer.getDelayInMilliSeconds(),
+            simulatorsExecutor.scheduleWithFixedDelay(this::tick,0,parametrizer.getDelayInMilliSeconds(),
                     TimeUnit.MILLISECONDS);
 
             if (parametrizer.isDisplayMetrics()) {
@@ -90,6 +98,25 @@ public class SupplyChainControlSimulator {
         }
     }
 
+    /**
+     * Simulates one hour: runs the economy, company and telemetry simulators, archives the deliveries that are over
+     * and then publishes a snapshot of the company for the readers (Kapua, UI). The changes of the tick are then
+     * committed to the journal, if any.
+     */
+    private void tick() {
+        economySimulator.run();
+        companySimulator.run();
+        telemetrySimulator.run();
+        try {
+            company.archiveDeliveries();
+            company.publishSnapshot(economy);
+            if (journal != null)
+                journal.commit();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     private void stop() {
         simulatorsExecutor.shutdown();
         try {
@@ -97,6 +124,13 @@ public class SupplyChainControlSimulator {
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
+        if (journal != null) {
+            try {
+                journal.commit();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     public void restart() {
@@ -120,11 +154,12 @@ public class SupplyChainControlSimulator {
      * ScheduledExecutorService to attach the thread to.
      */
     private void displayCompanyData(ScheduledExecutorService executor) {
-        executor.scheduleWithFixedDelay(() -> logger.info("Products: "+Integer.toString(company.getProducts().size())+", Types: "+
-                Integer.toString(company.getProductTypes().size())+
-                ", Orders: "+Integer.toString(company.getOrders().size())+", Deliveries: "+Integer.toString(company.getDeliveries().size())
-                +", Transportation: "+Integer.toString(company.getAllTransportation().size())+
-                ", Customers:"+Integer.toString(company.getCustomers().size())),0,5,TimeUnit.SECONDS);
+        executor.scheduleWithFixedDelay(() -> {
+            Map<String, Integer> sizes = company.getSnapshot().getStoresSizes();
+            logger.info("Products: "+sizes.get("products")+", Types: "+sizes.get("productTypes")+
+                    ", Orders: "+sizes.get("orders")+", Deliveries: "+sizes.get("deliveries")+" (archived: "+sizes.get("archivedDeliveries")+")"
+                    +", Transportation: "+sizes.get("transportation")+", Customers:"+sizes.get("customers"));
+        },0,5,TimeUnit.SECONDS);
     }
 
     public void setParametrizer(Parametrizer parametrizer) {
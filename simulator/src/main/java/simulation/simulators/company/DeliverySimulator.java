@@ -16,10 +16,13 @@ package simulation.simulators.company;
 
 import company.company.Company;
 import company.delivery.Delivery;
+import company.delivery.DeliveryConsolidator;
 import company.order.Order;
 import economy.Economy;
 import simulation.util.ProbabilityUtils;
 
+import java.util.List;
+
 /**
  * Simulates everything related to deliveries (except telemetry data)
  * @since 1.0
@@ -27,6 +30,8 @@ import simulation.util.ProbabilityUtils;
  */
 public class DeliverySimulator extends AbstractCompanyComponentSimulator {
 
+    private final DeliveryConsolidator consolidator = new DeliveryConsolidator();
+
     public DeliverySimulator(Company company, Economy economy) {
         super(company, economy);
     }
@@ -37,16 +42,19 @@ public class DeliverySimulator extends AbstractCompanyComponentSimulator {
     }
 
     /**
-     * Simulates new deliveries.
+     * Simulates new deliveries. The orders ready to be shipped are consolidated: orders going to the same area share
+     * a transportation, as long as its capacity allows it. Each delivery goes to the buyer of its heaviest order.
      * @since 1.0
      */
     private void simulateNewDeliveries() {
-        //TODO assign multiple orders to one delivery (check total weight against transportation capacity)
-        Order[] orders = company.getOrders().toArray(new Order[company.getOrders().size()]);
-        for (Order order : orders)
-            if (probabilityUtils.event(3, ProbabilityUtils.TimeUnit.DAY))
-                company.getAvailableTransportation().ifPresent(transportation ->
-                    company.newDelivery(new Delivery(order, transportation, company.getHeadquarters(), order.getBuyer().getAddress()))
-                );
+        final List<Order> ready = company.getOrderStore().getAt(
+                probabilityUtils.sample(company.getOrderStore().size(), 3, ProbabilityUtils.TimeUnit.DAY));
+        if (ready.isEmpty())
+            return;
+        for (DeliveryConsolidator.Load load : consolidator.consolidate(ready, company.getAllAvailableTransportation())) {
+            final List<Order> orders = load.getOrders();
+            company.newDelivery(new Delivery(orders, load.getTransportation(), company.getHeadquarters(),
+                    orders.get(0).getBuyer().getAddress()));
+        }
     }
 }
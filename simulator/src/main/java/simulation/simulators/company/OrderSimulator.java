@@ -15,15 +15,16 @@
 package simulation.simulators.company;
 
 import company.company.Company;
+import company.company.InventoryMode;
 import company.customer.Customer;
 import company.order.Order;
+import company.order.OrderLine;
 import company.product.Product;
+import company.product.ProductType;
 import economy.Economy;
 import simulation.util.ProbabilityUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.*;
 
 /**
  * Simulates everything related to company orders.
@@ -32,6 +33,8 @@ import java.util.Random;
  */
 public class OrderSimulator extends AbstractCompanyComponentSimulator {
 
+    private final Random random = new Random();
+
     public OrderSimulator(Company company, Economy economy) {
         super(company, economy);
     }
@@ -46,21 +49,55 @@ public class OrderSimulator extends AbstractCompanyComponentSimulator {
      * @since 1.0
      */
     private void simulateOrders() {
-        Random random = new Random();
+        // A customer buys a product on average once a month. No customer means no order
+        final int[] buyers = probabilityUtils.sample(company.getCustomerStore().size(), 1, ProbabilityUtils.TimeUnit.MONTH);
+        for (final Customer customer : company.getCustomerStore().getAt(buyers))
+            simulateOrder(customer);
+    }
 
-        // No customer means no order
-        for (final Customer customer : company.getCustomers()) {
-            // A customer buys a product on average once a month
-            if (probabilityUtils.event(1, ProbabilityUtils.TimeUnit.MONTH)) {
-                final int nbrOrderedProducts = random.nextInt(10)+1;
-                // A customer buys up to 10 products per order
-                List<Product> orderedProducts = new ArrayList<>(nbrOrderedProducts);
-                for (int i = 0; i <nbrOrderedProducts ; i++)
-                    company.getProductStore().getRandom().ifPresent(orderedProducts::add);
-                // Make sure the order is not empty
-                if (orderedProducts.size() > 0)
-                    company.newOrder(new Order(customer, orderedProducts));
-            }
+    /**
+     * Simulates an order of a customer.
+     * @param customer
+     * Customer ordering.
+     */
+    public void simulateOrder(Customer customer) {
+        // A customer buys up to 10 products per order
+        final int nbrOrderedProducts = random.nextInt(10)+1;
+        if (company.getInventoryMode() == InventoryMode.QUANTITY) {
+            newOrderLines(customer, nbrOrderedProducts);
+            return;
         }
+        List<Product> orderedProducts = new ArrayList<>(nbrOrderedProducts);
+        for (int i = 0; i <nbrOrderedProducts ; i++)
+            company.getProductStore().getRandom().ifPresent(orderedProducts::add);
+        // Make sure the order is not empty
+        if (orderedProducts.size() > 0)
+            company.newOrder(new Order(customer, orderedProducts));
+    }
+
+    /**
+     * Creates an order made of lines, for companies counting their stock by type. Products are picked the same way as
+     * for other companies, then grouped by type.
+     * @param customer
+     * Customer ordering.
+     * @param nbrOrderedProducts
+     * Number of products to order.
+     */
+    private void newOrderLines(Customer customer, int nbrOrderedProducts) {
+        Map<ProductType, Integer> quantities = new HashMap<>();
+        Map<ProductType, Float> prices = new HashMap<>();
+        for (int i = 0; i < nbrOrderedProducts; i++)
+            company.getProductStore().getRandom().ifPresent(product -> {
+                quantities.merge(product.getProductType(), 1, Integer::sum);
+                prices.put(product.getProductType(), product.getPrice());
+            });
+        // Make sure the order is not empty
+        if (quantities.isEmpty())
+            return;
+        List<OrderLine> orderLines = new ArrayList<>(quantities.size());
+        quantities.forEach((productType, quantity) ->
+                orderLines.add(new OrderLine(productType, quantity, prices.get(productType))));
+        Order order = Order.fromLines(customer, orderLines);
+        company.newOrder(order);
     }
 }
@@ -15,7 +15,6 @@
 package simulation.simulators.company;
 
 import company.company.Company;
-import company.product.Product;
 import company.product.ProductType;
 import economy.Economy;
 import simulation.generators.DataGenerator;
@@ -57,9 +56,8 @@ public class ProductSimulator extends AbstractCompanyComponentSimulator {
             //Check the product stock on average twice a day
             if (probabilityUtils.event(2, ProbabilityUtils.TimeUnit.DAY)) {
                 // Stock must be 3 times the number of orders (for a particular product type)
-                if (productQuantity <= company.getOrdersFromProductType(productType).size()*3) {
-                    for (int i = 0; i <= new Random().nextInt(100)+10; i++)
-                        company.newProduct(new Product(productType,company.getHeadquarters().getCoordinates()));
+                if (productQuantity <= company.countOrdersFromProductType(productType)*3) {
+                    company.newProducts(productType, new Random().nextInt(100)+11);
                 }
             }
         }
@@ -85,7 +83,7 @@ public class ProductSimulator extends AbstractCompanyComponentSimulator {
         for (final ProductType productType : company.getProductTypes()) {
             // Sometimes when no order on the product's type exist, company decides to get rid of it
             // Company must have at least 2 types of products
-            if (company.getOrdersFromProductType(productType).size() == 0 && company.getProductTypes().size() > 2) {
+            if (company.countOrdersFromProductType(productType) == 0 && company.getProductTypes().size() > 2) {
                 if (probabilityUtils.event(2, ProbabilityUtils.TimeUnit.WEEK)) {
                     company.deleteProductType(productType);
                     return;
@@ -100,15 +98,9 @@ public class ProductSimulator extends AbstractCompanyComponentSimulator {
      */
     private void simulatePriceCuts() {
         for(final ProductType productType : company.getProductTypes()) {
-            if (probabilityUtils.event(company.getOrdersFromProductType(productType).size()/100, ProbabilityUtils.TimeUnit.MONTH)) {
-                company.getProducts().forEach(product -> {
-                    // 10 % discount
-                    final float cutPrice = product.getPrice()*90/100;
-                    // Limit price cut to half the original price
-                    final float basePrice = product.getProductType().getBasePrice();
-                    if (cutPrice >= basePrice/2)
-                        product.setPrice(cutPrice);
-                });
+            if (probabilityUtils.event(company.countOrdersFromProductType(productType)/100, ProbabilityUtils.TimeUnit.MONTH)) {
+                // 10 % discount, limited to half the original price
+                company.discountProducts(0.9f, 0.5f);
             }
         }
     }
@@ -21,6 +21,9 @@ import economy.Economy;
 import simulation.generators.DataGenerator;
 import simulation.util.ProbabilityUtils;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Simulates everything related to transportation (except telemetry data)
  * @since 1.0
@@ -42,7 +45,7 @@ public class TransportationSimulator extends AbstractCompanyComponentSimulator {
      * Simulates transportation acquisition
      * @since 1.0
      */
-    private void simulateTransportationAcquisitions() {
+    public void simulateTransportationAcquisitions() {
         // If orders >= nbr transportation * 100, new transportation should be acquired
         if (company.getOrders().size() >= company.getAllTransportation().size()*10) {
             // On average takes 2 weeks to be done
@@ -59,7 +62,8 @@ public class TransportationSimulator extends AbstractCompanyComponentSimulator {
      */
     private void simulateTransportationDestruction() {
         // A transportation is destructed when its in a bad state or worse
-        company.getAllTransportation().removeIf(transportation ->
+        // Deleting through the company makes sure that transportation assigned to a delivery is kept
+        List<Transportation> destructed = company.getAllTransportation().stream().filter(transportation ->
                 transportation.isAvailable() &&
                         (
                                 transportation.getHealthState().equals(TransportationHealthState.BAD)
@@ -67,7 +71,8 @@ public class TransportationSimulator extends AbstractCompanyComponentSimulator {
                         )
                                 ||
                         transportation.getHealthState().equals(TransportationHealthState.CRITICAL)
-        );
+        ).collect(Collectors.toList());
+        destructed.forEach(company::deleteTransportation);
     }
 
 }
@@ -14,9 +14,12 @@
 
 package simulation.simulators.telemetry;
 
+import company.address.Coordinates;
 import company.company.Company;
 import company.delivery.Delivery;
 import company.delivery.DeliveryStatus;
+import company.route.RouteCursor;
+import company.route.RouteEngine;
 
 /**
  * Simulates product movement during deliveries.
@@ -25,8 +28,15 @@ import company.delivery.DeliveryStatus;
  */
 public class DeliveryMovementSimulator extends AbstractTelemetryComponentSimulator  {
 
+    private final RouteEngine routeEngine;
+
     public DeliveryMovementSimulator(Company company) {
+        this(company, new RouteEngine());
+    }
+
+    public DeliveryMovementSimulator(Company company, RouteEngine routeEngine) {
         super(company);
+        this.routeEngine = routeEngine;
     }
 
     @Override
@@ -38,19 +48,31 @@ public class DeliveryMovementSimulator extends AbstractTelemetryComponentSimulat
     }
 
     /**
-     * Simulates delivery movement during one hour. A delivery moves toward the direction of its destination.
+     * Simulates delivery movement during one hour. A delivery follows the route of its mode of transportation toward
+     * its destination.
      * @param delivery
      * Delivery to be moved.
      */
-    private void moveDelivery(Delivery delivery) {
+    public void moveDelivery(Delivery delivery) {
         // Get speed in km/s
         final float speed = delivery.getTransporter().getActualSpeed();
 
         // We simulate 1 hour
         final float distance = speed*3600;
 
-        // Move in the distance from destination minimising direction
-        delivery.setCurrentLocation(delivery.minimizeDistanceFromDestination(distance));
+        // Deliveries restored from a checkpoint or redirected start a new route from where they are
+        final Coordinates destination = delivery.getDestination().getCoordinates();
+        RouteCursor routeCursor = delivery.getRouteCursor();
+        if (routeCursor == null || !routeCursor.getDestination().equals(destination)) {
+            routeCursor = routeEngine.follow(delivery.getCurrentLocation(), destination,
+                    delivery.getTransporter().getTransportationMode());
+            delivery.setRouteCursor(routeCursor);
+        }
+        delivery.setCurrentLocation(routeCursor.advance(distance));
+    }
+
+    public RouteEngine getRouteEngine() {
+        return routeEngine;
     }
 
 }
@@ -19,6 +19,8 @@ import company.delivery.Delivery;
 import company.delivery.DeliveryStatus;
 import simulation.util.ProbabilityUtils;
 
+import java.util.List;
+
 /**
  * Simulates everything related to deliveries' status
  * @since 1.0
@@ -35,21 +37,19 @@ public class DeliveryStatusSimulator extends AbstractTelemetryComponentSimulator
         company.getDeliveries().forEach(delivery -> {
             if (delivery.getDeliveryState().equals(DeliveryStatus.TRANSIT))
                 checkDeliveriesAtDestination(delivery);
-            if (delivery.getDeliveryState().equals(DeliveryStatus.WAREHOUSE)) {
-                simulateDeliveriesShipping(delivery);
-                simulateDeliveryCancellation(delivery);
-            }
         });
+        simulateDeliveriesShipping();
+        simulateDeliveryCancellation();
     }
 
     /**
-     * Simulates delivery shipping. A delivery will be shipped eventually.
-     * @param delivery
-     * A delivery that still has WAREHOUSE status.
+     * Simulates delivery shipping. A delivery still in the warehouse will be shipped eventually, on average after a
+     * day.
      */
-    private void simulateDeliveriesShipping(Delivery delivery) {
-        if (probabilityUtils.event(1, ProbabilityUtils.TimeUnit.DAY))
-            company.startDeliveryShipping(delivery);
+    private void simulateDeliveriesShipping() {
+        for (Delivery delivery : drawDeliveries(1, ProbabilityUtils.TimeUnit.DAY))
+            if (delivery.getDeliveryState().equals(DeliveryStatus.WAREHOUSE))
+                company.startDeliveryShipping(delivery);
     }
 
     /**
@@ -62,8 +62,21 @@ public class DeliveryStatusSimulator extends AbstractTelemetryComponentSimulator
             company.confirmDelivery(delivery);
     }
 
-    private void simulateDeliveryCancellation(Delivery delivery) {
-        if (probabilityUtils.event(1,ProbabilityUtils.TimeUnit.MONTH))
-            company.cancelDelivery(delivery);
+    /**
+     * Simulates delivery cancellation. A delivery still in the warehouse is cancelled on average after a month.
+     */
+    private void simulateDeliveryCancellation() {
+        for (Delivery delivery : drawDeliveries(1, ProbabilityUtils.TimeUnit.MONTH))
+            if (delivery.getDeliveryState().equals(DeliveryStatus.WAREHOUSE))
+                company.cancelDelivery(delivery);
+    }
+
+    /**
+     * Draws the deliveries an event occurring at the given frequency occurs to in 1 hour. Deliveries of any status may
+     * be drawn: each delivery of a given status is drawn at the given frequency.
+     */
+    private List<Delivery> drawDeliveries(double frequency, ProbabilityUtils.TimeUnit timeUnit) {
+        return company.getDeliveryStore().getAt(probabilityUtils.sample(company.getDeliveryStore().size(), frequency,
+                timeUnit));
     }
 }
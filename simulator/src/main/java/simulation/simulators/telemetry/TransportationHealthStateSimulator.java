@@ -15,7 +15,6 @@
 package simulation.simulators.telemetry;
 
 import company.company.Company;
-import company.transportation.Transportation;
 import simulation.util.ProbabilityUtils;
 
 /**
@@ -31,16 +30,16 @@ public class TransportationHealthStateSimulator extends AbstractTelemetryCompone
 
     @Override
     public void run() {
-        company.getAllTransportation().forEach(this::simulateHealthStateDegradation);
+        simulateHealthStateDegradation();
     }
 
     /**
-     * Simulates transportation health state degradation throughout time.
-     * @param transportation
-     * Transportation to degrade.
+     * Simulates transportation health state degradation throughout time. A transportation degrades on average once
+     * a month.
      */
-    private void simulateHealthStateDegradation(Transportation transportation) {
-        if (probabilityUtils.event(1, ProbabilityUtils.TimeUnit.MONTH))
-            transportation.degradeHealthState();
+    private void simulateHealthStateDegradation() {
+        final int[] degraded = probabilityUtils.sample(company.getTransportationStore().size(), 1,
+                ProbabilityUtils.TimeUnit.MONTH);
+        company.getTransportationStore().getAt(degraded).forEach(company::degradeTransportation);
     }
 }
@@ -14,7 +14,9 @@
 
 package simulation.util;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Probability utility for simulators.
@@ -22,6 +24,9 @@ import java.util.Random;
  * @since 1.0
  */
 public class ProbabilityUtils {
+
+    private static final double HOURS_PER_BIGGEST_UNIT = TimeUnit.scaleToBiggestUnit(1, TimeUnit.HOUR);
+
     /**
      * This method simulates if an event that occurs at the given frequency in the given time unit has occurred in 1 hour.
      * For instance, if the event has frequency 1 per day, the method should be called on average 24 times in order to return true
@@ -36,18 +41,106 @@ public class ProbabilityUtils {
      * @since 1.0
      */
     public boolean event(double frequency, TimeUnit timeUnit) {
+        final double probability = probability(frequency, timeUnit);
+        return probability >= 1 || ThreadLocalRandom.current().nextDouble() < probability;
+    }
+
+    /**
+     * Probability that an event occurring at the given frequency occurs in 1 hour, that is its average number of
+     * occurrences per hour, capped to 1.
+     * @param frequency
+     * Frequency at which the event occurs.
+     * @param timeUnit
+     * The frequency's unit. See TimeUnit enumeration of this class.
+     * @return
+     * The probability, between 0 and 1.
+     *
+     * @since 1.0
+     */
+    public static double probability(double frequency, TimeUnit timeUnit) {
+        if (frequency < 0)
+            throw new IllegalArgumentException("Frequency can't be negative");
+        return Math.min(1, TimeUnit.scaleToBiggestUnit(frequency, timeUnit) / HOURS_PER_BIGGEST_UNIT);
+    }
+
+    /**
+     * Simulates the event method for many items at once, for instance every customer of a company: the event occurs
+     * in 1 hour to each of them independently, at the given frequency. Only the items the event occurs to are drawn,
+     * by skipping a geometrically distributed number of items between two of them, so the cost is proportional to the
+     * number of occurrences rather than to the number of items. The number of occurrences follows a binomial law.
+     * @param count
+     * Number of items.
+     * @param frequency
+     * Frequency at which the event occurs to each item.
+     * @param timeUnit
+     * The frequency's unit. See TimeUnit enumeration of this class.
+     * @return
+     * Positions of the items the event occurred to, from 0 to count excluded, in increasing order. See
+     * ItemStore.getAt.
+     *
+     * @since 1.0
+     */
+    public int[] sample(int count, double frequency, TimeUnit timeUnit) {
+        return sample(count, frequency, timeUnit, ThreadLocalRandom.current());
+    }
+
+    /**
+     * See sample(int, double, TimeUnit).
+     * @param random
+     * Source of randomness.
+     */
+    public int[] sample(int count, double frequency, TimeUnit timeUnit, Random random) {
+        if (count < 0)
+            throw new IllegalArgumentException("Count can't be negative");
+        final double probability = probability(frequency, timeUnit);
+        if (probability == 0 || count == 0)
+            return new int[0];
+        if (probability >= 1) {
+            final int[] all = new int[count];
+            for (int i = 0; i < count; i++)
+                all[i] = i;
+            return all;
+        }
+        int[] positions = new int[(int) Math.min(count, count * probability * 1.5 + 16)];
+        int found = 0;
+        final double logOfMiss = Math.log1p(-probability);
+        long position = -1;
+        while (true) {
+            // Number of items skipped before the next occurrence, capped to not overflow. 1 - nextDouble() is never zero
+            position += 1 + (long) Math.min(count, Math.log(1 - random.nextDouble()) / logOfMiss);
+            if (position >= count)
+                break;
+            if (found == positions.length)
+                positions = Arrays.copyOf(positions, Math.min(count, positions.length * 2));
+            positions[found++] = (int) position;
+        }
+        return found == positions.length ? positions : Arrays.copyOf(positions, found);
+    }
+
+    /**
+     * Draws the virtual time until the next occurrence of an event that occurs at the given frequency. Occurrences
+     * follow a Poisson process of the same rate as the one simulated hour by hour by the event method, so the time
+     * between two occurrences is exponentially distributed.
+     * @param frequency
+     * Frequency at which the event occurs.
+     * @param timeUnit
+     * The frequency's unit. See TimeUnit enumeration of this class.
+     * @param random
+     * Source of randomness.
+     * @return
+     * Number of hours until the next occurrence. Infinite if the frequency is zero.
+     *
+     * @since 1.0
+     */
+    public double interval(double frequency, TimeUnit timeUnit, Random random) {
         if (frequency < 0)
             throw new IllegalArgumentException("Frequency can't be negative");
-        // Convert frequency from initial time unit to the biggest available unit in order to make the decimal part of
-        // the computed frequency not relevant in comparison to the integer part
-        double normalizedFrequency = TimeUnit.scaleToBiggestUnit(frequency,timeUnit);
-        // Convert frequency per second to number of favorable outcomes for a uniform law of probability
-        long nbrFavorableOutcomes = (long) normalizedFrequency;
-        // We are simulating one hour, so the total number of outcomes is one hour converted to the biggest unit
-        final double nbrTotalOutcomes = TimeUnit.scaleToBiggestUnit(1,TimeUnit.HOUR);
-        // Simulate event using a uniform law of probability
-        Random random = new Random();
-        return nbrTotalOutcomes < nbrFavorableOutcomes || random.nextInt((int) (nbrTotalOutcomes / nbrFavorableOutcomes)) == 0;
+        // Occurrences per hour
+        final double rate = TimeUnit.scaleToBiggestUnit(frequency, timeUnit) / HOURS_PER_BIGGEST_UNIT;
+        if (rate == 0)
+            return Double.POSITIVE_INFINITY;
+        // 1 - nextDouble() is never zero
+        return -Math.log(1 - random.nextDouble()) / rate;
     }
 
     /**
@@ -0,0 +1,172 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe ItemStore, meant to be modified by the simulation while other threads (Kapua sender, websocket server,
+ * etc) read it.
+ *
+ * Items are mirrored in a ConcurrentHashMap: reads (iteration, contains, size) are lock-free and iteration is weakly
+ * consistent, that is it never throws ConcurrentModificationException and reflects the state of the store at some
+ * point at or since the creation of the iterator. Writes and random picks go through the array of the ItemStore and
+ * are serialized on the store's lock.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see ItemStore
+ */
+public class ConcurrentItemStore<T extends Item> extends ItemStore<T> {
+
+    private final Map<Long, T> items;
+    private final Set<T> storage;
+
+    public ConcurrentItemStore() {
+        this.items = new ConcurrentHashMap<>();
+        this.storage = new ConcurrentStorageView();
+        // Registered first so that the mirror is up to date when other listeners get notified
+        super.addListener(new ItemStoreListener<T>() {
+            @Override
+            public void onAdd(T item) {
+                items.put(item.getNumericId(), item);
+            }
+
+            @Override
+            public void onDelete(T item) {
+                items.remove(item.getNumericId());
+            }
+        });
+    }
+
+    @Override
+    public synchronized void setStorage(Set<T> storage) {
+        super.setStorage(storage);
+    }
+
+    /**
+     * Return the Store "storage". The returned set is a live, weakly consistent view of the store.
+     */
+    @Override
+    public Set<T> getStorage() {
+        return storage;
+    }
+
+    @Override
+    public synchronized void add(T object) {
+        super.add(object);
+    }
+
+    @Override
+    public synchronized void delete(T object) {
+        super.delete(object);
+    }
+
+    @Override
+    public synchronized Optional<T> getRandom() {
+        return super.getRandom();
+    }
+
+    @Override
+    public synchronized List<T> getAt(int[] positions) {
+        return super.getAt(positions);
+    }
+
+    @Override
+    public synchronized long getVersion() {
+        return super.getVersion();
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    synchronized boolean insert(T object) {
+        return super.insert(object);
+    }
+
+    @Override
+    synchronized boolean remove(Item object) {
+        return super.remove(object);
+    }
+
+    @Override
+    boolean contains(Item object) {
+        return items.containsKey(object.getNumericId());
+    }
+
+    /**
+     * Set view of the store, as returned by getStorage.
+     */
+    private class ConcurrentStorageView extends AbstractSet<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            final Iterator<T> iterator = items.values().iterator();
+            return new Iterator<T>() {
+                private T lastReturned;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    lastReturned = iterator.next();
+                    return lastReturned;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastReturned == null)
+                        throw new IllegalStateException();
+                    ConcurrentItemStore.this.remove(lastReturned);
+                    lastReturned = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        public boolean add(T object) {
+            return insert(Objects.requireNonNull(object));
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return (o instanceof Item) && ConcurrentItemStore.this.remove((Item) o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof Item) && ConcurrentItemStore.this.contains((Item) o);
+        }
+
+        @Override
+        public void clear() {
+            synchronized (ConcurrentItemStore.this) {
+                new ArrayList<>(items.values()).forEach(ConcurrentItemStore.this::remove);
+            }
+        }
+    }
+}
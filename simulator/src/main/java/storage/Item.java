@@ -16,18 +16,59 @@ package storage;
 
 
 import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
 
-import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Defines an Item. A item is stored in an ItemStore. It can be for example a Product, a Order, etc.
+ *
+ * Items are identified by a number unique within the run. Its string form, returned by getId, is only built when
+ * needed. Json holds the string form.
  * @author Arthur Deschamps
  * @since 1.0
  * @see ItemStore
  */
 public abstract class Item {
 
-    private String id = UUID.randomUUID().toString();
+    /** Serialized as getId does, whatever the Gson instance. **/
+    @JsonAdapter(ItemIdAdapter.class)
+    private final long id;
+    private transient String idString;
+
+    protected Item() {
+        this.id = ItemIdAllocator.next();
+    }
+
+    /**
+     * Creates an item with an id that is not allocated, for items standing for something the stores do not keep as
+     * an object (e.g. a unit of stock). Such ids are not positive, so they never collide with allocated ids.
+     * @param id
+     * Id of the item, zero or negative.
+     */
+    protected Item(long id) {
+        if (id > 0)
+            throw new IllegalArgumentException("Id " + id + " could be allocated");
+        this.id = id;
+    }
+
+    /**
+     * Creates an item with a given id, for instance to restore an item that has been saved.
+     * @param id
+     * Id of the item, as returned by getNumericId.
+     * @param factory
+     * Creates the item. Must not create any other item.
+     * @return
+     * The item created by the factory, with the given id.
+     */
+    public static <T extends Item> T restore(long id, Supplier<T> factory) {
+        ItemIdAllocator.restoreNext(id);
+        try {
+            return factory.get();
+        } finally {
+            ItemIdAllocator.clearRestored();
+        }
+    }
 
     /**
      * Validate that object conforms to the schema
@@ -51,6 +92,36 @@ public abstract class Item {
      * The id.
      */
     public String getId() {
+        // Racing threads would build the same string, no need to synchronize
+        String idString = this.idString;
+        if (idString == null)
+            this.idString = idString = Long.toString(id, Character.MAX_RADIX);
+        return idString;
+    }
+
+    /**
+     * Returns the id as a number. Cheaper to store and compare than getId.
+     * @return
+     * The id.
+     */
+    public long getNumericId() {
         return id;
     }
+
+    /**
+     * Items are equal if they have the same id, whatever their values: two customers with the same name and address
+     * are distinct items, as they are for the stores.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return id == ((Item) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        // Computed from the id rather than cached, as items read by Gson skip the constructors
+        return ItemIdAllocator.hash(id);
+    }
 }
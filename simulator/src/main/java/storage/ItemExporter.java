@@ -0,0 +1,218 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Exports items as Json without building the whole document in memory. Items are written one by one to a Writer,
+ * either all at once or by pages.
+ *
+ * Pages are ordered by item id. A page holds the items whose id comes after the continuation token of the previous
+ * page, so items added or deleted between two calls never shift the following pages. Selecting a page costs one pass
+ * over the items and memory for one page only, or a binary search if the items are already sorted by id (see
+ * pageSorted).
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see ItemStore
+ */
+public class ItemExporter {
+
+    private final Gson gson;
+
+    public ItemExporter() {
+        this(new Gson());
+    }
+
+    public ItemExporter(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Writes the items as a Json array.
+     * @param items
+     * Items to write.
+     * @param out
+     * Where to write. It is flushed but not closed.
+     * @throws IOException
+     * If the writer fails.
+     */
+    public void write(Iterable<? extends Item> items, Writer out) throws IOException {
+        final JsonWriter jsonWriter = new JsonWriter(out);
+        jsonWriter.beginArray();
+        for (Item item : items)
+            gson.toJson(item, item.getClass(), jsonWriter);
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes the items as a Json array encoded in UTF-8.
+     * @param items
+     * Items to write.
+     * @param out
+     * Where to write. It is flushed but not closed.
+     * @throws IOException
+     * If the stream fails.
+     */
+    public void write(Iterable<? extends Item> items, OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        write(items, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes one page of items as a Json array.
+     * @param items
+     * Items to export.
+     * @param pageSize
+     * Maximum number of items of the page.
+     * @param token
+     * Continuation token returned for the previous page, or null for the first page.
+     * @param out
+     * Where to write. It is flushed but not closed.
+     * @return
+     * The continuation token of the next page, or null if this page is the last one.
+     * @throws IOException
+     * If the writer fails.
+     */
+    public String writePage(Iterable<? extends Item> items, int pageSize, String token, Writer out) throws IOException {
+        final Page<? extends Item> page = page(items, pageSize, token);
+        write(page.getItems(), out);
+        return page.getNext();
+    }
+
+    /**
+     * Selects one page of items.
+     * @param items
+     * Items to export.
+     * @param pageSize
+     * Maximum number of items of the page.
+     * @param token
+     * Continuation token returned for the previous page, or null for the first page.
+     * @return
+     * The page.
+     * @throws IllegalArgumentException
+     * If the page size is not positive or the token is malformed.
+     */
+    public static <T extends Item> Page<T> page(Iterable<? extends T> items, int pageSize, String token) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        final long after = token == null ? Long.MIN_VALUE : parseToken(token);
+
+        // Keeps the pageSize items with the smallest ids after the cursor, the greatest one on top
+        final Comparator<T> byId = Comparator.comparingLong(Item::getNumericId);
+        final PriorityQueue<T> selection = new PriorityQueue<>(Math.min(pageSize, 1024), byId.reversed());
+        boolean more = false;
+        for (T item : items) {
+            final long id = item.getNumericId();
+            if (id <= after)
+                continue;
+            if (selection.size() < pageSize) {
+                selection.add(item);
+            } else {
+                more = true;
+                if (id < selection.peek().getNumericId()) {
+                    selection.poll();
+                    selection.add(item);
+                }
+            }
+        }
+
+        final List<T> pageItems = new ArrayList<>(selection);
+        pageItems.sort(byId);
+        final String next = more ? pageItems.get(pageItems.size() - 1).getId() : null;
+        return new Page<>(pageItems, next);
+    }
+
+    /**
+     * Selects one page of items already sorted by id, as page does, in O(log n + pageSize). Meant for callers paging
+     * through the same list many times, such as the UI walking every page of a snapshot.
+     * @param itemsSortedById
+     * Items to export, ordered by increasing id.
+     * @param pageSize
+     * Maximum number of items of the page.
+     * @param token
+     * Continuation token returned for the previous page, or null for the first page.
+     * @return
+     * The page.
+     * @throws IllegalArgumentException
+     * If the page size is not positive or the token is malformed.
+     */
+    public static <T extends Item> Page<T> pageSorted(List<? extends T> itemsSortedById, int pageSize, String token) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        final long after = token == null ? Long.MIN_VALUE : parseToken(token);
+
+        // First item whose id comes after the cursor
+        int low = 0;
+        int high = itemsSortedById.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (itemsSortedById.get(middle).getNumericId() <= after)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        final int end = (int) Math.min((long) low + pageSize, itemsSortedById.size());
+        final List<T> pageItems = new ArrayList<>(itemsSortedById.subList(low, end));
+        final String next = end < itemsSortedById.size() ? pageItems.get(pageItems.size() - 1).getId() : null;
+        return new Page<>(pageItems, next);
+    }
+
+    private static long parseToken(String token) {
+        try {
+            return Long.parseLong(token, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed continuation token: " + token, e);
+        }
+    }
+
+    /**
+     * Items of one page, with the token to ask for the next one.
+     */
+    public static final class Page<T extends Item> {
+
+        private final List<T> items;
+        private final String next;
+
+        Page(List<T> items, String next) {
+            this.items = Collections.unmodifiableList(items);
+            this.next = next;
+        }
+
+        /**
+         * @return
+         * Items of the page, ordered by id.
+         */
+        public List<T> getItems() {
+            return items;
+        }
+
+        /**
+         * @return
+         * Continuation token of the next page, or null if this page is the last one.
+         */
+        public String getNext() {
+            return next;
+        }
+    }
+}
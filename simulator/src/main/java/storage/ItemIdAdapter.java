@@ -0,0 +1,52 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes the id of an item in Json as the string returned by getId, which is what the frontend app and the Kapua
+ * topics use to refer to items. Reads both that string and a plain number.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Item
+ */
+final class ItemIdAdapter extends TypeAdapter<Long> {
+
+    @Override
+    public void write(JsonWriter out, Long id) throws IOException {
+        if (id == null)
+            out.nullValue();
+        else
+            out.value(Long.toString(id, Character.MAX_RADIX));
+    }
+
+    @Override
+    public Long read(JsonReader in) throws IOException {
+        final JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.NUMBER)
+            return in.nextLong();
+        return Long.parseLong(in.nextString(), Character.MAX_RADIX);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the ids of the items. Ids are unique positive longs within a run.
+ *
+ * Each thread reserves blocks of ids from a shared counter and then allocates from its block without synchronization,
+ * so that threads creating many items (e.g. data generation) do not contend on the counter. Restoring ids raises a
+ * floor: a thread drops its block if the block got below the floor, as its ids may have been restored meanwhile.
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see Item
+ */
+final class ItemIdAllocator {
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final AtomicLong nextBlock = new AtomicLong(1);
+    /** Ids below the floor may have been restored and must not be allocated anymore. **/
+    private static final AtomicLong floor = new AtomicLong(1);
+    private static final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[]{0, 0});
+    /** Id to give to the next item created by the thread, 0 if none. **/
+    private static final ThreadLocal<long[]> restoredId = ThreadLocal.withInitial(() -> new long[]{0});
+
+    private ItemIdAllocator() {
+    }
+
+    /**
+     * @return
+     * A new id.
+     */
+    static long next() {
+        final long[] restored = restoredId.get();
+        if (restored[0] != 0) {
+            final long id = restored[0];
+            restored[0] = 0;
+            return id;
+        }
+        // block[0] is the next id of the thread's block, block[1] its end (exclusive)
+        final long[] block = blocks.get();
+        if (block[0] == block[1] || block[0] < floor.get()) {
+            block[0] = nextBlock.getAndAdd(BLOCK_SIZE);
+            block[1] = block[0] + BLOCK_SIZE;
+        }
+        return block[0]++;
+    }
+
+    /**
+     * Spreads the bits of an id. Consecutive ids would otherwise fill consecutive buckets of hash tables.
+     * @param id
+     * An id.
+     * @return
+     * Hash code of the id.
+     */
+    static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Makes sure that no id lower or equal to the given one will be allocated from now on. Used when items are
+     * restored with their original ids.
+     * @param id
+     * An id already in use.
+     */
+    static void reserve(long id) {
+        nextBlock.accumulateAndGet(id + 1, Math::max);
+        floor.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Makes the next id allocated by the current thread be the given one.
+     * @param id
+     * An id previously allocated, or a negative id that was not allocated (see Item).
+     */
+    static void restoreNext(long id) {
+        if (id == 0)
+            throw new IllegalArgumentException("Invalid item id: " + id);
+        if (id > 0)
+            reserve(id);
+        restoredId.get()[0] = id;
+    }
+
+    /**
+     * Cancels a restoreNext whose id has not been used.
+     */
+    static void clearRestored() {
+        restoredId.get()[0] = 0;
+    }
+}
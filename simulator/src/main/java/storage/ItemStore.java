@@ -14,35 +14,58 @@
 
 package storage;
 
-import com.google.gson.Gson;
-
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Defines Item factories (stores)
  *
+ * Items are kept in a dense array and indexed by their id, which gives O(1) add, delete and uniform random pick.
+ * A delete moves the last item of the array into the freed slot (swap-remove), so the order of the items is not
+ * preserved.
+ *
  * @author Arthur Deschamps
  * @since 1.0
  * @see Item
  */
 public class ItemStore<T extends Item> {
 
-    private Set<T> storage;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final ItemExporter EXPORTER = new ItemExporter();
+
+    private Object[] items;
+    private int size;
+    /** Position of each item in the array, keyed by item id. **/
+    private final LongIntMap slots;
+    /** Incremented on each structural modification. Allows iterators to fail fast like HashSet's. **/
+    private int modCount;
+
+    private final List<ItemStoreListener<? super T>> listeners = new CopyOnWriteArrayList<>();
+    private final Set<T> storage = new StorageView();
+    private final Random random = new Random();
 
     public ItemStore() {
-        storage = new HashSet<>();
+        this.items = new Object[DEFAULT_CAPACITY];
+        this.slots = new LongIntMap();
     }
 
     /**
      * Fill the store "storage"
      */
     public void setStorage(Set<T> storage) {
-        this.storage = storage;
+        final List<T> newItems = new ArrayList<>(storage);
+        clear();
+        newItems.forEach(this::add);
     }
 
 
     /**
-     * Return the Store "storage"
+     * Return the Store "storage". The returned set is a live view of the store: changes made through it are
+     * reflected in the store and vice versa.
      */
     public Set<T> getStorage() {
         return storage;
@@ -54,7 +77,7 @@ public class ItemStore<T extends Item> {
      */
     public void add(T object) {
         if (object != null)
-            getStorage().add(object);
+            insert(object);
     }
 
     /**
@@ -62,7 +85,7 @@ public class ItemStore<T extends Item> {
      */
     public void delete(T object) {
         if (object != null)
-            getStorage().remove(object);
+            remove(object);
     }
 
     /**
@@ -70,8 +93,25 @@ public class ItemStore<T extends Item> {
      * storage as json
      */
     public String asJson() {
-        Gson gson = new Gson();
-        return gson.toJson(getStorage());
+        final StringWriter out = new StringWriter();
+        try {
+            asJson(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the storage as json, one item at a time. Big stores are better exported this way, or by pages with
+     * ItemExporter.
+     * @param out
+     * Where to write. It is flushed but not closed.
+     * @throws IOException
+     * If the writer fails.
+     */
+    public void asJson(Writer out) throws IOException {
+        EXPORTER.write(getStorage(), out);
     }
 
     /**
@@ -79,14 +119,205 @@ public class ItemStore<T extends Item> {
      * random element of the storage
      */
     public Optional<T> getRandom() {
-        if (storage.size() > 0) {
-            Random random = new Random();
-            Iterator<T> iterator = getStorage().iterator();
-            for (int i = 0; i < random.nextInt(storage.size()); i++) {
-                iterator.next();
-            }
-            return Optional.of(iterator.next());
-        }
+        if (size > 0)
+            return Optional.of(itemAt(random.nextInt(size)));
         return Optional.empty();
     }
+
+    /**
+     * Items at given positions of the store, for instance positions drawn by ProbabilityUtils.sample. Positions go
+     * from 0 to size() excluded, and change when items are deleted.
+     * @param positions
+     * Positions of the items. Positions out of the store are ignored.
+     * @return
+     * The items, in the order of the positions.
+     */
+    public List<T> getAt(int[] positions) {
+        final List<T> found = new ArrayList<>(positions.length);
+        for (int position : positions)
+            if (position >= 0 && position < size)
+                found.add(itemAt(position));
+        return found;
+    }
+
+    /**
+     * Registers a listener that will be notified of every addition and deletion.
+     * @param listener
+     * The listener to register.
+     */
+    public void addListener(ItemStoreListener<? super T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     * @param listener
+     * The listener to unregister.
+     */
+    public void removeListener(ItemStoreListener<? super T> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return
+     * A number that changes every time an item is added or deleted. Allows to tell if the store changed since a
+     * previous call.
+     */
+    public long getVersion() {
+        return modCount;
+    }
+
+    /**
+     * @return
+     * Number of items in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    boolean insert(T object) {
+        if (slots.containsKey(object.getNumericId()))
+            return false;
+        if (size == items.length)
+            items = Arrays.copyOf(items, size * 2);
+        items[size] = object;
+        slots.put(object.getNumericId(), size);
+        size++;
+        modCount++;
+        notifyAdd(object);
+        return true;
+    }
+
+    boolean remove(Item object) {
+        final int slot = slots.get(object.getNumericId());
+        if (slot < 0)
+            return false;
+        removeAt(slot);
+        return true;
+    }
+
+    boolean contains(Item object) {
+        return slots.containsKey(object.getNumericId());
+    }
+
+    /**
+     * Removes the item at the given slot by moving the last item into it.
+     */
+    private void removeAt(int slot) {
+        final T removed = itemAt(slot);
+        final int last = size - 1;
+        if (slot != last) {
+            final Item moved = (Item) items[last];
+            items[slot] = moved;
+            slots.put(moved.getNumericId(), slot);
+        }
+        items[last] = null;
+        slots.remove(removed.getNumericId());
+        size--;
+        modCount++;
+        notifyDelete(removed);
+    }
+
+    private void clear() {
+        while (size > 0)
+            removeAt(size - 1);
+    }
+
+    /**
+     * Notifies the listeners that an item has been added. Meant for stores that manage their own storage.
+     */
+    protected void notifyAdd(T item) {
+        listeners.forEach(listener -> listener.onAdd(item));
+    }
+
+    /**
+     * Notifies the listeners that an item has been deleted. Meant for stores that manage their own storage.
+     */
+    protected void notifyDelete(T item) {
+        listeners.forEach(listener -> listener.onDelete(item));
+    }
+
+    /**
+     * @return
+     * The registered listeners, for stores that notify some of them in their own way (e.g. in bulk).
+     */
+    protected List<ItemStoreListener<? super T>> getListeners() {
+        return Collections.unmodifiableList(listeners);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(int slot) {
+        return (T) items[slot];
+    }
+
+    /**
+     * Set view of the store, as returned by getStorage.
+     */
+    private class StorageView extends AbstractSet<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int cursor = 0;
+                private int lastReturned = -1;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < size;
+                }
+
+                @Override
+                public T next() {
+                    checkForComodification();
+                    if (cursor >= size)
+                        throw new NoSuchElementException();
+                    lastReturned = cursor++;
+                    return itemAt(lastReturned);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastReturned < 0)
+                        throw new IllegalStateException();
+                    checkForComodification();
+                    removeAt(lastReturned);
+                    // The last item has been moved into the freed slot and still has to be visited
+                    cursor = lastReturned;
+                    lastReturned = -1;
+                    expectedModCount = modCount;
+                }
+
+                private void checkForComodification() {
+                    if (modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean add(T object) {
+            return insert(Objects.requireNonNull(object));
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return (o instanceof Item) && ItemStore.this.remove((Item) o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof Item) && ItemStore.this.contains((Item) o);
+        }
+
+        @Override
+        public void clear() {
+            ItemStore.this.clear();
+        }
+    }
 }
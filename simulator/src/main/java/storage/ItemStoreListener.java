@@ -0,0 +1,39 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+/**
+ * Gets notified of every item added to or deleted from an ItemStore, whether the change went through the store
+ * itself or through its storage view.
+ * @author Arthur Deschamps
+ * @since 1.0
+ * @see ItemStore
+ */
+public interface ItemStoreListener<T extends Item> {
+
+    /**
+     * Called after an item has been added to the store.
+     * @param item
+     * The added item.
+     */
+    void onAdd(T item);
+
+    /**
+     * Called after an item has been deleted from the store.
+     * @param item
+     * The deleted item.
+     */
+    void onDelete(T item);
+}
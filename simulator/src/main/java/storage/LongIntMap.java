@@ -0,0 +1,116 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to int values, without boxing. Uses open addressing with linear probing.
+ * Keys must be strictly positive (0 marks free entries) and values can't be negative (-1 means "no value").
+ *
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+final class LongIntMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntMap() {
+        keys = new long[DEFAULT_CAPACITY];
+        values = new int[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * @return
+     * Value associated to the key, or -1 if there is none.
+     */
+    int get(long key) {
+        final int mask = keys.length - 1;
+        for (int index = ItemIdAllocator.hash(key) & mask; keys[index] != 0; index = (index + 1) & mask)
+            if (keys[index] == key)
+                return values[index];
+        return -1;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) >= 0;
+    }
+
+    void put(long key, int value) {
+        if ((size + 1) * 4 > keys.length * 3)
+            resize(keys.length * 2);
+        final int mask = keys.length - 1;
+        int index = ItemIdAllocator.hash(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    void remove(long key) {
+        final int mask = keys.length - 1;
+        int index = ItemIdAllocator.hash(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == 0)
+                return;
+            index = (index + 1) & mask;
+        }
+        // Shifts back the following entries of the cluster so that lookups don't stop at the freed entry
+        int free = index;
+        index = (index + 1) & mask;
+        while (keys[index] != 0) {
+            final int home = ItemIdAllocator.hash(keys[index]) & mask;
+            // Move the entry if its home position is not between the free entry and its current position
+            if (((index - home) & mask) >= ((index - free) & mask)) {
+                keys[free] = keys[index];
+                values[free] = values[index];
+                free = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[free] = 0;
+        size--;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != 0)
+                put(oldKeys[i], oldValues[i]);
+    }
+}
@@ -74,4 +74,31 @@ public class CustomersClusterFinderTest {
         logger.info("Time elapsed in seconds: "+((stop-start)/1000));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testClustersFollowCustomers() {
+        List<List<Customer>> clusters = dbscanner.getClusters();
+        // Nothing changed, the clusters are not computed again
+        Assert.assertSame(clusters, dbscanner.getClusters());
+
+        parametrizer.getCompany().getCustomerStore().getStorage().removeIf(customer -> random.nextBoolean());
+        Set<Customer> remaining = new HashSet<>(parametrizer.getCompany().getCustomers());
+        for (List<Customer> cluster : dbscanner.getClusters())
+            Assert.assertTrue(remaining.containsAll(cluster));
+    }
+
+    @Test(timeout = 120000)
+    public void testParallelBuildMatchesSequential() {
+        parametrizer.getCompany().setType(CompanyType.LOCAL);
+        List<List<Customer>> parallelClusters = dbscanner.build();
+        dbscanner.setParallel(false);
+        List<List<Customer>> sequentialClusters = dbscanner.build();
+        Assert.assertFalse(sequentialClusters.isEmpty());
+        Assert.assertEquals(sequentialClusters.size(), parallelClusters.size());
+        for (int i = 0; i < sequentialClusters.size(); i++) {
+            Assert.assertEquals(sequentialClusters.get(i).size(), parallelClusters.get(i).size());
+            for (int j = 0; j < sequentialClusters.get(i).size(); j++)
+                Assert.assertSame(sequentialClusters.get(i).get(j), parallelClusters.get(i).get(j));
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package communications.ui.utils;
+
+import company.address.Address;
+import company.address.Coordinates;
+import company.customer.Customer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for IncrementalCustomersClusters class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class IncrementalCustomersClustersTest {
+
+    private static final double EPS = 150;
+    private static final int MIN_NODES = 4;
+
+    private final Random random = new Random(3);
+    private int customersCount;
+
+    private Customer newCustomer() {
+        // Customers gathered around a few towns so that clusters form, merge and split
+        final float latitude = 40 + random.nextInt(4) * 3 + (float) random.nextGaussian();
+        final float longitude = random.nextInt(4) * 3 + (float) random.nextGaussian();
+        return new Customer(Integer.toString(customersCount++), "", new Address("", "", "", "", "", new Coordinates(latitude, longitude)), "", "");
+    }
+
+    private static boolean neighbours(Customer c1, Customer c2) {
+        return Coordinates.calculateDistance(c1.getAddress().getCoordinates(), c2.getAddress().getCoordinates()) <= EPS;
+    }
+
+    /**
+     * Checks the clustering against DBSCAN computed from scratch. Core customers must be grouped exactly the same way,
+     * and border customers must be in one cluster holding one of their core neighbours.
+     */
+    private static void assertClustering(List<Customer> customers, List<List<Customer>> clusters) {
+        final Set<Customer> cores = customers.stream()
+                .filter(c -> customers.stream().filter(other -> neighbours(c, other)).count() >= MIN_NODES)
+                .collect(Collectors.toCollection(() -> Collections.newSetFromMap(new IdentityHashMap<>())));
+        final Map<Customer, Integer> clusterOf = new IdentityHashMap<>();
+        for (int i = 0; i < clusters.size(); i++)
+            for (Customer customer : clusters.get(i))
+                Assert.assertNull(clusterOf.put(customer, i));
+
+        for (Customer customer : customers) {
+            final List<Customer> coreNeighbours = customers.stream()
+                    .filter(other -> cores.contains(other) && neighbours(customer, other))
+                    .collect(Collectors.toList());
+            if (cores.contains(customer)) {
+                // Core neighbours are in the same cluster
+                for (Customer core : coreNeighbours)
+                    Assert.assertEquals(clusterOf.get(customer), clusterOf.get(core));
+            } else if (coreNeighbours.isEmpty()) {
+                Assert.assertNull(clusterOf.get(customer));
+            } else {
+                Assert.assertTrue(coreNeighbours.stream().anyMatch(core -> clusterOf.get(core).equals(clusterOf.get(customer))));
+            }
+        }
+        // Every cluster is connected through core customers
+        for (List<Customer> cluster : clusters) {
+            final List<Customer> clusterCores = cluster.stream().filter(cores::contains).collect(Collectors.toList());
+            Assert.assertFalse(clusterCores.isEmpty());
+            final Set<Customer> reached = Collections.newSetFromMap(new IdentityHashMap<>());
+            final Deque<Customer> toVisit = new ArrayDeque<>();
+            toVisit.push(clusterCores.get(0));
+            reached.add(clusterCores.get(0));
+            while (!toVisit.isEmpty()) {
+                final Customer core = toVisit.pop();
+                for (Customer other : clusterCores)
+                    if (!reached.contains(other) && neighbours(core, other)) {
+                        reached.add(other);
+                        toVisit.push(other);
+                    }
+            }
+            Assert.assertEquals(clusterCores.size(), reached.size());
+        }
+    }
+
+    @Test
+    public void testAgainstFullDbscan() {
+        IncrementalCustomersClusters clusters = new IncrementalCustomersClusters(EPS, MIN_NODES);
+        List<Customer> customers = new ArrayList<>();
+        for (int step = 0; step < 20; step++) {
+            for (int i = 0; i < 30; i++) {
+                Customer customer = newCustomer();
+                customers.add(customer);
+                clusters.onAdd(customer);
+            }
+            for (int i = 0; i < 20 && !customers.isEmpty(); i++)
+                clusters.onDelete(customers.remove(random.nextInt(customers.size())));
+            Assert.assertEquals(customers.size(), clusters.size());
+            assertClustering(customers, clusters.getClusters());
+        }
+        // Deleting everything leaves no cluster
+        customers.forEach(clusters::onDelete);
+        Assert.assertTrue(clusters.getClusters().isEmpty());
+    }
+
+    @Test
+    public void testClustersAreReadWithoutRecomputing() {
+        IncrementalCustomersClusters clusters = new IncrementalCustomersClusters(EPS, MIN_NODES);
+        for (int i = 0; i < 100; i++)
+            clusters.onAdd(newCustomer());
+        List<List<Customer>> first = clusters.getClusters();
+        Assert.assertSame(first, clusters.getClusters());
+        clusters.onAdd(newCustomer());
+        Assert.assertNotSame(first, clusters.getClusters());
+    }
+}
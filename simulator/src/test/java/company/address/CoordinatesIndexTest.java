@@ -0,0 +1,87 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.address;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for CoordinatesIndex class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class CoordinatesIndexTest {
+
+    private static List<Integer> scan(List<Coordinates> points, Coordinates center, double distance) {
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++)
+            if (points.get(i) != null && Coordinates.calculateDistance(center, points.get(i)) <= distance)
+                found.add(i);
+        return found;
+    }
+
+    @Test
+    public void testQueryMatchesScan() {
+        Random random = new Random(7);
+        List<Coordinates> points = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            // Latitudes out of bounds, as some tests generate them, must work too
+            points.add(new Coordinates(random.nextFloat() * 400 - 200, random.nextFloat() * 400 - 200));
+        // Points exactly on the same spot and around the poles and the antimeridian
+        points.add(new Coordinates(points.get(0)));
+        points.add(new Coordinates(89.9f, 10f));
+        points.add(new Coordinates(89.9f, -170f));
+        points.add(new Coordinates(0f, 179.99f));
+        points.add(new Coordinates(0f, -179.99f));
+
+        for (double distance : new double[]{0, 50, 500, 5000, 30000}) {
+            CoordinatesIndex index = CoordinatesIndex.of(points, distance);
+            Assert.assertEquals(points.size(), index.size());
+            for (Coordinates center : points)
+                Assert.assertEquals(scan(points, center, distance), index.query(center));
+        }
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        Random random = new Random(11);
+        List<Coordinates> points = new ArrayList<>();
+        CoordinatesIndex index = new CoordinatesIndex(800);
+        for (int i = 0; i < 1000; i++) {
+            Coordinates point = new Coordinates(random.nextFloat() * 180 - 90, random.nextFloat() * 360 - 180);
+            points.add(point);
+            index.add(i, point);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            Assert.assertTrue(index.remove(i));
+            points.set(i, null);
+        }
+        Assert.assertFalse(index.remove(0));
+        // Moving a point
+        Coordinates moved = new Coordinates(10f, 10f);
+        index.add(1, moved);
+        points.set(1, moved);
+
+        Assert.assertEquals(666, index.size());
+        for (int i = 0; i < 100; i++) {
+            Coordinates center = new Coordinates(random.nextFloat() * 180 - 90, random.nextFloat() * 360 - 180);
+            Assert.assertEquals(scan(points, center, 800), index.query(center));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.address;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for CoordinatesTable class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class CoordinatesTableTest {
+
+    private static List<Coordinates> randomCoordinates(Random random, int count) {
+        List<Coordinates> coordinates = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            coordinates.add(new Coordinates(random.nextFloat() * 180 - 90, random.nextFloat() * 360 - 180));
+        return coordinates;
+    }
+
+    @Test
+    public void testDistances() {
+        Random random = new Random(1);
+        List<Coordinates> coordinates = randomCoordinates(random, 2000);
+        CoordinatesTable table = CoordinatesTable.of(coordinates);
+        Assert.assertEquals(2000, table.size());
+        double[] distances = new double[table.size()];
+        for (Coordinates from : randomCoordinates(random, 20)) {
+            table.distances(from, distances);
+            for (int i = 0; i < coordinates.size(); i++)
+                Assert.assertEquals(Coordinates.calculateDistance(from, coordinates.get(i)), distances[i], 1e-6);
+            table.approximateDistances(from, distances);
+            for (int i = 0; i < coordinates.size(); i++)
+                Assert.assertEquals(Coordinates.calculateApproximateDistance(from, coordinates.get(i)), distances[i],
+                        1e-6);
+        }
+    }
+
+    @Test
+    public void testWithin() {
+        Random random = new Random(2);
+        List<Coordinates> coordinates = randomCoordinates(random, 2000);
+        CoordinatesTable table = new CoordinatesTable();
+        coordinates.forEach(table::add);
+        int[] found = new int[table.size()];
+        for (Coordinates center : randomCoordinates(random, 20)) {
+            final int count = table.within(center, 2000, found);
+            int expected = 0;
+            for (int i = 0; i < coordinates.size(); i++)
+                if (Coordinates.calculateDistance(center, coordinates.get(i)) <= 2000)
+                    Assert.assertEquals(i, found[expected++]);
+            Assert.assertEquals(expected, count);
+        }
+
+        // Replacing coordinates
+        table.set(0, new Coordinates(0f, 0f));
+        Assert.assertEquals(1, table.within(new Coordinates(0f, 0.1f), 12, found));
+        Assert.assertEquals(0, found[0]);
+        // Removing moves the last coordinates into the freed index
+        table.remove(0);
+        Assert.assertEquals(1999, table.size());
+        Assert.assertEquals(0, table.within(new Coordinates(0f, 0.1f), 12, found));
+        double[] distances = new double[table.size()];
+        table.distances(coordinates.get(1999), distances);
+        Assert.assertEquals(0, distances[0], 1e-6);
+    }
+}
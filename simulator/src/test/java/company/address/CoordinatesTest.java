@@ -17,6 +17,8 @@ package company.address;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * Tests CoordinatesTest class
  *
@@ -43,4 +45,63 @@ public class CoordinatesTest {
         Assert.assertEquals(Coordinates.calculateDistance(p1,p2), Coordinates.calculateDistance(p2,p1),1e-15);
         Assert.assertEquals(Coordinates.calculateDistance(p1,p2),7480,50);
     }
+
+    @Test
+    public void testMoveTowards() {
+        Coordinates p1 = new Coordinates(42.990967f, -71.463767f);
+        Coordinates p2 = new Coordinates(50.000000f, 34.9588f);
+        final double distance = Coordinates.calculateDistance(p1, p2);
+
+        // Halfway along the great circle
+        Coordinates middle = Coordinates.moveTowards(p1, p2, distance / 2);
+        Assert.assertEquals(distance / 2, Coordinates.calculateDistance(p1, middle), 1);
+        Assert.assertEquals(distance / 2, Coordinates.calculateDistance(middle, p2), 1);
+
+        // Snaps to the destination when it is within reach
+        Assert.assertEquals(p2, Coordinates.moveTowards(p1, p2, distance + 1));
+        Assert.assertEquals(p1, Coordinates.moveTowards(p1, p2, 0));
+
+        // Crosses the antimeridian
+        Coordinates east = new Coordinates(10f, 179.5f);
+        Coordinates west = new Coordinates(10f, -179.5f);
+        Coordinates crossed = Coordinates.moveTowards(east, west, Coordinates.calculateDistance(east, west) / 2);
+        Assert.assertEquals(180, Math.abs(crossed.getLongitude()), 0.01);
+    }
+
+    @Test
+    public void testCachedTrigonometry() {
+        Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            Coordinates p1 = new Coordinates(random.nextFloat() * 180 - 90, random.nextFloat() * 360 - 180);
+            Coordinates p2 = new Coordinates(random.nextFloat() * 180 - 90, random.nextFloat() * 360 - 180);
+            // Former formula, recomputing everything
+            final double dLat = Math.toRadians(p2.getLatitude() - p1.getLatitude());
+            final double dLon = Math.toRadians(p2.getLongitude() - p1.getLongitude());
+            final double a = Math.pow(Math.sin(dLat / 2), 2) + Math.pow(Math.sin(dLon / 2), 2) *
+                    Math.cos(Math.toRadians(p1.getLatitude())) * Math.cos(Math.toRadians(p2.getLatitude()));
+            Assert.assertEquals(6371 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a)),
+                    Coordinates.calculateDistance(p1, p2), 0.01);
+            Assert.assertEquals(Coordinates.calculateDistance(p1, p2), Coordinates.calculateDistance(p2, p1), 0);
+        }
+        // Changing the coordinates updates the cache
+        Coordinates coordinates = new Coordinates(0f, 0f);
+        Assert.assertEquals(1112, Coordinates.calculateDistance(coordinates, new Coordinates(10f, 0f)), 1);
+        coordinates.setLatitude(10);
+        Assert.assertEquals(0, Coordinates.calculateDistance(coordinates, new Coordinates(10f, 0f)), 1e-9);
+    }
+
+    @Test
+    public void testApproximateDistance() {
+        Random random = new Random(9);
+        for (int i = 0; i < 1000; i++) {
+            Coordinates p1 = new Coordinates(random.nextFloat() * 140 - 70, random.nextFloat() * 360 - 180);
+            Coordinates p2 = Coordinates.applyBearing(p1, random.nextDouble() * 2 * Math.PI, random.nextDouble() * 300);
+            final double distance = Coordinates.calculateDistance(p1, p2);
+            Assert.assertEquals(distance, Coordinates.calculateApproximateDistance(p1, p2), 0.01 * distance + 1e-3);
+        }
+        // Across the antimeridian
+        Assert.assertEquals(Coordinates.calculateDistance(new Coordinates(0f, 179.9f), new Coordinates(0f, -179.9f)),
+                Coordinates.calculateApproximateDistance(new Coordinates(0f, 179.9f), new Coordinates(0f, -179.9f)),
+                0.01);
+    }
 }
@@ -14,15 +14,23 @@
 
 package company.company;
 
+import company.customer.Customer;
 import company.delivery.Delivery;
+import company.delivery.DeliveryStatus;
 import company.order.Order;
+import company.product.Product;
 import company.product.ProductType;
+import company.transportation.Transportation;
+import company.transportation.TransportationHealthState;
+import company.transportation.TransportationMode;
+import economy.Economy;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import simulation.generators.CompanyGenerator;
 import simulation.generators.DataGenerator;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -114,4 +122,159 @@ public class CompanyTest {
         // Now available transportation should be empty
         Assert.assertFalse(company.getAvailableTransportation().isPresent());
     }
+
+    @Test
+    public void testIndexes() {
+        Company company = CompanyGenerator.generateEmptyRandomCompany();
+        DataGenerator dataGenerator = new DataGenerator(company);
+        ProductType firstType = DataGenerator.generateRandomProductType();
+        ProductType secondType = DataGenerator.generateRandomProductType();
+        company.newProductType(firstType);
+        company.newProductType(secondType);
+        Product first = dataGenerator.generateProductFromProductType(firstType);
+        Product second = dataGenerator.generateProductFromProductType(secondType);
+        company.newProduct(first);
+        company.newProduct(second);
+        company.newProduct(dataGenerator.generateProductFromProductType(secondType));
+        Customer customer = dataGenerator.generateRandomCustomer();
+        company.newCustomer(customer);
+
+        Order order = new Order(customer, Arrays.asList(first, second));
+        company.newOrder(order);
+        Assert.assertEquals(0, company.getProductQuantity(firstType));
+        Assert.assertEquals(1, company.getProductQuantity(secondType));
+        Assert.assertEquals(1, company.countOrdersFromProductType(firstType));
+        Assert.assertEquals(1, company.getOrdersFromProductType(secondType).size());
+        // Customer can't be deleted while having orders
+        company.deleteCustomer(customer);
+        Assert.assertTrue(company.getCustomers().contains(customer));
+
+        company.cancelOrder(order);
+        Assert.assertEquals(1, company.getProductQuantity(firstType));
+        Assert.assertEquals(2, company.getProductQuantity(secondType));
+        Assert.assertEquals(0, company.countOrdersFromProductType(firstType));
+
+        // Indexes stay in sync when the storage is modified directly
+        company.newOrder(order);
+        company.getOrders().removeIf(o -> true);
+        Assert.assertEquals(0, company.countOrdersFromProductType(secondType));
+        company.deleteCustomer(customer);
+        Assert.assertFalse(company.getCustomers().contains(customer));
+    }
+
+    @Test
+    public void testIndexesOfItemsWithSameValues() {
+        Company company = CompanyGenerator.generateEmptyRandomCompany();
+        DataGenerator dataGenerator = new DataGenerator(company);
+        // Same values, but distinct items: items are equal by id only
+        ProductType firstType = DataGenerator.generateRandomProductType();
+        ProductType secondType = new ProductType(firstType.getName(), firstType.getProductionCountry(),
+                firstType.getBasePrice(), firstType.getWeight(), firstType.isFragile());
+        Assert.assertNotEquals(firstType, secondType);
+        company.newProductType(firstType);
+        company.newProductType(secondType);
+        Assert.assertEquals(2, company.getProductTypes().size());
+        company.newProduct(dataGenerator.generateProductFromProductType(firstType));
+        Product second = dataGenerator.generateProductFromProductType(secondType);
+        company.newProduct(second);
+        company.newProduct(dataGenerator.generateProductFromProductType(secondType));
+        Assert.assertEquals(1, company.getProductQuantity(firstType));
+        Assert.assertEquals(2, company.getProductQuantity(secondType));
+
+        Customer customer = dataGenerator.generateRandomCustomer();
+        Customer sameCustomer = new Customer(customer.getFirstName(), customer.getLastName(), customer.getAddress(),
+                customer.getEmailAddress(), customer.getPhoneNumber());
+        Assert.assertNotEquals(customer, sameCustomer);
+        company.newCustomer(customer);
+        company.newCustomer(sameCustomer);
+        Order order = new Order(customer, Arrays.asList(second));
+        company.newOrder(order);
+        Assert.assertEquals(0, company.countOrdersFromProductType(firstType));
+        Assert.assertEquals(1, company.countOrdersFromProductType(secondType));
+        // Only the customer who ordered is kept
+        company.deleteCustomer(sameCustomer);
+        company.deleteCustomer(customer);
+        Assert.assertEquals(1, company.getCustomers().size());
+        Assert.assertTrue(company.getCustomers().contains(customer));
+    }
+
+    @Test
+    public void testSnapshots() {
+        Company company = CompanyGenerator.generateEmptyRandomCompany();
+        DataGenerator dataGenerator = new DataGenerator(company);
+        company.newCustomer(dataGenerator.generateRandomCustomer());
+        company.newTransportation(DataGenerator.generateRandomTransportation());
+
+        CompanySnapshot first = company.publishSnapshot(new Economy());
+        Assert.assertSame(first, company.getSnapshot());
+        Assert.assertEquals(1, first.getCustomers().size());
+        Assert.assertEquals(1, (int) first.getStoresSizes().get("transportation"));
+
+        // Unchanged stores are shared with the previous snapshot
+        company.newProductType(DataGenerator.generateRandomProductType());
+        CompanySnapshot second = company.publishSnapshot(null);
+        Assert.assertEquals(first.getTick() + 1, second.getTick());
+        Assert.assertSame(first.getCustomers(), second.getCustomers());
+        Assert.assertEquals(1, (int) second.getStoresSizes().get("productTypes"));
+
+        // Snapshots are not affected by later changes
+        company.newCustomer(dataGenerator.generateRandomCustomer());
+        Assert.assertEquals(1, second.getCustomers().size());
+        Assert.assertEquals(2, company.publishSnapshot(null).getCustomers().size());
+    }
+
+    @Test
+    public void testDeliveryArchiving() {
+        Company company = CompanyGenerator.generateLocalCompany();
+        company.setDeliveryRetention(2);
+        DataGenerator dataGenerator = new DataGenerator(company);
+        Delivery[] deliveries = new Delivery[2];
+        for (int i = 0; i < deliveries.length; i++) {
+            dataGenerator.generateRandomOrder().ifPresent(company::newOrder);
+            deliveries[i] = dataGenerator.generateRandomDelivery().orElseThrow(AssertionError::new);
+            company.newDelivery(deliveries[i]);
+        }
+        final int activeDeliveries = company.getDeliveries().size();
+        company.confirmDelivery(deliveries[0]);
+        company.cancelDelivery(deliveries[1]);
+
+        // Deliveries that are over stay visible during the retention
+        Assert.assertEquals(0, company.archiveDeliveries());
+        Assert.assertEquals(0, company.archiveDeliveries());
+        Assert.assertEquals(2, company.archiveDeliveries());
+        Assert.assertEquals(activeDeliveries - 2, company.getDeliveries().size());
+        Assert.assertEquals(1, company.getDeliveryArchive().count(DeliveryStatus.DELIVERED));
+        Assert.assertEquals(1, company.getDeliveryArchive().count(DeliveryStatus.CANCELLED));
+        Assert.assertEquals(deliveries[0].getNumericId(), company.getDeliveryArchive().getId(0));
+        Assert.assertEquals(2, (int) company.publishSnapshot(null).getStoresSizes().get("archivedDeliveries"));
+    }
+
+    @Test
+    public void testAvailableTransportationFollowsDeliveries() {
+        Company company = CompanyGenerator.generateEmptyRandomCompany();
+        DataGenerator dataGenerator = new DataGenerator(company);
+        company.newCustomer(dataGenerator.generateRandomCustomer());
+        company.newProductType(DataGenerator.generateRandomProductType());
+        company.newProduct(dataGenerator.generateProductFromProductType(company.getProductTypes().iterator().next()));
+        Transportation transportation = new Transportation(10, 100, TransportationMode.LAND_ROAD);
+        company.newTransportation(transportation);
+        Assert.assertSame(transportation, company.getAvailableTransportation(TransportationMode.LAND_ROAD,
+                TransportationHealthState.PERFECT).get());
+
+        dataGenerator.generateRandomOrder().ifPresent(company::newOrder);
+        Delivery delivery = dataGenerator.generateRandomDelivery().orElseThrow(AssertionError::new);
+        company.newDelivery(delivery);
+        Assert.assertFalse(company.getAvailableTransportation().isPresent());
+        Assert.assertTrue(company.getAllAvailableTransportation().isEmpty());
+
+        company.degradeTransportation(transportation);
+        company.confirmDelivery(delivery);
+        Assert.assertFalse(company.getAvailableTransportation(TransportationMode.LAND_ROAD,
+                TransportationHealthState.PERFECT).isPresent());
+        Assert.assertSame(transportation, company.getAvailableTransportation(TransportationMode.LAND_ROAD,
+                TransportationHealthState.GOOD).get());
+
+        Assert.assertTrue(company.deleteTransportation(transportation));
+        Assert.assertFalse(company.getAvailableTransportation().isPresent());
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.delivery;
+
+import company.address.Address;
+import company.address.Coordinates;
+import company.customer.Customer;
+import company.order.Order;
+import company.order.OrderLine;
+import company.product.ProductType;
+import company.transportation.Transportation;
+import company.transportation.TransportationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for DeliveryConsolidator class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class DeliveryConsolidatorTest {
+
+    private static final ProductType KILOGRAM = new ProductType("bag", "Canada", 10, 1000, false);
+
+    private static Order order(float latitude, float longitude, int kilograms) {
+        final Customer buyer = new Customer("first", "last", new Address("street", "city", "region", "country",
+                "zip", new Coordinates(latitude, longitude)), "email", "phone");
+        return Order.fromLines(buyer, Collections.singletonList(new OrderLine(KILOGRAM, kilograms, 10)));
+    }
+
+    private static Transportation transportation(float tonnes) {
+        return new Transportation(tonnes, 100, TransportationMode.LAND_ROAD);
+    }
+
+    @Test
+    public void testGroupsOrdersByDestination() {
+        final List<Order> orders = Arrays.asList(order(45.50f, -73.60f, 10), order(45.51f, -73.61f, 20),
+                order(48.85f, 2.35f, 30));
+        final List<DeliveryConsolidator.Load> loads = new DeliveryConsolidator()
+                .consolidate(orders, Arrays.asList(transportation(1), transportation(1)));
+
+        Assert.assertEquals(2, loads.size());
+        final Set<Order> paris = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Set<Order> montreal = Collections.newSetFromMap(new IdentityHashMap<>());
+        paris.add(orders.get(2));
+        montreal.add(orders.get(1));
+        montreal.add(orders.get(0));
+        for (DeliveryConsolidator.Load load : loads) {
+            final Set<Order> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+            loaded.addAll(load.getOrders());
+            Assert.assertTrue(loaded.equals(paris) || loaded.equals(montreal));
+        }
+    }
+
+    @Test
+    public void testRespectsCapacity() {
+        final List<Order> orders = new ArrayList<>();
+        for (int kilograms : new int[] {600, 500, 400, 300, 200, 100, 2000})
+            orders.add(order(45.5f, -73.6f, kilograms));
+        final List<Transportation> fleet = Arrays.asList(transportation(1), transportation(1), transportation(1));
+        final List<DeliveryConsolidator.Load> loads = new DeliveryConsolidator().consolidate(orders, fleet);
+
+        // 2100 kg fit in three vehicles of one tonne, the order of two tonnes does not fit in any
+        Assert.assertEquals(3, loads.size());
+        int loaded = 0;
+        final Set<Transportation> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DeliveryConsolidator.Load load : loads) {
+            Assert.assertTrue(load.getWeight() <= load.getTransportation().getCapacity() * 1e6);
+            Assert.assertTrue(used.add(load.getTransportation()));
+            double weight = 0;
+            for (Order order : load.getOrders())
+                weight += order.getWeight();
+            Assert.assertEquals(load.getWeight(), weight, 1e-6);
+            loaded += load.getOrders().size();
+        }
+        Assert.assertEquals(6, loaded);
+    }
+
+    @Test
+    public void testPrefersSmallestSufficientTransportation() {
+        final List<Order> orders = Arrays.asList(order(45.5f, -73.6f, 500), order(45.5f, -73.6f, 400));
+        final Transportation small = transportation(1);
+        final List<DeliveryConsolidator.Load> loads = new DeliveryConsolidator()
+                .consolidate(orders, Arrays.asList(transportation(20), small, transportation(5)));
+
+        Assert.assertEquals(1, loads.size());
+        Assert.assertSame(small, loads.get(0).getTransportation());
+        Assert.assertEquals(2, loads.get(0).getOrders().size());
+    }
+
+    @Test
+    public void testConsolidatesManyOrders() {
+        final Random random = new Random(42);
+        final List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            orders.add(order(random.nextFloat() * 120 - 60, random.nextFloat() * 360 - 180, 1 + random.nextInt(50)));
+        final List<Transportation> fleet = new ArrayList<>();
+        for (int i = 0; i < 5000; i++)
+            fleet.add(transportation(1 + random.nextInt(10)));
+
+        final List<DeliveryConsolidator.Load> loads = new DeliveryConsolidator().consolidate(orders, fleet);
+
+        Assert.assertEquals(fleet.size(), loads.size());
+        int loaded = 0;
+        for (DeliveryConsolidator.Load load : loads) {
+            Assert.assertTrue(load.getWeight() <= load.getTransportation().getCapacity() * 1e6);
+            loaded += load.getOrders().size();
+        }
+        Assert.assertTrue(loaded > fleet.size());
+    }
+}
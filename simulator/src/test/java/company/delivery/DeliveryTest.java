@@ -0,0 +1,88 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.delivery;
+
+import company.address.Address;
+import company.address.Coordinates;
+import company.order.Order;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for Delivery class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class DeliveryTest {
+
+    private static Address address(float latitude, float longitude) {
+        return new Address("street", "city", "region", "country", "zip", new Coordinates(latitude, longitude));
+    }
+
+    /**
+     * Former way of moving deliveries: tries every point of a 1 km grid. Deliveries now follow the great circle of each
+     * segment of their route, see RouteCursor.
+     */
+    private static Coordinates gridSearch(Coordinates location, Coordinates destination, float distance) {
+        Coordinates minCoordinates = location;
+        double minDistance = Coordinates.calculateDistance(location, destination);
+        for (double distanceX = -distance; distanceX <= distance; distanceX++)
+            for (double distanceY = -distance; distanceY <= distance; distanceY++)
+                if (Math.abs(distanceX) + Math.abs(distanceY) <= distance) {
+                    Coordinates candidate = Coordinates.applyDistance(location, (float) distanceX, (float) distanceY);
+                    double candidateDistance = Coordinates.calculateDistance(candidate, destination);
+                    if (minDistance >= candidateDistance) {
+                        minCoordinates = candidate;
+                        minDistance = candidateDistance;
+                    }
+                }
+        return minCoordinates;
+    }
+
+    @Test
+    public void testMovesAtLeastAsCloseAsGridSearch() {
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            Delivery delivery = new Delivery((Order) null, null,
+                    address(random.nextFloat() * 120 - 60, random.nextFloat() * 360 - 180),
+                    address(random.nextFloat() * 120 - 60, random.nextFloat() * 360 - 180));
+            final float distance = 20 + random.nextInt(40);
+            final Coordinates destination = delivery.getDestination().getCoordinates();
+            final double before = delivery.getDistanceFromDestination();
+
+            Coordinates moved = Coordinates.moveTowards(delivery.getCurrentLocation(), destination, distance);
+            Assert.assertEquals(distance, Coordinates.calculateDistance(delivery.getCurrentLocation(), moved), 0.01);
+            Assert.assertEquals(before - distance, Coordinates.calculateDistance(moved, destination), 0.01);
+            Assert.assertTrue(Coordinates.calculateDistance(moved, destination) <=
+                    Coordinates.calculateDistance(gridSearch(delivery.getCurrentLocation(), destination, distance),
+                            destination) + 1);
+        }
+    }
+
+    @Test
+    public void testReachesDestination() {
+        Delivery delivery = new Delivery((Order) null, null, address(45.5f, -73.6f), address(48.85f, 2.35f));
+        int hours = 0;
+        while (!delivery.isAtDestination()) {
+            delivery.setCurrentLocation(Coordinates.moveTowards(delivery.getCurrentLocation(),
+                    delivery.getDestination().getCoordinates(), 900));
+            hours++;
+        }
+        Assert.assertEquals((int) Math.ceil(5510 / 900.0), hours, 1);
+        Assert.assertEquals(delivery.getDestination().getCoordinates(), delivery.getCurrentLocation());
+    }
+}
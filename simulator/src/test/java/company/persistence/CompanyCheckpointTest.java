@@ -0,0 +1,124 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.persistence;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import company.customer.Customer;
+import company.product.ProductType;
+import economy.Economy;
+import org.junit.Assert;
+import org.junit.Test;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.DataGenerator;
+import simulation.main.Parametrizer;
+import simulation.simulators.SupplyChainControlSimulator;
+import simulation.simulators.runners.CompanySimulatorRunner;
+import storage.Item;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for CompanyCheckpoint class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class CompanyCheckpointTest {
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        for (InventoryMode inventoryMode : InventoryMode.values()) {
+            Company company = CompanyGenerator.generateCompany(CompanyType.LOCAL, inventoryMode);
+            Economy economy = new Economy();
+            CompanySimulatorRunner runner = new CompanySimulatorRunner(company, economy);
+            for (int i = 0; i < 200; i++)
+                runner.run();
+
+            Path path = Files.createTempFile("company", ".checkpoint");
+            try {
+                CompanyCheckpoint.save(path, company, economy);
+                CompanyCheckpoint checkpoint = CompanyCheckpoint.load(path);
+                assertSameCompany(company, checkpoint.getCompany());
+                Assert.assertEquals(economy.getGrowth(), checkpoint.getEconomy().getGrowth(), 0);
+                Assert.assertEquals(economy.getDemand(), checkpoint.getEconomy().getDemand(), 0);
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testWarmStart() throws IOException {
+        Company company = CompanyGenerator.generateCompany(CompanyType.LOCAL, InventoryMode.OBJECTS);
+        Path checkpointPath = Files.createTempFile("company", ".checkpoint");
+        Path journalPath = Files.createTempFile("company", ".journal");
+        try {
+            // Changes made after the checkpoint are found in the journal
+            CompanyCheckpoint.save(checkpointPath, company, null);
+            try (CompanyJournal journal = CompanyJournal.create(journalPath, false)) {
+                company.addListener(journal);
+                DataGenerator dataGenerator = new DataGenerator(company);
+                Customer customer = dataGenerator.generateRandomCustomer();
+                company.newCustomer(customer);
+                company.deleteProductType(company.getProductTypes().iterator().next());
+                company.newProductType(DataGenerator.generateRandomProductType());
+                dataGenerator.generateRandomOrder().ifPresent(company::newOrder);
+            }
+
+            Parametrizer parametrizer = new Parametrizer(new SupplyChainControlSimulator(), checkpointPath, journalPath);
+            assertSameCompany(company, parametrizer.getCompany());
+            Assert.assertNotNull(parametrizer.getEconomy());
+        } finally {
+            Files.delete(checkpointPath);
+            Files.delete(journalPath);
+        }
+    }
+
+    private static void assertSameCompany(Company expected, Company actual) {
+        Assert.assertEquals(expected.getName(), actual.getName());
+        Assert.assertEquals(expected.getType(), actual.getType());
+        Assert.assertEquals(expected.getInventoryMode(), actual.getInventoryMode());
+        Assert.assertEquals(expected.getHeadquarters(), actual.getHeadquarters());
+        Assert.assertEquals(ids(expected.getCustomers()), ids(actual.getCustomers()));
+        Assert.assertEquals(expected.getCustomers(), actual.getCustomers());
+        Assert.assertEquals(ids(expected.getProductTypes()), ids(actual.getProductTypes()));
+        Assert.assertEquals(ids(expected.getOrders()), ids(actual.getOrders()));
+        Assert.assertEquals(ids(expected.getAllTransportation()), ids(actual.getAllTransportation()));
+        Assert.assertEquals(ids(expected.getDeliveries()), ids(actual.getDeliveries()));
+        Assert.assertEquals(deliveryOrderIds(expected), deliveryOrderIds(actual));
+        Assert.assertEquals(expected.getProducts().size(), actual.getProducts().size());
+        Assert.assertEquals(expected.getDeliveryArchive().size(), actual.getDeliveryArchive().size());
+        for (ProductType productType : expected.getProductTypes()) {
+            Assert.assertEquals(expected.getProductQuantity(productType), actual.getProductQuantity(productType));
+            Assert.assertEquals(expected.countOrdersFromProductType(productType),
+                    actual.countOrdersFromProductType(productType));
+        }
+    }
+
+    private static Set<Long> deliveryOrderIds(Company company) {
+        return company.getDeliveries().stream().flatMap(delivery -> delivery.getOrders().stream())
+                .map(Item::getNumericId).collect(Collectors.toSet());
+    }
+
+    private static Set<Long> ids(Collection<? extends Item> items) {
+        return items.stream().map(Item::getNumericId).collect(Collectors.toSet());
+    }
+}
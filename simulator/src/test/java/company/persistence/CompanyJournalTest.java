@@ -0,0 +1,151 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.persistence;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import company.delivery.Delivery;
+import company.delivery.DeliveryStatus;
+import company.product.ProductType;
+import economy.Economy;
+import org.junit.Assert;
+import org.junit.Test;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.DataGenerator;
+import simulation.simulators.runners.CompanySimulatorRunner;
+import storage.Item;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for CompanyJournal class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class CompanyJournalTest {
+
+    @Test
+    public void testReplay() throws IOException {
+        for (InventoryMode inventoryMode : InventoryMode.values()) {
+            Path path = Files.createTempFile("company", ".journal");
+            try {
+                Company company = simulate(inventoryMode, path);
+                // The company is replayed from the state the journal was started from
+                Company replayed = new Company(CompanyType.LOCAL, "Journaled", company.getHeadquarters(),
+                        inventoryMode);
+                Assert.assertTrue(CompanyJournal.replay(path, replayed) > 0);
+
+                Assert.assertEquals(company.getType(), replayed.getType());
+                Assert.assertEquals(company.getName(), replayed.getName());
+
+                Assert.assertEquals(ids(company.getCustomers()), ids(replayed.getCustomers()));
+                Assert.assertEquals(ids(company.getProductTypes()), ids(replayed.getProductTypes()));
+                Assert.assertEquals(ids(company.getOrders()), ids(replayed.getOrders()));
+                Assert.assertEquals(ids(company.getAllTransportation()), ids(replayed.getAllTransportation()));
+                Assert.assertEquals(ids(company.getDeliveries()), ids(replayed.getDeliveries()));
+                Assert.assertEquals(company.getProducts().size(), replayed.getProducts().size());
+                Assert.assertEquals(company.getDeliveryArchive().size(), replayed.getDeliveryArchive().size());
+                for (ProductType productType : company.getProductTypes())
+                    Assert.assertEquals(company.getProductQuantity(productType), replayed.getProductQuantity(productType));
+                company.getAllTransportation().forEach(transportation -> Assert.assertEquals(
+                        transportation.getHealthState(), replayed.getAllTransportation().stream()
+                                .filter(transportation::equals).findFirst().get().getHealthState()));
+                Assert.assertEquals(ids(company.getAllAvailableTransportation()),
+                        ids(replayed.getAllAvailableTransportation()));
+                company.getDeliveries().forEach(delivery -> Assert.assertEquals(delivery.getDeliveryState(),
+                        replayed.getDeliveries().stream().filter(delivery::equals).findFirst().get().getDeliveryState()));
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testIncompleteRecord() throws IOException {
+        Path path = Files.createTempFile("company", ".journal");
+        try {
+            Company company = simulate(InventoryMode.OBJECTS, path);
+            final long complete = CompanyJournal.replay(path,
+                    new Company(company.getType(), company.getName(), company.getHeadquarters()));
+            // Simulates a crash in the middle of the last record
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 3);
+            }
+            Assert.assertEquals(complete - 1, CompanyJournal.replay(path,
+                    new Company(company.getType(), company.getName(), company.getHeadquarters())));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static Company simulate(InventoryMode inventoryMode, Path path) throws IOException {
+        Company company = new Company(CompanyType.LOCAL, "Journaled",
+                CompanyGenerator.generateEmptyRandomCompany().getHeadquarters(), inventoryMode);
+        try (CompanyJournal journal = CompanyJournal.create(path, false)) {
+            company.addListener(journal);
+            DataGenerator dataGenerator = new DataGenerator(company);
+            for (int i = 0; i < 50; i++)
+                company.newCustomer(dataGenerator.generateRandomCustomer());
+            for (int i = 0; i < 5; i++) {
+                ProductType productType = DataGenerator.generateRandomProductType();
+                company.newProductType(productType);
+                company.newProducts(productType, 100);
+            }
+            for (int i = 0; i < 10; i++)
+                company.newTransportation(DataGenerator.generateRandomTransportation());
+
+            CompanySimulatorRunner companySimulator = new CompanySimulatorRunner(company, new Economy());
+            Random random = new Random();
+            for (int i = 0; i < 300; i++) {
+                companySimulator.run();
+                // Worn out transportation gets destroyed by the simulator
+                if (random.nextInt(5) == 0)
+                    company.getTransportationStore().getRandom().ifPresent(company::degradeTransportation);
+                // Deliveries progress without moving, which is not recorded anyway
+                for (Delivery delivery : new ArrayList<>(company.getDeliveries())) {
+                    if (delivery.getDeliveryState() == DeliveryStatus.WAREHOUSE && random.nextInt(10) == 0)
+                        company.startDeliveryShipping(delivery);
+                    else if (delivery.getDeliveryState() == DeliveryStatus.TRANSIT && random.nextInt(20) == 0)
+                        company.confirmDelivery(delivery);
+                    else if (delivery.getDeliveryState() == DeliveryStatus.WAREHOUSE && random.nextInt(100) == 0)
+                        company.cancelDelivery(delivery);
+                }
+                company.archiveDeliveries();
+                // As done through AppDataServer
+                if (i == 100)
+                    company.setName("Renamed");
+                if (i == 200)
+                    company.setType(CompanyType.NATIONAL);
+                journal.commit();
+            }
+            Assert.assertTrue(journal.getRecordsCount() > 0);
+        }
+        return company;
+    }
+
+    private static Set<Long> ids(Collection<? extends Item> items) {
+        return items.stream().map(Item::getNumericId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.product;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import company.customer.Customer;
+import company.order.Order;
+import economy.Economy;
+import org.junit.Assert;
+import org.junit.Test;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.DataGenerator;
+import simulation.simulators.runners.CompanySimulatorRunner;
+import storage.ItemStoreListener;
+
+import java.util.*;
+
+/**
+ * Tests for ColumnarProductStore class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class ColumnarProductStoreTest {
+
+    @Test
+    public void testUnits() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        List<ProductType> productTypes = new ArrayList<>();
+        // More types than the initial capacity of the store
+        for (int i = 0; i < 40; i++) {
+            productTypes.add(DataGenerator.generateRandomProductType());
+            store.add(productTypes.get(i), productTypes.get(i).getBasePrice(), i + 1);
+        }
+        Assert.assertEquals(40 * 41 / 2, store.size());
+        Assert.assertEquals(40 * 41 / 2, store.getStorage().size());
+        Assert.assertEquals(40, store.count(productTypes.get(39)));
+        List<Product> units = store.getAt(new int[] {0, 40 * 41 / 2 - 1, 40 * 41 / 2});
+        Assert.assertEquals(2, units.size());
+        Assert.assertEquals(productTypes.get(0), units.get(0).getProductType());
+        Assert.assertEquals(productTypes.get(39), units.get(1).getProductType());
+
+        // Random picks are uniform over units: types are drawn proportionally to their stock
+        Map<ProductType, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 82000; i++)
+            picks.merge(store.getRandom().get().getProductType(), 1, Integer::sum);
+        Assert.assertEquals(1000, picks.get(productTypes.get(9)), 250);
+        Assert.assertEquals(4000, picks.get(productTypes.get(39)), 500);
+
+        // A picked unit can be deleted and only once
+        Product product = store.getRandom().get();
+        final int count = store.count(product.getProductType());
+        store.delete(product);
+        Assert.assertEquals(count - 1, store.count(product.getProductType()));
+        Assert.assertEquals(40 * 41 / 2 - 1, store.size());
+
+        store.getStorage().removeIf(unit -> unit.getProductType().equals(productTypes.get(0)));
+        Assert.assertEquals(0, store.count(productTypes.get(0)));
+        Assert.assertFalse(store.getStorage().contains(new Product(productTypes.get(0), null)));
+        Assert.assertTrue(store.getStorage().contains(new Product(productTypes.get(1), null)));
+    }
+
+    @Test
+    public void testPrices() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        ProductType productType = DataGenerator.generateRandomProductType();
+        store.add(productType, productType.getBasePrice(), 10);
+
+        // Price of a product is written back to its unit
+        Product product = store.getStorage().iterator().next();
+        product.setPrice(productType.getBasePrice() * 2);
+        Assert.assertTrue(store.getStorage().stream().anyMatch(unit -> unit.getPrice() == productType.getBasePrice() * 2));
+
+        store.discount(0.5f, 0.5f);
+        Assert.assertTrue(store.getStorage().stream().allMatch(unit -> unit.getPrice() >= productType.getBasePrice() / 2));
+        Assert.assertEquals(9, store.getStorage().stream().filter(unit -> unit.getPrice() == productType.getBasePrice() / 2).count());
+    }
+
+    @Test
+    public void testBulk() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        ProductType productType = DataGenerator.generateRandomProductType();
+        final Map<ProductType, Integer> bulkCounts = new HashMap<>();
+        final List<Product> added = new ArrayList<>();
+        final List<Product> deleted = new ArrayList<>();
+        store.addListener(new ProductStoreListener() {
+            @Override
+            public void onAdd(Product product) {
+                Assert.fail("Units must be notified in bulk");
+            }
+
+            @Override
+            public void onDelete(Product product) {
+                Assert.fail("Units must be notified in bulk");
+            }
+
+            @Override
+            public void onAdd(ProductType type, int quantity) {
+                bulkCounts.merge(type, quantity, Integer::sum);
+            }
+
+            @Override
+            public void onDelete(ProductType type, int quantity) {
+                bulkCounts.merge(type, -quantity, Integer::sum);
+            }
+        });
+        store.addListener(new ItemStoreListener<Product>() {
+            @Override
+            public void onAdd(Product product) {
+                added.add(product);
+            }
+
+            @Override
+            public void onDelete(Product product) {
+                deleted.add(product);
+            }
+        });
+
+        // Units take no id: the next allocated id follows the previous one
+        final long before = new Product(productType, null).getNumericId();
+        store.add(productType, productType.getBasePrice(), 1000);
+        store.getRandom();
+        store.getAt(new int[] {0, 1, 2});
+        store.getStorage().forEach(product -> Assert.assertTrue(product.getNumericId() <= 0));
+        Assert.assertEquals(before + 1, new Product(productType, null).getNumericId());
+        Assert.assertEquals(store.getAt(new int[] {5}), store.getAt(new int[] {5}));
+        Assert.assertNotEquals(store.getAt(new int[] {5}), store.getAt(new int[] {6}));
+
+        Assert.assertEquals(1000, (int) bulkCounts.get(productType));
+        Assert.assertEquals(1000, added.size());
+        store.deleteAll(productType);
+        Assert.assertEquals(0, store.count(productType));
+        Assert.assertEquals(0, store.size());
+        Assert.assertFalse(store.getRandom().isPresent());
+        Assert.assertEquals(0, (int) bulkCounts.get(productType));
+        Assert.assertEquals(1000, deleted.size());
+
+        // The type can be stocked again
+        store.add(productType, productType.getBasePrice(), 3);
+        Assert.assertEquals(3, store.count(productType));
+    }
+
+    @Test
+    public void testColumnarCompany() {
+        Company company = CompanyGenerator.generateCompany(CompanyType.LOCAL, InventoryMode.COLUMNAR);
+        Assert.assertTrue(company.getProductStore() instanceof ColumnarProductStore);
+        ProductType productType = company.getProductTypes().iterator().next();
+        final long quantity = company.getProductQuantity(productType);
+        Assert.assertEquals(quantity, ((ColumnarProductStore) company.getProductStore()).count(productType));
+
+        Customer customer = new DataGenerator(company).generateRandomCustomer();
+        Order order = new Order(customer, Collections.singletonList(new Product(productType, null)));
+        company.newOrder(order);
+        Assert.assertEquals(quantity - 1, company.getProductQuantity(productType));
+        company.cancelOrder(order);
+        Assert.assertEquals(quantity, company.getProductQuantity(productType));
+
+        CompanySimulatorRunner runner = new CompanySimulatorRunner(company, new Economy());
+        for (int i = 0; i < 1000; i++)
+            runner.run();
+        final long totalQuantity = company.getProductTypes().stream().mapToLong(company::getProductQuantity).sum();
+        Assert.assertEquals(company.getProducts().size(), totalQuantity);
+
+        final ProductType deletedType = company.getProductTypes().stream()
+                .filter(type -> company.getProductQuantity(type) > 0).findAny().get();
+        final int size = company.getProducts().size();
+        final long deletedQuantity = company.getProductQuantity(deletedType);
+        company.deleteProductType(deletedType);
+        Assert.assertEquals(0, company.getProductQuantity(deletedType));
+        Assert.assertFalse(company.getProductTypes().contains(deletedType));
+        Assert.assertEquals(size - deletedQuantity, company.getProducts().size());
+    }
+}
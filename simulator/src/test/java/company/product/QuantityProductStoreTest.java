@@ -0,0 +1,111 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.product;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import company.customer.Customer;
+import company.order.Order;
+import company.order.OrderLine;
+import economy.Economy;
+import org.junit.Assert;
+import org.junit.Test;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.DataGenerator;
+import simulation.simulators.runners.CompanySimulatorRunner;
+
+import java.util.*;
+
+/**
+ * Tests for QuantityProductStore class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class QuantityProductStoreTest {
+
+    @Test
+    public void testCounts() {
+        QuantityProductStore store = new QuantityProductStore();
+        List<ProductType> productTypes = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            productTypes.add(DataGenerator.generateRandomProductType());
+            store.add(productTypes.get(i), i + 1);
+        }
+        Assert.assertEquals(40 * 41 / 2, store.size());
+        Assert.assertEquals(40 * 41 / 2, store.getStorage().size());
+
+        // Random picks are uniform over units: types are drawn proportionally to their stock
+        Map<ProductType, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 82000; i++)
+            picks.merge(store.getRandom().get().getProductType(), 1, Integer::sum);
+        Assert.assertEquals(1000, picks.get(productTypes.get(9)), 250);
+        Assert.assertEquals(4000, picks.get(productTypes.get(39)), 500);
+        // Units are positioned type after type
+        List<Product> units = store.getAt(new int[] {0, 40 * 41 / 2 - 1, 40 * 41 / 2});
+        Assert.assertEquals(2, units.size());
+        Assert.assertEquals(productTypes.get(0), units.get(0).getProductType());
+        Assert.assertEquals(productTypes.get(39), units.get(1).getProductType());
+
+        // Units take no id: the next allocated id follows the previous one
+        final long before = new Product(productTypes.get(0), null).getNumericId();
+        store.getRandom();
+        store.getStorage().forEach(product -> Assert.assertTrue(product.getNumericId() <= 0));
+        Assert.assertEquals(before + 1, new Product(productTypes.get(0), null).getNumericId());
+
+        // Reservations
+        ProductType productType = productTypes.get(4);
+        Assert.assertEquals(5, store.reserve(productType, 8));
+        Assert.assertEquals(0, store.count(productType));
+        store.release(productType, 2);
+        Assert.assertEquals(2, store.count(productType));
+        store.commit(productType, 3);
+        Assert.assertEquals(0, store.countReserved(productType));
+
+        store.getStorage().removeIf(product -> product.getProductType().equals(productTypes.get(0)));
+        Assert.assertEquals(0, store.count(productTypes.get(0)));
+        Assert.assertEquals(40 * 41 / 2 - 1 - 3, store.size());
+
+        store.discount(0.5f, 0.5f);
+        store.discount(0.5f, 0.5f);
+        Assert.assertEquals(productType.getBasePrice() / 2, store.getPrice(productType), 0.001f);
+    }
+
+    @Test
+    public void testQuantityCompany() {
+        Company company = CompanyGenerator.generateCompany(CompanyType.LOCAL, InventoryMode.QUANTITY);
+        Assert.assertTrue(company.getProductStore() instanceof QuantityProductStore);
+        ProductType productType = company.getProductTypes().iterator().next();
+        final long quantity = company.getProductQuantity(productType);
+
+        Customer customer = new DataGenerator(company).generateRandomCustomer();
+        Order order = Order.fromLines(customer,
+                Collections.singletonList(new OrderLine(productType, (int) quantity + 5, productType.getBasePrice())));
+        company.newOrder(order);
+        // Only what is in stock can be ordered
+        Assert.assertEquals(quantity, order.getQuantity());
+        Assert.assertEquals(0, company.getProductQuantity(productType));
+        Assert.assertEquals(1, company.countOrdersFromProductType(productType));
+        company.cancelOrder(order);
+        Assert.assertEquals(quantity, company.getProductQuantity(productType));
+
+        CompanySimulatorRunner runner = new CompanySimulatorRunner(company, new Economy());
+        for (int i = 0; i < 1000; i++)
+            runner.run();
+        final long totalQuantity = company.getProductTypes().stream().mapToLong(company::getProductQuantity).sum();
+        Assert.assertEquals(company.getProducts().size(), totalQuantity);
+        company.getOrders().forEach(companyOrder -> Assert.assertTrue(companyOrder.validate()));
+    }
+}
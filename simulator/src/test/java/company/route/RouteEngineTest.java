@@ -0,0 +1,91 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.route;
+
+import company.address.Coordinates;
+import company.transportation.TransportationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for RouteEngine class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class RouteEngineTest {
+
+    private static final Coordinates HEADQUARTERS = new Coordinates(45.5017f, -73.5673f);
+    private static final Coordinates DESTINATION = new Coordinates(49.2827f, -123.1207f);
+
+    @Test
+    public void testRoutesAreCached() {
+        RouteEngine routeEngine = new RouteEngine(2, RouteEngine.DEFAULT_CELL_SIZE_IN_DEGREES);
+        Route route = routeEngine.getRoute(HEADQUARTERS, DESTINATION, TransportationMode.WATER);
+        // Destinations of the same cell share the route
+        Assert.assertSame(route, routeEngine.getRoute(HEADQUARTERS, new Coordinates(49.3f, -123.2f),
+                TransportationMode.WATER));
+        Assert.assertNotSame(route, routeEngine.getRoute(HEADQUARTERS, DESTINATION, TransportationMode.AIR));
+        Assert.assertEquals(1, routeEngine.getHits());
+        Assert.assertEquals(2, routeEngine.getMisses());
+
+        // The least recently used route is evicted
+        routeEngine.getRoute(HEADQUARTERS, DESTINATION, TransportationMode.WATER);
+        routeEngine.getRoute(HEADQUARTERS, DESTINATION, TransportationMode.LAND_RAIL);
+        Assert.assertEquals(2, routeEngine.size());
+        Assert.assertSame(route, routeEngine.getRoute(HEADQUARTERS, DESTINATION, TransportationMode.WATER));
+        Assert.assertEquals(3, routeEngine.getMisses());
+        routeEngine.getRoute(HEADQUARTERS, DESTINATION, TransportationMode.AIR);
+        Assert.assertEquals(4, routeEngine.getMisses());
+    }
+
+    @Test
+    public void testEveryModeReachesDestination() {
+        RouteEngine routeEngine = new RouteEngine();
+        final double greatCircle = Coordinates.calculateDistance(HEADQUARTERS, DESTINATION);
+        for (TransportationMode mode : TransportationMode.values()) {
+            RouteCursor cursor = routeEngine.follow(HEADQUARTERS, DESTINATION, mode);
+            Assert.assertEquals(HEADQUARTERS, cursor.getLocation());
+            Assert.assertTrue(cursor.getRoute().getLength() >= greatCircle - 50);
+
+            // Advancing by small steps follows the waypoints
+            double travelled = 0;
+            Coordinates previous = cursor.getLocation();
+            while (!cursor.isFinished()) {
+                Coordinates location = cursor.advance(40);
+                Assert.assertTrue(Coordinates.calculateDistance(previous, location) <= 40 + 1e-3);
+                travelled += 40;
+                previous = location;
+            }
+            Assert.assertEquals(DESTINATION, cursor.getLocation());
+            Assert.assertTrue(travelled >= cursor.getRoute().getLength());
+            // Further moves stay at destination
+            Assert.assertEquals(DESTINATION, cursor.advance(100));
+        }
+        Assert.assertEquals(greatCircle, routeEngine.getRoute(HEADQUARTERS, DESTINATION, TransportationMode.AIR)
+                .getLength(), 50);
+    }
+
+    @Test
+    public void testAdvanceOverSeveralSegments() {
+        RouteEngine routeEngine = new RouteEngine();
+        RouteCursor stepByStep = routeEngine.follow(HEADQUARTERS, DESTINATION, TransportationMode.LAND_RAIL);
+        RouteCursor atOnce = routeEngine.follow(HEADQUARTERS, DESTINATION, TransportationMode.LAND_RAIL);
+        Assert.assertTrue(stepByStep.getRoute().size() > 10);
+        for (int i = 0; i < 25; i++)
+            stepByStep.advance(20);
+        Coordinates location = atOnce.advance(500);
+        Assert.assertEquals(0, Coordinates.calculateDistance(stepByStep.getLocation(), location), 0.01);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package company.transportation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+/**
+ * Tests for TransportationPool class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class TransportationPoolTest {
+
+    @Test
+    public void testFindsByModeAndHealth() {
+        TransportationPool pool = new TransportationPool();
+        Transportation truck = new Transportation(10, 100, TransportationMode.LAND_ROAD);
+        Transportation oldTruck = new Transportation(10, 100, TransportationMode.LAND_ROAD);
+        oldTruck.setHealthState(TransportationHealthState.BAD);
+        Transportation plane = new Transportation(10, 500, TransportationMode.AIR);
+        pool.release(oldTruck);
+        pool.release(truck);
+        pool.release(plane);
+
+        Assert.assertEquals(3, pool.size());
+        Assert.assertEquals(2, pool.size(TransportationMode.LAND_ROAD));
+        Assert.assertSame(truck, pool.find(TransportationMode.LAND_ROAD, TransportationHealthState.CRITICAL).get());
+        Assert.assertSame(plane, pool.find(TransportationMode.AIR, TransportationHealthState.PERFECT).get());
+        Assert.assertFalse(pool.find(TransportationMode.WATER, TransportationHealthState.CRITICAL).isPresent());
+
+        Assert.assertTrue(pool.remove(truck));
+        Assert.assertFalse(pool.remove(truck));
+        Assert.assertFalse(pool.find(TransportationMode.LAND_ROAD, TransportationHealthState.ACCEPTABLE).isPresent());
+        Assert.assertSame(oldTruck, pool.find(TransportationMode.LAND_ROAD, TransportationHealthState.BAD).get());
+        Assert.assertEquals(2, pool.getAll().size());
+    }
+
+    @Test
+    public void testFollowsChanges() {
+        TransportationPool pool = new TransportationPool();
+        Transportation truck = new Transportation(10, 100, TransportationMode.LAND_ROAD);
+        pool.release(truck);
+
+        // Changed without telling the pool
+        truck.degradeHealthState();
+        Assert.assertFalse(pool.find(TransportationMode.LAND_ROAD, TransportationHealthState.PERFECT).isPresent());
+        Assert.assertSame(truck, pool.find(TransportationMode.LAND_ROAD, TransportationHealthState.GOOD).get());
+
+        truck.degradeHealthState();
+        pool.update(truck);
+        Assert.assertSame(truck, pool.find().get());
+
+        truck.setAvailable(false);
+        Assert.assertEquals(Optional.empty(), pool.find());
+        Assert.assertEquals(0, pool.size());
+
+        // Not available transportation is not put back
+        pool.release(truck);
+        Assert.assertEquals(0, pool.size());
+        pool.update(truck);
+        Assert.assertEquals(0, pool.size());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.events;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for EventQueue class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class EventQueueTest {
+
+    @Test
+    public void testChronologicalOrder() {
+        EventQueue queue = new EventQueue();
+        List<String> happened = new ArrayList<>();
+        queue.schedule(5, () -> happened.add("c"));
+        queue.schedule(1, () -> happened.add("a"));
+        // Same instant: scheduling order
+        queue.schedule(3, () -> happened.add("b1"));
+        queue.schedule(3, () -> happened.add("b2"));
+        // Events can schedule events
+        queue.schedule(2, () -> queue.schedule(2, () -> happened.add("d")));
+
+        Assert.assertEquals(4, queue.runUntil(3.5));
+        Assert.assertEquals(3.5, queue.getTime(), 0);
+        Assert.assertEquals(1, happened.indexOf("b1") - happened.indexOf("a"));
+        Assert.assertEquals(2, queue.runUntil(100));
+        Assert.assertEquals(Arrays.asList("a", "b1", "b2", "d", "c"), happened);
+        Assert.assertEquals(100, queue.getTime(), 0);
+        Assert.assertFalse(queue.step());
+    }
+
+    @Test
+    public void testCancel() {
+        EventQueue queue = new EventQueue();
+        List<String> happened = new ArrayList<>();
+        EventQueue.ScheduledEvent cancelled = queue.schedule(1, () -> happened.add("cancelled"));
+        queue.schedule(2, () -> happened.add("kept"));
+        cancelled.cancel();
+        Assert.assertEquals(1, queue.runUntil(10));
+        Assert.assertEquals(1, queue.getProcessedEvents());
+        Assert.assertEquals(1, happened.size());
+        Assert.assertEquals(0, queue.size());
+
+        // Never happening
+        queue.schedule(Double.POSITIVE_INFINITY, () -> happened.add("never"));
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testSkipsIdleTime() {
+        EventQueue queue = new EventQueue();
+        queue.schedule(1000000, () -> { });
+        Assert.assertTrue(queue.step());
+        Assert.assertEquals(1000000, queue.getTime(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDelay() {
+        new EventQueue().schedule(-1, () -> { });
+    }
+}
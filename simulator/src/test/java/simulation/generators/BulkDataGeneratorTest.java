@@ -0,0 +1,116 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.generators;
+
+import company.address.Coordinates;
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import company.customer.Customer;
+import company.product.Product;
+import company.product.ProductType;
+import company.transportation.Transportation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for BulkDataGenerator class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class BulkDataGeneratorTest {
+
+    @Test
+    public void testReproducibleFromSeed() {
+        BulkDataGenerator first = new BulkDataGenerator(42, 100);
+        BulkDataGenerator second = new BulkDataGenerator(42, 100);
+        Customer[] firstCustomers = first.generateCustomers(20000);
+        Customer[] secondCustomers = second.generateCustomers(20000);
+        for (int i = 0; i < firstCustomers.length; i++) {
+            Assert.assertEquals(values(firstCustomers[i]), values(secondCustomers[i]));
+            Assert.assertEquals(firstCustomers[i].getEmailAddress(), secondCustomers[i].getEmailAddress());
+            Assert.assertEquals(firstCustomers[i].getAddress().getCoordinates(),
+                    secondCustomers[i].getAddress().getCoordinates());
+            Assert.assertNotEquals(firstCustomers[i].getNumericId(), secondCustomers[i].getNumericId());
+        }
+
+        ProductType[] firstTypes = first.generateProductTypes(50);
+        ProductType[] secondTypes = second.generateProductTypes(50);
+        for (int i = 0; i < firstTypes.length; i++)
+            Assert.assertEquals(values(firstTypes[i]), values(secondTypes[i]));
+        Transportation[] firstTransportation = first.generateTransportation(50);
+        Transportation[] secondTransportation = second.generateTransportation(50);
+        for (int i = 0; i < firstTransportation.length; i++) {
+            Assert.assertEquals(firstTransportation[i].getTransportationMode(),
+                    secondTransportation[i].getTransportationMode());
+            Assert.assertEquals(firstTransportation[i].getCapacity(), secondTransportation[i].getCapacity(), 0);
+            Assert.assertTrue(firstTransportation[i].validate());
+        }
+
+        Assert.assertNotEquals(new BulkDataGenerator(43, 100).generateCustomers(1)[0].getAddress().getCoordinates(),
+                firstCustomers[0].getAddress().getCoordinates());
+    }
+
+    @Test
+    public void testGeneratesManyItems() {
+        BulkDataGenerator generator = new BulkDataGenerator(7);
+        Customer[] customers = generator.generateCustomers(200000);
+        Product[] products = generator.generateProducts(generator.generateProductTypes(1)[0], 1000000,
+                new Coordinates(0, 0));
+
+        Set<String> emails = new HashSet<>();
+        for (Customer customer : customers) {
+            Assert.assertNotNull(customer);
+            Assert.assertTrue(emails.add(customer.getEmailAddress()));
+            final Coordinates coordinates = customer.getAddress().getCoordinates();
+            Assert.assertTrue(Math.abs(coordinates.getLatitude()) <= 90);
+            Assert.assertTrue(Math.abs(coordinates.getLongitude()) <= 180);
+        }
+        for (Product product : products)
+            Assert.assertNotNull(product);
+    }
+
+    @Test
+    public void testFillsCompanyReproducibly() {
+        Company first = new Company(CompanyType.NATIONAL, "first", AddressGenerator.generateInternationalAddress(),
+                InventoryMode.QUANTITY);
+        Company second = new Company(CompanyType.NATIONAL, "second", AddressGenerator.generateInternationalAddress(),
+                InventoryMode.QUANTITY);
+        new DataGenerator(first, 5).generateData();
+        new DataGenerator(second, 5).generateData();
+        Assert.assertEquals(first.getCustomers().size(), second.getCustomers().size());
+        Assert.assertEquals(first.getCustomers().stream().map(BulkDataGeneratorTest::values).collect(Collectors.toSet()),
+                second.getCustomers().stream().map(BulkDataGeneratorTest::values).collect(Collectors.toSet()));
+        Assert.assertEquals(first.getProductTypes().stream().map(BulkDataGeneratorTest::values).collect(Collectors.toSet()),
+                second.getProductTypes().stream().map(BulkDataGeneratorTest::values).collect(Collectors.toSet()));
+        Assert.assertEquals(first.getAllTransportation().size(), second.getAllTransportation().size());
+        Assert.assertEquals(first.getProducts().size(), second.getProducts().size());
+    }
+
+    /**
+     * Items are equal by id only: generated items are compared by their values.
+     */
+    private static List<Object> values(Customer customer) {
+        return Arrays.asList(customer.getFirstName(), customer.getLastName(), customer.getAddress());
+    }
+
+    private static List<Object> values(ProductType productType) {
+        return Arrays.asList(productType.getName(), productType.getProductionCountry(), productType.getBasePrice(),
+                productType.getWeight(), productType.isFragile());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.generators;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for GenerationProfile class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class GenerationProfileTest {
+
+    @Test
+    public void testRanges() {
+        Random random = new Random(1);
+        GenerationProfile local = GenerationProfile.of(CompanyType.LOCAL);
+        for (int i = 0; i < 100; i++) {
+            int customers = local.drawCustomers(random);
+            Assert.assertTrue(customers >= 50 && customers < 100);
+            int transportation = local.drawTransportation(random);
+            Assert.assertTrue(transportation >= 5 && transportation < 10);
+        }
+        Assert.assertEquals(1000000, GenerationProfile.of(CompanyType.GLOBAL_1M).drawCustomers(random));
+        Assert.assertEquals(10000000, GenerationProfile.of(CompanyType.GLOBAL_10M).getMaxCustomers());
+
+        GenerationProfile scaled = GenerationProfile.of(CompanyType.GLOBAL_10M).scale(0.001, 1, 0.5, 2);
+        Assert.assertEquals(10000, scaled.drawCustomers(random));
+        int transportation = scaled.drawTransportation(random);
+        Assert.assertTrue(transportation >= 50000 && transportation < 100000);
+        int productTypes = scaled.drawProductTypes(random);
+        Assert.assertTrue(productTypes >= 10000 && productTypes < 20000);
+    }
+
+    @Test
+    public void testScaledStressCompany() {
+        GenerationProfile profile = GenerationProfile.of(CompanyType.GLOBAL_1M).scale(0.02, 0.01, 0.01, 0.05);
+        Company company = CompanyGenerator.generateCompany(CompanyType.GLOBAL_1M, InventoryMode.QUANTITY, profile, 3);
+        Assert.assertEquals(20000, company.getCustomers().size());
+        Assert.assertTrue(company.getProductTypes().size() >= 50 && company.getProductTypes().size() < 100);
+        Assert.assertTrue(company.getAllTransportation().size() >= 100 && company.getAllTransportation().size() < 200);
+        Assert.assertTrue(company.getProducts().size() > 0);
+    }
+
+    @Test
+    public void testStockScale() {
+        // Full stock and types of GLOBAL_10M, few customers and vehicles
+        GenerationProfile profile = GenerationProfile.of(CompanyType.GLOBAL_10M).scale(0.0001, 1, 0.001, 1);
+        Company company = CompanyGenerator.generateCompany(CompanyType.GLOBAL_10M, InventoryMode.QUANTITY, profile, 5);
+        final long units = company.getProductTypes().stream().mapToLong(company::getProductQuantity).sum();
+        Assert.assertEquals(units, company.getProducts().size());
+        Assert.assertTrue("Generated " + units + " units", units <= profile.getMaxProducts());
+        // About 15 million units
+        Assert.assertTrue("Generated " + units + " units", units > 5000000 && units < 30000000);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.main;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import economy.Economy;
+import org.junit.Assert;
+import org.junit.Test;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.GenerationProfile;
+
+/**
+ * Tests for BatchSimulation class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class BatchSimulationTest {
+
+    @Test
+    public void testHourByHour() {
+        BatchSimulation.Report report = new BatchSimulation(generateCompany(), new Economy(), false).run(7);
+        Assert.assertEquals(7 * 24, report.getSimulatedHours());
+        Assert.assertEquals(7 * 24, report.getEvents());
+        Assert.assertTrue(report.getHoursPerSecond() > 0);
+        Assert.assertTrue(report.getStoresSizes().get("customers") > 0);
+        Assert.assertTrue(report.toString().contains("simulated hours per second"));
+    }
+
+    @Test
+    public void testEventByEvent() {
+        BatchSimulation.Report report = new BatchSimulation(generateCompany(), new Economy(), true).run(7);
+        Assert.assertEquals(7 * 24, report.getSimulatedHours());
+        // At least the hourly events
+        Assert.assertTrue(report.getEvents() >= 7 * 24);
+        Assert.assertTrue(report.getStoresSizes().get("customers") > 0);
+    }
+
+    @Test
+    public void testMain() {
+        BatchSimulation.main(new String[] {"--days", "2", "--type", "LOCAL", "--seed", "3", "--events"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownArgument() {
+        BatchSimulation.main(new String[] {"--weeks", "2"});
+    }
+
+    private static Company generateCompany() {
+        return CompanyGenerator.generateCompany(CompanyType.LOCAL, InventoryMode.QUANTITY,
+                GenerationProfile.of(CompanyType.LOCAL), 1);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.simulators;
+
+import company.address.Address;
+import company.address.Coordinates;
+import company.company.Company;
+import company.company.CompanyListener;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import company.customer.Customer;
+import company.order.Order;
+import company.product.ProductType;
+import economy.Economy;
+import org.junit.Assert;
+import org.junit.Test;
+import simulation.generators.BulkDataGenerator;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.GenerationProfile;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for DiscreteEventSimulator class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class DiscreteEventSimulatorTest {
+
+    @Test
+    public void testSimulatesCompany() {
+        Company company = CompanyGenerator.generateCompany(CompanyType.LOCAL, InventoryMode.QUANTITY,
+                GenerationProfile.of(CompanyType.LOCAL), 1);
+        DiscreteEventSimulator simulator = new DiscreteEventSimulator(company, new Economy(), new Random(1));
+        // Two months
+        simulator.runFor(24 * 56);
+        Assert.assertEquals(24 * 56, simulator.getTime(), 0);
+        Assert.assertTrue(simulator.getProcessedEvents() >= 24 * 56);
+        Assert.assertTrue(company.getDeliveries().size() + company.getDeliveryArchive().size() > 0);
+        // Only the next occurrence of each process and the pending deliveries and destructions are waiting
+        Assert.assertTrue(simulator.getScheduledEvents() < 10 + company.getDeliveries().size() +
+                company.getAllTransportation().size());
+        simulator.shutdown();
+    }
+
+    @Test
+    public void testOrdersRate() {
+        Company company = new Company(CompanyType.LOCAL, "Orders", new Address("", "", "", "", "",
+                new Coordinates(0, 0)), InventoryMode.QUANTITY);
+        ProductType productType = new ProductType("Product", "Country", 10, 1, false);
+        company.newProductType(productType);
+        company.newProducts(productType, 1000000);
+        for (Customer customer : new BulkDataGenerator(1).generateCustomers(10000))
+            company.newCustomer(customer);
+        AtomicInteger orders = new AtomicInteger();
+        company.addListener(new CompanyListener() {
+            @Override
+            public void onNewOrder(Order order) {
+                orders.incrementAndGet();
+            }
+        });
+
+        DiscreteEventSimulator simulator = new DiscreteEventSimulator(company, new Economy(), new Random(2));
+        // Once a month per customer
+        simulator.runFor(24 * 7 * 4);
+        Assert.assertEquals(10000, orders.get(), 500);
+        // An hourly simulation would have drawn an event for every customer and every order, every hour
+        Assert.assertTrue(simulator.getProcessedEvents() < (10000L + orders.get()) * 24 * 7 * 4 / 10);
+        simulator.shutdown();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package simulation.simulators;
+
+import company.company.Company;
+import company.company.CompanyType;
+import company.company.InventoryMode;
+import economy.Economy;
+import org.junit.Assert;
+import org.junit.Test;
+import simulation.generators.CompanyGenerator;
+import simulation.generators.GenerationProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for MarketSimulator class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class MarketSimulatorTest {
+
+    @Test
+    public void testSimulatesEveryCompany() throws InterruptedException {
+        List<Company> companies = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            companies.add(CompanyGenerator.generateCompany(CompanyType.LOCAL, InventoryMode.QUANTITY,
+                    GenerationProfile.of(CompanyType.LOCAL), i));
+        MarketSimulator market = new MarketSimulator(new Economy(), companies, 4);
+        try {
+            for (int i = 0; i < 500; i++)
+                market.tick();
+            Assert.assertEquals(500, market.getTicks());
+            for (Company company : market.getCompanies()) {
+                Assert.assertNotNull(company.getSnapshot());
+                // Every company has been simulated: deliveries have been made
+                Assert.assertTrue(company.getDeliveries().size() + company.getDeliveryArchive().size() > 0);
+            }
+
+            market.start(1);
+            final long ticks = market.getTicks();
+            while (market.getTicks() < ticks + 10)
+                Thread.sleep(10);
+            market.stop();
+            final long stopped = market.getTicks();
+            Thread.sleep(50);
+            Assert.assertEquals(stopped, market.getTicks());
+        } finally {
+            market.shutdown();
+        }
+    }
+}
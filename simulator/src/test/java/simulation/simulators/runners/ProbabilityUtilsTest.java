@@ -18,6 +18,8 @@ import org.junit.Assert;
 import org.junit.Test;
 import simulation.util.ProbabilityUtils;
 
+import java.util.Random;
+
 /**
  * Created by Arthur Deschamps on 16.06.17.
  */
@@ -63,4 +65,46 @@ public class ProbabilityUtilsTest {
         Assert.assertTrue(occurred);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testInterval() {
+        // Twice a day means 12 hours between two occurrences on average
+        Random random = new Random(42);
+        double total = 0;
+        for (int i = 0; i < 100000; i++)
+            total += proba.interval(2, ProbabilityUtils.TimeUnit.DAY, random);
+        Assert.assertEquals(12, total / 100000, 0.2);
+
+        Assert.assertTrue(Double.isInfinite(proba.interval(0, ProbabilityUtils.TimeUnit.DAY, random)));
+    }
+
+    @Test
+    public void testSample() {
+        Random random = new Random(7);
+        // Once a month: 1 chance in 672 per hour
+        long total = 0;
+        for (int hour = 0; hour < 1000; hour++) {
+            int[] positions = proba.sample(100000, 1, ProbabilityUtils.TimeUnit.MONTH, random);
+            for (int i = 0; i < positions.length; i++) {
+                Assert.assertTrue(positions[i] >= 0 && positions[i] < 100000);
+                if (i > 0)
+                    Assert.assertTrue(positions[i] > positions[i - 1]);
+            }
+            total += positions.length;
+        }
+        Assert.assertEquals(100000.0 * 1000 / 672, total, 100000.0 * 1000 / 672 * 0.03);
+
+        Assert.assertEquals(0, proba.sample(100000, 0, ProbabilityUtils.TimeUnit.DAY).length);
+        Assert.assertEquals(0, proba.sample(0, 1, ProbabilityUtils.TimeUnit.DAY).length);
+        // More than once an hour
+        Assert.assertArrayEquals(new int[] {0, 1, 2}, proba.sample(3, 2, ProbabilityUtils.TimeUnit.HOUR));
+    }
+
+    @Test
+    public void testProbability() {
+        Assert.assertEquals(1.0 / 24, ProbabilityUtils.probability(1, ProbabilityUtils.TimeUnit.DAY), 1e-12);
+        // Not truncated
+        Assert.assertEquals(0.5 / 24, ProbabilityUtils.probability(0.5, ProbabilityUtils.TimeUnit.DAY), 1e-12);
+        Assert.assertEquals(1, ProbabilityUtils.probability(5, ProbabilityUtils.TimeUnit.HOUR), 0);
+    }
+
+}
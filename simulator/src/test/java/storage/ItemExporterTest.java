@@ -0,0 +1,142 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import company.transportation.Transportation;
+import company.transportation.TransportationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+/**
+ * Tests for ItemExporter class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class ItemExporterTest {
+
+    private static ItemStore<Transportation> newStore(int size) {
+        ItemStore<Transportation> store = new ItemStore<>();
+        for (int i = 0; i < size; i++)
+            store.add(new Transportation(1000, 100, TransportationMode.LAND_ROAD));
+        return store;
+    }
+
+    @Test
+    public void testStreamingMatchesGson() throws Exception {
+        ItemStore<Transportation> store = newStore(100);
+        StringWriter out = new StringWriter();
+        store.asJson(out);
+        Assert.assertEquals(new JsonParser().parse(new Gson().toJson(store.getStorage())),
+                new JsonParser().parse(out.toString()));
+        Assert.assertEquals(out.toString(), store.asJson());
+    }
+
+    @Test
+    public void testPagesWhileModifying() throws Exception {
+        ItemStore<Transportation> store = newStore(1000);
+        Set<Transportation> initial = new HashSet<>(store.getStorage());
+        Set<Transportation> exported = new HashSet<>();
+        ItemExporter exporter = new ItemExporter();
+        String token = null;
+        do {
+            ItemExporter.Page<Transportation> page = ItemExporter.page(store.getStorage(), 64, token);
+            for (Transportation transportation : page.getItems())
+                Assert.assertTrue(exported.add(transportation));
+            StringWriter out = new StringWriter();
+            Assert.assertEquals(page.getNext(), exporter.writePage(store.getStorage(), 64, token, out));
+            JsonArray json = new JsonParser().parse(out.toString()).getAsJsonArray();
+            Assert.assertEquals(page.getItems().size(), json.size());
+            token = page.getNext();
+
+            // Deleting exported items and adding new ones between two pages does not shift the next pages
+            store.delete(page.getItems().get(0));
+            initial.remove(page.getItems().get(0));
+            if (token != null)
+                store.add(new Transportation(1000, 100, TransportationMode.AIR));
+        } while (token != null);
+
+        Assert.assertTrue(exported.containsAll(initial));
+        Assert.assertTrue(exported.containsAll(store.getStorage()));
+    }
+
+    @Test
+    public void testPagesAreOrderedById() {
+        ItemStore<Transportation> store = newStore(250);
+        List<Transportation> all = new ArrayList<>();
+        String token = null;
+        do {
+            ItemExporter.Page<Transportation> page = ItemExporter.page(store.getStorage(), 100, token);
+            all.addAll(page.getItems());
+            token = page.getNext();
+        } while (token != null);
+
+        Assert.assertEquals(250, all.size());
+        Assert.assertEquals(new HashSet<>(store.getStorage()), new HashSet<>(all));
+        for (int i = 1; i < all.size(); i++)
+            Assert.assertTrue(all.get(i - 1).getNumericId() < all.get(i).getNumericId());
+    }
+
+    @Test
+    public void testSortedPagesMatchPages() {
+        ItemStore<Transportation> store = newStore(1000);
+        List<Transportation> sorted = new ArrayList<>(store.getStorage());
+        sorted.sort(Comparator.comparingLong(Transportation::getNumericId));
+        String token = null;
+        int pages = 0;
+        do {
+            ItemExporter.Page<Transportation> expected = ItemExporter.page(store.getStorage(), 64, token);
+            ItemExporter.Page<Transportation> actual = ItemExporter.pageSorted(sorted, 64, token);
+            Assert.assertEquals(expected.getItems(), actual.getItems());
+            Assert.assertEquals(expected.getNext(), actual.getNext());
+            token = actual.getNext();
+            pages++;
+        } while (token != null);
+        Assert.assertEquals(16, pages);
+
+        // The token does not have to be the id of an item of the list
+        final long deleted = sorted.remove(500).getNumericId();
+        ItemExporter.Page<Transportation> page = ItemExporter.pageSorted(sorted, 10,
+                Long.toString(deleted, Character.MAX_RADIX));
+        Assert.assertEquals(sorted.get(500), page.getItems().get(0));
+        Assert.assertNull(ItemExporter.pageSorted(sorted, 1000, null).getNext());
+    }
+
+    @Test
+    public void testIdIsWrittenAsString() throws Exception {
+        ItemStore<Transportation> store = newStore(3);
+        StringWriter out = new StringWriter();
+        store.asJson(out);
+        JsonArray json = new JsonParser().parse(out.toString()).getAsJsonArray();
+        Iterator<Transportation> items = store.getStorage().iterator();
+        for (int i = 0; i < json.size(); i++)
+            // The frontend app and the Kapua topics refer to items by getId
+            Assert.assertEquals(items.next().getId(), json.get(i).getAsJsonObject().get("id").getAsString());
+
+        Transportation transportation = store.getStorage().iterator().next();
+        Assert.assertEquals(transportation.getNumericId(),
+                new Gson().fromJson(transportation.toJson(), Transportation.class).getNumericId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedToken() {
+        ItemExporter.page(newStore(1).getStorage(), 10, "not a token!");
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import company.transportation.Transportation;
+import company.transportation.TransportationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests for ItemIdAllocator class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class ItemIdAllocatorTest {
+
+    @Test
+    public void testBlockBelowRestoredIdIsDropped() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The thread takes a block, then an id of that block is restored by another thread
+            final long first = executor.submit(ItemIdAllocator::next).get();
+            final long restoredId = first + 10;
+            final Transportation restored = Item.restore(restoredId,
+                    () -> new Transportation(1000, 100, TransportationMode.LAND_ROAD));
+            Assert.assertEquals(restoredId, restored.getNumericId());
+            for (int i = 0; i < 20; i++)
+                Assert.assertTrue(executor.submit(ItemIdAllocator::next).get() > restoredId);
+            Assert.assertTrue(ItemIdAllocator.next() > restoredId);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRestoreIdNotAllocated() {
+        final long before = ItemIdAllocator.next();
+        final Transportation restored = Item.restore(-5,
+                () -> new Transportation(1000, 100, TransportationMode.LAND_ROAD));
+        Assert.assertEquals(-5, restored.getNumericId());
+        // Nothing is reserved
+        Assert.assertEquals(before + 1, ItemIdAllocator.next());
+    }
+}
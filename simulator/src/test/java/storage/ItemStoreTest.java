@@ -0,0 +1,177 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import com.google.gson.Gson;
+import company.address.Address;
+import company.customer.Customer;
+import company.transportation.Transportation;
+import company.transportation.TransportationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for ItemStore class.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class ItemStoreTest {
+
+    private static Transportation newItem() {
+        return new Transportation(1000, 100, TransportationMode.LAND_ROAD);
+    }
+
+    @Test
+    public void testAddAndDelete() {
+        ItemStore<Transportation> store = new ItemStore<>();
+        List<Transportation> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(newItem());
+            store.add(items.get(i));
+        }
+        // Adding twice the same item has no effect
+        store.add(items.get(0));
+        Assert.assertEquals(100, store.size());
+        Assert.assertEquals(100, store.getStorage().size());
+
+        for (int i = 0; i < 100; i += 2)
+            store.delete(items.get(i));
+        Assert.assertEquals(50, store.size());
+        for (int i = 0; i < 100; i++)
+            Assert.assertEquals(i % 2 == 1, store.getStorage().contains(items.get(i)));
+        Assert.assertEquals(new HashSet<>(store.getStorage()).size(), 50);
+    }
+
+    @Test
+    public void testStorageContract() {
+        // Items are equal by id: items with the same values are distinct, and a copy with the same id is the item
+        for (ItemStore<Customer> store : Arrays.<ItemStore<Customer>>asList(new ItemStore<>(),
+                new ConcurrentItemStore<>())) {
+            Address address = new Address("1 Main Street", "Springfield", "Oregon", "United States", "97477", null);
+            Customer customer = new Customer("John", "Doe", address, "john@doe.com", "555-0100");
+            Customer sameValues = new Customer("John", "Doe", address, "john@doe.com", "555-0100");
+            Assert.assertNotEquals(customer, sameValues);
+            store.add(customer);
+            store.add(sameValues);
+            Assert.assertEquals(2, store.size());
+            Assert.assertEquals(new HashSet<>(Arrays.asList(customer, sameValues)), store.getStorage());
+
+            Customer copy = new Gson().fromJson(customer.toJson(), Customer.class);
+            Assert.assertEquals(customer, copy);
+            Assert.assertEquals(customer.hashCode(), copy.hashCode());
+            Assert.assertTrue(store.getStorage().contains(copy));
+            Assert.assertFalse(store.getStorage().contains(new Customer("John", "Doe", address, null, null)));
+            Assert.assertTrue(store.getStorage().remove(copy));
+            Assert.assertFalse(store.getStorage().contains(customer));
+            Assert.assertTrue(store.getStorage().contains(sameValues));
+        }
+    }
+
+    @Test
+    public void testRemoveWhileIterating() {
+        ItemStore<Transportation> store = new ItemStore<>();
+        Set<Transportation> expected = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Transportation transportation = newItem();
+            if (i % 3 == 0)
+                transportation.setAvailable(false);
+            else
+                expected.add(transportation);
+            store.add(transportation);
+        }
+        store.getStorage().removeIf(transportation -> !transportation.isAvailable());
+        Assert.assertEquals(expected, store.getStorage());
+
+        store.getStorage().removeAll(store.getStorage());
+        Assert.assertEquals(0, store.size());
+        Assert.assertFalse(store.getRandom().isPresent());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testFailFastIterator() {
+        ItemStore<Transportation> store = new ItemStore<>();
+        store.add(newItem());
+        store.add(newItem());
+        for (Transportation ignored : store.getStorage())
+            store.add(newItem());
+    }
+
+    @Test
+    public void testRandomIsUniform() {
+        ItemStore<Transportation> store = new ItemStore<>();
+        for (int i = 0; i < 10; i++)
+            store.add(newItem());
+        Map<Transportation, Integer> picks = new HashMap<>();
+        final int draws = 100000;
+        for (int i = 0; i < draws; i++)
+            picks.merge(store.getRandom().get(), 1, Integer::sum);
+        Assert.assertEquals(10, picks.size());
+        picks.values().forEach(count -> Assert.assertEquals(draws / 10, count, draws / 50));
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentReaders() throws Exception {
+        ConcurrentItemStore<Transportation> store = new ConcurrentItemStore<>();
+        for (int i = 0; i < 1000; i++)
+            store.add(newItem());
+
+        // Readers iterate while the writer keeps adding and deleting
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            futures.add(readers.submit(() -> {
+                for (int j = 0; j < 200; j++)
+                    for (Transportation transportation : store.getStorage())
+                        Assert.assertNotNull(transportation.getId());
+            }));
+        for (int i = 0; i < 20000; i++) {
+            store.add(newItem());
+            store.getRandom().ifPresent(store::delete);
+        }
+        for (Future<?> future : futures)
+            future.get();
+        readers.shutdown();
+        readers.awaitTermination(1, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1000, store.size());
+        Assert.assertEquals(1000, new HashSet<>(store.getStorage()).size());
+        store.getStorage().removeIf(transportation -> true);
+        Assert.assertEquals(0, store.size());
+        Assert.assertFalse(store.getRandom().isPresent());
+    }
+
+    @Test
+    public void testGetAt() {
+        for (ItemStore<Transportation> store : Arrays.asList(new ItemStore<Transportation>(),
+                new ConcurrentItemStore<Transportation>())) {
+            List<Transportation> items = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                items.add(newItem());
+                store.add(items.get(i));
+            }
+            List<Transportation> found = store.getAt(new int[] {0, 3, 9, 10, -1});
+            Assert.assertEquals(3, found.size());
+            for (Transportation transportation : found)
+                Assert.assertTrue(store.getStorage().contains(transportation));
+            Assert.assertEquals(10, new HashSet<>(store.getAt(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9})).size());
+        }
+    }
+}
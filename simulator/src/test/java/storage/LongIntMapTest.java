@@ -0,0 +1,74 @@
+/*
+ * ******************************************************************************
+ *  * Copyright (c) 2017 Arthur Deschamps
+ *  *
+ *  * All rights reserved. This program and the accompanying materials
+ *  * are made available under the terms of the Eclipse Public License v1.0
+ *  * which accompanies this distribution, and is available at
+ *  * http://www.eclipse.org/legal/epl-v10.html
+ *  *
+ *  * Contributors:
+ *  *     Arthur Deschamps
+ *  ******************************************************************************
+ */
+
+package storage;
+
+import company.transportation.Transportation;
+import company.transportation.TransportationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests for LongIntMap class and item ids.
+ * @author Arthur Deschamps
+ * @since 1.0
+ */
+public class LongIntMapTest {
+
+    @Test
+    public void testAgainstHashMap() {
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            final long key = 1 + random.nextInt(5000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5000; key++)
+            Assert.assertEquals((int) expected.getOrDefault(key, -1), map.get(key));
+    }
+
+    @Test
+    public void testItemIds() throws InterruptedException {
+        Set<String> ids = Collections.synchronizedSet(new HashSet<>());
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 5000; j++) {
+                    Transportation transportation = new Transportation(1000, 100, TransportationMode.AIR);
+                    Assert.assertSame(transportation.getId(), transportation.getId());
+                    ids.add(transportation.getId());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        Assert.assertEquals(20000, ids.size());
+    }
+}
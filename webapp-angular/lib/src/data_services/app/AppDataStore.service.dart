@@ -31,6 +31,9 @@ class AppDataStoreService {
   final AppDataClientService _dataClient;
   final DataTransformerService _dataTransformer;
 
+  /// Number of customers asked at once by [getAllCustomers].
+  static const int customersPageSize = 500;
+
   AppDataStoreService(this._dataClient, this._dataTransformer);
 
   /// Returns the type of transportation of the transport identified by
@@ -65,9 +68,21 @@ class AppDataStoreService {
       _dataTransformer.number(response) as int);
 
   /// Will return every customers of the company.
-  Future<List<Customer>> getAllCustomers() =>
-     _dataClient.request("company/customers/all").then((response) =>
-      _dataTransformer.customers(response));
+  ///
+  /// Customers are pulled by pages of [customersPageSize] so that no single
+  /// response gets too big.
+  Future<List<Customer>> getAllCustomers() async {
+    List<Customer> customers = new List();
+    String next;
+    do {
+      String request = "company/customers/page/" + customersPageSize.toString();
+      if (next != null) request += "/" + next;
+      Map response = await _dataClient.request(request);
+      customers.addAll(await _dataTransformer.customers(response));
+      next = response["next"];
+    } while (next != null);
+    return customers;
+  }
 
   /// Will return every customers agglomerations, calculated in the simulation
   ///